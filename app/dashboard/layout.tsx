@@ -21,11 +21,11 @@ export default function AdminLayout({ children }: { children: ReactNode }) {
   useEffect(() => {
     if (typeof window !== 'undefined') {
       const storedRole = localStorage.getItem('funkard_admin_role') || 'guest';
-      const adminId = localStorage.getItem('funkard_admin_id') || 'test';
       setRole(storedRole);
 
-      const url = `${process.env.NEXT_PUBLIC_API_URL}/api/admin/support/stream?userId=${adminId}&role=${storedRole}`;
-      const es = new EventSource(url);
+      // identità e ruolo li ricava il backend dalla sessione, non dalla query
+      const url = `${process.env.NEXT_PUBLIC_API_URL}/api/admin/support/stream`;
+      const es = new EventSource(url, { withCredentials: true });
 
       setSseStatus('online');
       console.log('[SSE] Connessione stabilita con', url);
@@ -0,0 +1,102 @@
+#!/bin/bash
+
+# Load test del backend admin con il traffico della dashboard
+# (stream SSE, polling unreadCount, liste/filtri, raffiche di ticket, azioni bulk).
+# Richiede Java 21; il generatore è un singolo file senza dipendenze.
+#
+# Uso:
+#   ./load-test.sh run [opzioni]       contro un backend già avviato (BASE_URL)
+#   ./load-test.sh compare [opzioni]   avvia l'app due volte (platform / virtual) e confronta
+#
+# Per compare, APP_CMD è il comando che avvia il backend, es.:
+#   APP_CMD="java -jar target/funkard-api.jar" ./load-test.sh compare --streams=5000
+# L'app viene avviata due volte su PostgreSQL, con funkard.threads.mode diverso
+# ad ogni giro e schema ricreato (ddl-auto=create). Senza DB_URL il database è
+# il servizio postgres di loadtest/docker-compose.yml, avviato e poi fermato
+# dallo script; con DB_URL (più DB_USER / DB_PASSWORD) si usa un PostgreSQL
+# già attivo, il cui schema public viene sovrascritto.
+# I report vanno in OUT_DIR (default la cartella corrente).
+#
+# Opzioni del generatore: --duration-s --warmup-s --streams --pollers --browsers
+# --poll-ms --think-ms --ticket-burst --ticket-every-ms --bulk-every-ms --out
+# --slo="GET /unreadCount:p99=50,GET /page:p99=200,POST /api/support:errors=0.01"
+
+set -euo pipefail
+
+DIR="$(cd "$(dirname "$0")" && pwd)"
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+ADMIN_TOKEN="${ADMIN_TOKEN:-}"
+PORT="${PORT:-8080}"
+OUT_DIR="${OUT_DIR:-.}"
+COMPOSE=(docker compose -f "$DIR/loadtest/docker-compose.yml")
+MODE="${1:-run}"
+shift || true
+
+load() {
+  java -Xss512k "$DIR/loadtest/AdminLoadTest.java" --base-url="$BASE_URL" --token="$ADMIN_TOKEN" "$@"
+}
+
+start_app() {
+  local threads="$1"
+  $APP_CMD \
+    --server.port="$PORT" \
+    --spring.datasource.url="$DB_URL" \
+    --spring.datasource.username="$DB_USER" \
+    --spring.datasource.password="$DB_PASSWORD" \
+    --spring.jpa.hibernate.ddl-auto=create \
+    --spring.jpa.open-in-view=false \
+    --funkard.threads.mode="$threads" \
+    > "$OUT_DIR/load-test-app-$threads.log" 2>&1 &
+  APP_PID=$!
+  for _ in $(seq 1 120); do
+    if curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; then
+      return 0
+    fi
+    sleep 1
+  done
+  echo "❌ Backend non avviato in 120 s (vedi $OUT_DIR/load-test-app-$threads.log)"
+  kill "$APP_PID" 2>/dev/null || true
+  exit 1
+}
+
+case "$MODE" in
+  run)
+    echo "🚦 Load test contro $BASE_URL"
+    load "$@"
+    ;;
+  compare)
+    if [ -z "${APP_CMD:-}" ]; then
+      echo "❌ Imposta APP_CMD con il comando di avvio del backend"
+      exit 1
+    fi
+    BASE_URL="http://localhost:$PORT"
+    mkdir -p "$OUT_DIR"
+    if [ -z "${DB_URL:-}" ]; then
+      echo "🐘 Avvio PostgreSQL (loadtest/docker-compose.yml)"
+      "${COMPOSE[@]}" up -d --wait postgres
+      trap '"${COMPOSE[@]}" down -v' EXIT
+      DB_URL="jdbc:postgresql://localhost:55432/funkard"
+      DB_USER="funkard"
+      DB_PASSWORD="funkard"
+    fi
+    DB_USER="${DB_USER:-postgres}"
+    DB_PASSWORD="${DB_PASSWORD:-}"
+    status=0
+    for threads in platform virtual; do
+      echo ""
+      echo "🧵 funkard.threads.mode=$threads"
+      echo "====================================="
+      start_app "$threads"
+      load --out="$OUT_DIR/load-test-$threads.json" "$@" || status=1
+      kill "$APP_PID"
+      wait "$APP_PID" 2>/dev/null || true
+    done
+    echo ""
+    echo "📋 Report: $OUT_DIR/load-test-platform.json, $OUT_DIR/load-test-virtual.json"
+    exit $status
+    ;;
+  *)
+    echo "Uso: $0 run|compare [opzioni]"
+    exit 1
+    ;;
+esac
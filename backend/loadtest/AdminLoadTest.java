@@ -0,0 +1,480 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generatore di carico per il backend admin (Java 21, nessuna dipendenza).
+ *
+ * Riproduce il traffico della dashboard, un virtual thread per utente simulato:
+ * - streams:   connessioni SSE aperte su /api/admin/notifications/stream
+ * - pollers:   GET /unreadCount ogni poll-ms
+ * - browsers:  lista, pagine keyset, filtri e dettaglio, con think time
+ * - ticket:    raffiche di POST /api/support (ticket-burst ogni ticket-every-ms)
+ * - bulk:      bulk resolve + archive delle notifiche support_ticket ogni bulk-every-ms
+ *
+ * Per ogni endpoint riporta richieste, errori, throughput e p50/p90/p99/max;
+ * con --slo=nome:p99=ms,... esce con codice 1 se una soglia non è rispettata.
+ *
+ * Uso: java AdminLoadTest.java --base-url=http://localhost:8080 --duration-s=60 --streams=5000
+ * (vedi load-test.sh per l'avvio dell'app e il confronto platform/virtual)
+ */
+public class AdminLoadTest {
+
+  public static void main(String[] args) throws Exception {
+    Config cfg = Config.parse(args);
+    Report report = new AdminLoadTest(cfg).run();
+    report.print(System.out);
+    if (cfg.out != null) {
+      Files.writeString(Path.of(cfg.out), report.toJson());
+    }
+    List<String> violations = report.check(cfg.slo);
+    violations.forEach(v -> System.out.println("SLO violato: " + v));
+    System.exit(violations.isEmpty() ? 0 : 1);
+  }
+
+  private final Config cfg;
+  private final HttpClient http;
+  private final Map<String, Histogram> stats = new ConcurrentHashMap<>();
+  private final AtomicBoolean running = new AtomicBoolean(true);
+  private final AtomicBoolean measuring = new AtomicBoolean(false);
+  private final AtomicLong streamsOpen = new AtomicLong();
+  private final AtomicLong streamsFailed = new AtomicLong();
+  private final AtomicLong streamsDropped = new AtomicLong();
+  private final AtomicLong streamEvents = new AtomicLong();
+
+  AdminLoadTest(Config cfg) {
+    this.cfg = cfg;
+    this.http = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(10))
+        .executor(Executors.newVirtualThreadPerTaskExecutor())
+        .build();
+  }
+
+  Report run() throws InterruptedException {
+    try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < cfg.streams; i++) {
+        users.execute(this::stream);
+      }
+      for (int i = 0; i < cfg.pollers; i++) {
+        users.execute(this::poller);
+      }
+      for (int i = 0; i < cfg.browsers; i++) {
+        users.execute(this::browser);
+      }
+      users.execute(this::ticketBursts);
+      users.execute(this::bulkActions);
+
+      Thread.sleep(cfg.warmupS * 1000L);
+      measuring.set(true);
+      long start = System.nanoTime();
+      Thread.sleep(cfg.durationS * 1000L);
+      measuring.set(false);
+      double seconds = (System.nanoTime() - start) / 1e9;
+      running.set(false);
+      users.shutdownNow();
+      return new Report(seconds, new TreeMap<>(stats),
+          streamsOpen.get(), streamsFailed.get(), streamsDropped.get(), streamEvents.get());
+    }
+  }
+
+  // --- utenti simulati -------------------------------------------------------
+
+  private void stream() {
+    jitter(cfg.rampMs);
+    while (running.get()) {
+      long start = System.nanoTime();
+      try {
+        HttpResponse<InputStream> res = http.send(
+            request("/api/admin/notifications/stream").header("Accept", "text/event-stream").GET().build(),
+            HttpResponse.BodyHandlers.ofInputStream());
+        if (res.statusCode() != 200) {
+          record("GET /stream (connect)", start, false);
+          streamsFailed.incrementAndGet();
+          res.body().close();
+          sleep(1000);
+          continue;
+        }
+        streamsOpen.incrementAndGet();
+        boolean first = true;
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(res.body(), StandardCharsets.UTF_8))) {
+          String line;
+          while (running.get() && (line = lines.readLine()) != null) {
+            if (first) {
+              record("GET /stream (connect)", start, true);
+              first = false;
+            }
+            if (line.startsWith("data:")) {
+              streamEvents.incrementAndGet();
+            }
+          }
+        } finally {
+          streamsOpen.decrementAndGet();
+        }
+        if (running.get()) {
+          streamsDropped.incrementAndGet();
+        }
+      } catch (IOException e) {
+        if (running.get()) {
+          record("GET /stream (connect)", start, false);
+          streamsFailed.incrementAndGet();
+          sleep(1000);
+        }
+      } catch (InterruptedException e) {
+        return;
+      }
+    }
+  }
+
+  private void poller() {
+    jitter(cfg.pollMs);
+    while (running.get()) {
+      get("GET /unreadCount", "/api/admin/notifications/unreadCount");
+      sleep(cfg.pollMs);
+    }
+  }
+
+  private void browser() {
+    jitter(cfg.thinkMs);
+    String[] types = {"support_ticket", "errore", "segnalazione", "mercato"};
+    String[] priorities = {"bassa", "media", "alta", "critica"};
+    Pattern cursor = Pattern.compile("\"nextCursor\"\\s*:\\s*\"([^\"]+)\"");
+    Pattern id = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    while (running.get()) {
+      ThreadLocalRandom rnd = ThreadLocalRandom.current();
+      int pick = rnd.nextInt(100);
+      if (pick < 30) {
+        // infinite scroll: prima pagina + fino a 3 successive
+        String body = get("GET /page", "/api/admin/notifications/page?limit=50");
+        for (int p = 0; p < 3 && body != null; p++) {
+          Matcher m = cursor.matcher(body);
+          if (!m.find()) {
+            break;
+          }
+          body = get("GET /page (next)", "/api/admin/notifications/page?limit=50&cursor=" + m.group(1));
+        }
+      } else if (pick < 55) {
+        get("GET /notifications?filter", "/api/admin/notifications?type=" + types[rnd.nextInt(types.length)]
+            + "&priority=" + priorities[rnd.nextInt(priorities.length)] + "&status=attiva");
+      } else if (pick < 70) {
+        String body = get("GET /recent", "/api/admin/notifications/recent");
+        Matcher m = body != null ? id.matcher(body) : null;
+        if (m != null && m.find()) {
+          get("GET /notifications/{id}", "/api/admin/notifications/" + m.group(1));
+        }
+      } else if (pick < 80) {
+        get("GET /notifications", "/api/admin/notifications");
+      } else if (pick < 90) {
+        get("GET /support", "/api/support?limit=50");
+      } else {
+        get("GET /archive", "/api/admin/notifications/archive?limit=50");
+      }
+      sleep(cfg.thinkMs / 2 + rnd.nextLong(cfg.thinkMs));
+    }
+  }
+
+  private void ticketBursts() {
+    long n = 0;
+    while (running.get()) {
+      try (ExecutorService burst = Executors.newVirtualThreadPerTaskExecutor()) {
+        for (int i = 0; i < cfg.ticketBurst; i++) {
+          long k = n++;
+          burst.execute(() -> post("POST /api/support", "/api/support", """
+              {"email":"load%d@example.com","subject":"Load test %d","message":"Ticket generato dal load test"}
+              """.formatted(k, k)));
+        }
+      }
+      sleep(cfg.ticketEveryMs);
+    }
+  }
+
+  private void bulkActions() {
+    sleep(cfg.bulkEveryMs);
+    while (running.get()) {
+      post("POST /bulk/resolve", "/api/admin/notifications/bulk/resolve",
+          "{\"type\":\"support_ticket\",\"status\":\"attiva\",\"note\":\"load test\"}");
+      post("POST /bulk/archive", "/api/admin/notifications/bulk/archive",
+          "{\"type\":\"support_ticket\",\"status\":\"risolta\",\"note\":\"load test\"}");
+      sleep(cfg.bulkEveryMs);
+    }
+  }
+
+  // --- HTTP --------------------------------------------------------------------
+
+  private HttpRequest.Builder request(String path) {
+    HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(cfg.baseUrl + path))
+        .timeout(Duration.ofSeconds(cfg.timeoutS));
+    if (!cfg.token.isEmpty()) {
+      b.header("Authorization", "Bearer " + cfg.token).header("X-Admin-Token", cfg.token);
+    }
+    return b;
+  }
+
+  private String get(String name, String path) {
+    return send(name, request(path).GET().build());
+  }
+
+  private String post(String name, String path, String json) {
+    return send(name, request(path)
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(json))
+        .build());
+  }
+
+  private String send(String name, HttpRequest req) {
+    long start = System.nanoTime();
+    try {
+      HttpResponse<String> res = http.send(req, HttpResponse.BodyHandlers.ofString());
+      boolean ok = res.statusCode() < 400;
+      record(name, start, ok);
+      return ok ? res.body() : null;
+    } catch (IOException e) {
+      record(name, start, false);
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  private void record(String name, long startNanos, boolean ok) {
+    if (measuring.get()) {
+      stats.computeIfAbsent(name, k -> new Histogram()).record((System.nanoTime() - startNanos) / 1000, ok);
+    }
+  }
+
+  private void sleep(long ms) {
+    try {
+      Thread.sleep(ms);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running.set(false);
+    }
+  }
+
+  private void jitter(long maxMs) {
+    if (maxMs > 0) {
+      sleep(ThreadLocalRandom.current().nextLong(maxMs));
+    }
+  }
+
+  // --- statistiche ---------------------------------------------------------------
+
+  /**
+   * Istogramma log-lineare in microsecondi (errore relativo < 1.6%), lock-free
+   */
+  static final class Histogram {
+    private static final int SUB = 32;
+    private static final int MAGNITUDES = 40;
+    private static final int SIZE = 2 * SUB + MAGNITUDES * SUB;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(SIZE);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long micros, boolean ok) {
+      long v = Math.max(1, micros);
+      buckets.incrementAndGet(index(v));
+      count.incrementAndGet();
+      if (!ok) {
+        errors.incrementAndGet();
+      }
+      max.accumulateAndGet(v, Math::max);
+    }
+
+    /**
+     * Valori sotto 2*SUB esatti; oltre, SUB bucket per ogni potenza di due
+     */
+    private static int index(long v) {
+      if (v < 2 * SUB) {
+        return (int) v;
+      }
+      int magnitude = 63 - Long.numberOfLeadingZeros(v) - 5; // v >>> magnitude in [SUB, 2*SUB)
+      int sub = (int) (v >>> magnitude) - SUB;
+      return Math.min(2 * SUB + (magnitude - 1) * SUB + sub, SIZE - 1);
+    }
+
+    private static long valueOf(int index) {
+      if (index < 2 * SUB) {
+        return index;
+      }
+      int magnitude = (index - 2 * SUB) / SUB + 1;
+      long sub = (index - 2 * SUB) % SUB + SUB;
+      return (sub << magnitude) + (1L << magnitude) / 2;
+    }
+
+    /** Percentile in millisecondi */
+    double percentile(double p) {
+      long total = count.get();
+      if (total == 0) {
+        return 0;
+      }
+      long target = (long) Math.ceil(total * p / 100.0);
+      long seen = 0;
+      for (int i = 0; i < buckets.length(); i++) {
+        seen += buckets.get(i);
+        if (seen >= target) {
+          return Math.min(valueOf(i), max.get()) / 1000.0;
+        }
+      }
+      return max.get() / 1000.0;
+    }
+
+    long count() {
+      return count.get();
+    }
+
+    long errors() {
+      return errors.get();
+    }
+
+    double maxMs() {
+      return max.get() / 1000.0;
+    }
+  }
+
+  record Report(double seconds, Map<String, Histogram> endpoints,
+                long streamsOpen, long streamsFailed, long streamsDropped, long streamEvents) {
+
+    void print(PrintStream out) {
+      out.printf(Locale.ROOT, "%nDurata misurata: %.1f s%n%n", seconds);
+      out.printf(Locale.ROOT, "%-28s %9s %7s %9s %9s %9s %9s %9s%n",
+          "endpoint", "richieste", "errori", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+      endpoints.forEach((name, h) -> out.printf(Locale.ROOT, "%-28s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+          name, h.count(), h.errors(), h.count() / seconds,
+          h.percentile(50), h.percentile(90), h.percentile(99), h.maxMs()));
+      out.printf(Locale.ROOT, "%nSSE: %d aperti a fine test, %d connessioni fallite, %d cadute, %d eventi ricevuti%n",
+          streamsOpen, streamsFailed, streamsDropped, streamEvents);
+    }
+
+    String toJson() {
+      StringBuilder sb = new StringBuilder("{\"seconds\":").append(String.format(Locale.ROOT, "%.1f", seconds))
+          .append(",\"streams\":{\"open\":").append(streamsOpen)
+          .append(",\"failed\":").append(streamsFailed)
+          .append(",\"dropped\":").append(streamsDropped)
+          .append(",\"events\":").append(streamEvents)
+          .append("},\"endpoints\":{");
+      String sep = "";
+      for (Map.Entry<String, Histogram> e : endpoints.entrySet()) {
+        Histogram h = e.getValue();
+        sb.append(sep).append('"').append(e.getKey()).append("\":").append(String.format(Locale.ROOT,
+            "{\"count\":%d,\"errors\":%d,\"rps\":%.1f,\"p50\":%.2f,\"p90\":%.2f,\"p99\":%.2f,\"max\":%.2f}",
+            h.count(), h.errors(), h.count() / seconds,
+            h.percentile(50), h.percentile(90), h.percentile(99), h.maxMs()));
+        sep = ",";
+      }
+      return sb.append("}}\n").toString();
+    }
+
+    /**
+     * Soglie nella forma "GET /unreadCount:p99=50" (ms) o "GET /page:errors=0.01" (frazione)
+     */
+    List<String> check(List<String> slo) {
+      List<String> out = new ArrayList<>();
+      for (String rule : slo) {
+        int colon = rule.lastIndexOf(':');
+        int eq = rule.lastIndexOf('=');
+        if (colon < 0 || eq < colon) {
+          out.add("regola non valida: " + rule);
+          continue;
+        }
+        String name = rule.substring(0, colon);
+        String metric = rule.substring(colon + 1, eq);
+        double limit = Double.parseDouble(rule.substring(eq + 1));
+        Histogram h = endpoints.get(name);
+        if (h == null || h.count() == 0) {
+          out.add(name + ": nessuna richiesta misurata");
+          continue;
+        }
+        double value = switch (metric) {
+          case "p50" -> h.percentile(50);
+          case "p90" -> h.percentile(90);
+          case "p99" -> h.percentile(99);
+          case "max" -> h.maxMs();
+          case "errors" -> (double) h.errors() / h.count();
+          default -> Double.NaN;
+        };
+        if (Double.isNaN(value) || value > limit) {
+          out.add(String.format(Locale.ROOT, "%s %s=%.2f (limite %.2f)", name, metric, value, limit));
+        }
+      }
+      return out;
+    }
+  }
+
+  static final class Config {
+    String baseUrl = "http://localhost:8080";
+    String token = "";
+    String out;
+    int durationS = 60;
+    int warmupS = 10;
+    int timeoutS = 30;
+    int streams = 500;
+    int pollers = 200;
+    int browsers = 50;
+    long pollMs = 5000;
+    long thinkMs = 2000;
+    long rampMs = 5000;
+    int ticketBurst = 50;
+    long ticketEveryMs = 10000;
+    long bulkEveryMs = 15000;
+    List<String> slo = new ArrayList<>();
+
+    static Config parse(String[] args) {
+      Config c = new Config();
+      for (String arg : args) {
+        if (!arg.startsWith("--") || !arg.contains("=")) {
+          throw new IllegalArgumentException("Argomento non valido: " + arg);
+        }
+        String key = arg.substring(2, arg.indexOf('='));
+        String value = arg.substring(arg.indexOf('=') + 1);
+        switch (key) {
+          case "base-url" -> c.baseUrl = value.replaceAll("/+$", "");
+          case "token" -> c.token = value;
+          case "out" -> c.out = value;
+          case "duration-s" -> c.durationS = Integer.parseInt(value);
+          case "warmup-s" -> c.warmupS = Integer.parseInt(value);
+          case "timeout-s" -> c.timeoutS = Integer.parseInt(value);
+          case "streams" -> c.streams = Integer.parseInt(value);
+          case "pollers" -> c.pollers = Integer.parseInt(value);
+          case "browsers" -> c.browsers = Integer.parseInt(value);
+          case "poll-ms" -> c.pollMs = Long.parseLong(value);
+          case "think-ms" -> c.thinkMs = Long.parseLong(value);
+          case "ramp-ms" -> c.rampMs = Long.parseLong(value);
+          case "ticket-burst" -> c.ticketBurst = Integer.parseInt(value);
+          case "ticket-every-ms" -> c.ticketEveryMs = Long.parseLong(value);
+          case "bulk-every-ms" -> c.bulkEveryMs = Long.parseLong(value);
+          case "slo" -> c.slo.addAll(List.of(value.split(",")));
+          default -> throw new IllegalArgumentException("Opzione sconosciuta: --" + key);
+        }
+      }
+      return c;
+    }
+  }
+}
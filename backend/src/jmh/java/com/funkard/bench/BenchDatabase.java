@@ -0,0 +1,126 @@
+package com.funkard.bench;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Database H2 in memoria per i benchmark JMH (modalità PostgreSQL).
+ *
+ * Lo schema replica le tabelle e gli indici dichiarati sulle entity
+ * (admin_notifications, admin_notification_actions, support_tickets), così
+ * le query misurate usano gli stessi piani di accesso previsti in produzione.
+ * Ogni trial crea un database separato, identificato dal nome.
+ */
+final class BenchDatabase {
+
+  static final String[] TYPES = {"errore", "segnalazione", "supporto", "mercato", "support_ticket"};
+  static final String[] PRIORITIES = {"bassa", "media", "alta", "critica"};
+
+  private BenchDatabase() {}
+
+  static JdbcTemplate create(String name) {
+    DriverManagerDataSource ds = new DriverManagerDataSource(
+        "jdbc:h2:mem:" + name + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+    ds.setDriverClassName("org.h2.Driver");
+    JdbcTemplate jdbc = new JdbcTemplate(ds);
+
+    jdbc.execute("""
+        create table admin_notifications (
+          id bigint generated by default as identity primary key,
+          type varchar(32) not null,
+          priority varchar(16) not null,
+          title varchar(160) not null,
+          message text not null,
+          read_status boolean not null,
+          read_at timestamp,
+          created_at timestamp not null,
+          archived boolean not null,
+          resolved_at timestamp,
+          resolved_by varchar(120),
+          occurrences integer default 1 not null,
+          last_seen_at timestamp,
+          version bigint default 0 not null)
+        """);
+    jdbc.execute("create index idx_admin_notif_archived_created on admin_notifications (archived, created_at, id)");
+    jdbc.execute("create index idx_admin_notif_unread on admin_notifications (archived, read_status, type, priority)");
+    jdbc.execute("create index idx_admin_notif_type_priority_created on admin_notifications (type, priority, created_at, id)");
+
+    jdbc.execute("""
+        create table admin_notification_actions (
+          id bigint generated by default as identity primary key,
+          notification_id bigint not null,
+          user_name varchar(120) not null,
+          action varchar(32) not null,
+          at timestamp not null,
+          note text)
+        """);
+    jdbc.execute("create index idx_notification_actions_notification on admin_notification_actions (notification_id, at)");
+
+    jdbc.execute("""
+        create table support_tickets (
+          id uuid primary key,
+          email varchar(120) not null,
+          subject varchar(100) not null,
+          message text not null,
+          status varchar(20) not null,
+          admin_note varchar(200),
+          assigned_to varchar(120),
+          created_at timestamp with time zone,
+          updated_at timestamp with time zone,
+          resolved_at timestamp with time zone,
+          version bigint default 0 not null)
+        """);
+    jdbc.execute("create index idx_ticket_created_id on support_tickets (created_at, id)");
+    jdbc.execute("create index idx_ticket_status_created_id on support_tickets (status, created_at, id)");
+    return jdbc;
+  }
+
+  /**
+   * Inserisce rows notifiche distribuite su tipi, priorità e stati,
+   * una ogni secondo a partire da un anno fa.
+   */
+  static void seedNotifications(JdbcTemplate jdbc, int rows) {
+    Instant start = Instant.now().minusSeconds(365L * 24 * 3600);
+    List<Object[]> batch = new ArrayList<>(10_000);
+    for (int i = 0; i < rows; i++) {
+      Instant at = start.plusSeconds(i);
+      boolean archived = i % 10 == 0;
+      batch.add(new Object[] {
+          TYPES[i % TYPES.length],
+          PRIORITIES[(i / TYPES.length) % PRIORITIES.length],
+          "Notifica " + i,
+          "Messaggio di prova " + i,
+          i % 3 == 0,
+          Timestamp.from(at),
+          archived,
+          archived ? Timestamp.from(at.plusSeconds(60)) : null});
+      if (batch.size() == 10_000) {
+        insertNotifications(jdbc, batch);
+        batch.clear();
+      }
+    }
+    insertNotifications(jdbc, batch);
+    jdbc.execute("analyze");
+  }
+
+  private static void insertNotifications(JdbcTemplate jdbc, List<Object[]> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    jdbc.batchUpdate("""
+        insert into admin_notifications
+          (type, priority, title, message, read_status, created_at, archived, resolved_at)
+        values (?, ?, ?, ?, ?, ?, ?, ?)
+        """, batch);
+  }
+
+  static UUID ticketId() {
+    return UUID.randomUUID();
+  }
+}
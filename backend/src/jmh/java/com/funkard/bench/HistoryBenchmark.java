@@ -0,0 +1,82 @@
+package com.funkard.bench;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.funkard.admin.repository.NotificationActionBatchWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo di una voce di storico al crescere dello storico esistente.
+ *
+ * legacyJsonRewrite riproduce il vecchio pushHistory (parse della colonna
+ * JSON, append, riserializzazione dell'intero array): cresce con entries.
+ * actionAppend è il percorso attuale, un insert in admin_notification_actions
+ * che non dipende dalla lunghezza dello storico.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HistoryBenchmark {
+
+  private static final TypeReference<List<Map<String, Object>>> HISTORY = new TypeReference<>() {};
+
+  @Param({"1", "10", "100", "1000"})
+  public int entries;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private String historyJson;
+  private NotificationActionBatchWriter writer;
+  private long notificationId;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    List<Map<String, Object>> history = new ArrayList<>(entries);
+    Instant at = Instant.now().minusSeconds(entries);
+    for (int i = 0; i < entries; i++) {
+      history.add(entry("admin", i % 2 == 0 ? "read" : "archive", at.plusSeconds(i), "nota " + i));
+    }
+    historyJson = mapper.writeValueAsString(history);
+
+    JdbcTemplate jdbc = BenchDatabase.create("history_" + entries);
+    writer = new NotificationActionBatchWriter(jdbc);
+    notificationId = 1L;
+    List<NotificationActionBatchWriter.Row> rows = new ArrayList<>(entries);
+    for (int i = 0; i < entries; i++) {
+      rows.add(new NotificationActionBatchWriter.Row(notificationId, "admin", "read", at.plusSeconds(i), null));
+    }
+    writer.append(rows);
+  }
+
+  @Benchmark
+  public String legacyJsonRewrite() throws Exception {
+    List<Map<String, Object>> history = mapper.readValue(historyJson, HISTORY);
+    history.add(entry("admin", "resolve", Instant.now(), "risolta"));
+    return mapper.writeValueAsString(history);
+  }
+
+  @Benchmark
+  public void actionAppend() {
+    writer.append(List.of(
+        new NotificationActionBatchWriter.Row(notificationId, "admin", "resolve", Instant.now(), "risolta")));
+  }
+
+  private static Map<String, Object> entry(String user, String action, Instant at, String note) {
+    Map<String, Object> e = new LinkedHashMap<>();
+    e.put("user", user);
+    e.put("action", action);
+    e.put("at", at.toString());
+    e.put("note", note);
+    return e;
+  }
+}
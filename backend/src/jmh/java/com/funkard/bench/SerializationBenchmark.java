@@ -0,0 +1,67 @@
+package com.funkard.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.funkard.admin.model.AdminNotification;
+import com.funkard.admin.model.AdminNotificationSummary;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializzazione JSON delle liste di notifiche: entity completa (con message)
+ * contro la proiezione AdminNotificationSummary usata da liste e filtri.
+ * L'ObjectMapper è configurato come quello di Spring Boot (date ISO-8601).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+  @Param({"50", "500", "5000"})
+  public int size;
+
+  private ObjectMapper mapper;
+  private List<AdminNotification> entities;
+  private List<AdminNotificationSummary> summaries;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    mapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    entities = new ArrayList<>(size);
+    summaries = new ArrayList<>(size);
+    Instant now = Instant.now();
+    String message = "Dettaglio dell'errore ".repeat(20);
+    for (int i = 0; i < size; i++) {
+      String type = BenchDatabase.TYPES[i % BenchDatabase.TYPES.length];
+      String priority = BenchDatabase.PRIORITIES[i % BenchDatabase.PRIORITIES.length];
+      AdminNotification n = new AdminNotification(type, priority, "Notifica " + i, message);
+      n.setId((long) i);
+      n.setCreatedAt(now.minusSeconds(i));
+      entities.add(n);
+      summaries.add(new AdminNotificationSummary(
+          (long) i, type, priority, "Notifica " + i, false, null, now.minusSeconds(i),
+          false, null, null, 1, null));
+    }
+  }
+
+  @Benchmark
+  public byte[] entities() throws Exception {
+    return mapper.writeValueAsBytes(entities);
+  }
+
+  @Benchmark
+  public byte[] summaries() throws Exception {
+    return mapper.writeValueAsBytes(summaries);
+  }
+}
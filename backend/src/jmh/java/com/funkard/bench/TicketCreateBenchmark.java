@@ -0,0 +1,83 @@
+package com.funkard.bench;
+
+import com.funkard.admin.repository.NotificationBatchInserter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput della creazione ticket lato database.
+ *
+ * SupportTicketService.create salva il ticket nella transazione della
+ * richiesta e accoda la notifica admin, che NotificationPipeline inserisce
+ * poi a batch. ticketOnly misura il solo insert del ticket; ticketWithNotification
+ * aggiunge la notifica come insert singolo (caso peggiore, pipeline vuota);
+ * ticketsWithBatchedNotifications ne crea BATCH e inserisce le notifiche in un
+ * solo round-trip con NotificationBatchInserter, come fa la pipeline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TicketCreateBenchmark {
+
+  private static final String INSERT_TICKET = """
+      insert into support_tickets (id, email, subject, message, status, created_at, version)
+      values (?, ?, ?, ?, 'NEW', ?, 0)
+      """;
+
+  private static final int BATCH = 50;
+
+  private JdbcTemplate jdbc;
+  private NotificationBatchInserter inserter;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    jdbc = BenchDatabase.create("tickets");
+    inserter = new NotificationBatchInserter(jdbc);
+  }
+
+  @Benchmark
+  public UUID ticketOnly() {
+    return insertTicket();
+  }
+
+  @Benchmark
+  public UUID ticketWithNotification() {
+    UUID id = insertTicket();
+    inserter.insert(List.of(row()));
+    return id;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public int ticketsWithBatchedNotifications() {
+    List<NotificationBatchInserter.Row> rows = new ArrayList<>(BATCH);
+    for (int i = 0; i < BATCH; i++) {
+      insertTicket();
+      rows.add(row());
+    }
+    return inserter.insert(rows).size();
+  }
+
+  private UUID insertTicket() {
+    UUID id = BenchDatabase.ticketId();
+    jdbc.update(INSERT_TICKET, id, "utente@example.com", "Problema con l'ordine",
+        "Il pagamento non risulta registrato", OffsetDateTime.now());
+    return id;
+  }
+
+  private static NotificationBatchInserter.Row row() {
+    Instant now = Instant.now();
+    return new NotificationBatchInserter.Row(
+        "support_ticket", "high", "Nuovo ticket di supporto", "Problema con l'ordine", now, 1, now);
+  }
+}
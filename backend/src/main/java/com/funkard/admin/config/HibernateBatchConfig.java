@@ -0,0 +1,22 @@
+package com.funkard.admin.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Abilita il batching JDBC di Hibernate per insert/update multipli
+ * (azioni bulk, creazione notifiche in serie).
+ */
+@Configuration
+public class HibernateBatchConfig {
+
+  @Bean
+  public HibernatePropertiesCustomizer jdbcBatching() {
+    return props -> {
+      props.putIfAbsent("hibernate.jdbc.batch_size", 50);
+      props.putIfAbsent("hibernate.order_inserts", true);
+      props.putIfAbsent("hibernate.order_updates", true);
+    };
+  }
+}
@@ -0,0 +1,53 @@
+package com.funkard.admin.config;
+
+import com.funkard.admin.service.NotificationMetrics;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Micrometer: abilita @Timed sui service e pubblica istogrammi e percentili
+ * (p50/p95/p99) solo per i timer di latenza dei service
+ * (NotificationMetrics.LATENCY_TIMERS), quelli su cui si misurano gli SLO.
+ * Gli altri meter funkard.* restano con count/sum/max: un istogramma per
+ * ogni contatore e riepilogo moltiplicherebbe le serie esportate senza uso.
+ * Export Prometheus tramite actuator:
+ * management.endpoints.web.exposure.include=health,prometheus
+ */
+@Configuration
+public class MetricsConfig {
+
+  static final Set<String> SLO_TIMERS = Set.copyOf(NotificationMetrics.LATENCY_TIMERS);
+
+  @Bean
+  public TimedAspect timedAspect(MeterRegistry registry) {
+    return new TimedAspect(registry);
+  }
+
+  @Bean
+  public MeterFilter funkardDistributions() {
+    return new MeterFilter() {
+      @Override
+      public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+        if (id.getType() != Meter.Type.TIMER || !SLO_TIMERS.contains(id.getName())) {
+          return config;
+        }
+        // bucket limitati all'intervallo utile per una chiamata di service
+        return DistributionStatisticConfig.builder()
+            .percentiles(0.5, 0.95, 0.99)
+            .percentilesHistogram(true)
+            .minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+            .maximumExpectedValue((double) Duration.ofSeconds(10).toNanos())
+            .build()
+            .merge(config);
+      }
+    };
+  }
+}
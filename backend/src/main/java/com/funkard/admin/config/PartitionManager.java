@@ -0,0 +1,223 @@
+package com.funkard.admin.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Partizionamento mensile (PostgreSQL) delle tabelle con retention:
+ * admin_notifications_archive per range su archived_at, support_tickets su
+ * created_at.
+ *
+ * La conversione in tabelle partizionate non la fa l'applicazione: è una
+ * migrazione esplicita, db/partition-tables.sql, da lanciare a mano. Finché
+ * una tabella non è partizionata qui viene solo segnalata. Ogni notte, e
+ * all'avvio:
+ * - crea le partizioni dei prossimi months-ahead mesi;
+ * - archivio notifiche: la retention resta quella a righe del cleanup
+ *   (risolte da più di retention-days). Una partizione interamente più
+ *   vecchia del limite viene eliminata con DROP, insieme al suo storico
+ *   azioni, solo se tutte le sue righe sono risolte prima del limite. Le
+ *   altre righe restano a NotificationCleanupJob.
+ * - ticket: le partizioni oltre retention-months vengono staccate (DETACH)
+ *   e restano come tabelle autonome, fuori dalle query, da esportare o
+ *   eliminare a mano. Le loro note vengono spostate in {partizione}_notes.
+ *
+ * Le partizioni si chiamano {tabella}_pYYYY_MM; una partizione default
+ * raccoglie eventuali righe fuori range. Su altri database non fa nulla.
+ */
+@Component
+public class PartitionManager {
+
+  private static final Logger log = LoggerFactory.getLogger(PartitionManager.class);
+
+  public static final String NOTIFICATION_ARCHIVE = "admin_notifications_archive";
+  public static final String SUPPORT_TICKETS = "support_tickets";
+  public static final String MIGRATION = "db/partition-tables.sql";
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final PostgresSchemaInitializer schema;
+  private final boolean enabled;
+  private final int monthsAhead;
+  private final List<PartitionedTable> tables;
+
+  public PartitionManager(JdbcTemplate jdbc,
+                          TransactionTemplate tx,
+                          PostgresSchemaInitializer schema,
+                          @Value("${funkard.partitions.enabled:true}") boolean enabled,
+                          @Value("${funkard.partitions.months-ahead:3}") int monthsAhead,
+                          @Value("${funkard.admin.cleanup.retention-days:30}") int archiveRetentionDays,
+                          @Value("${funkard.support.retention-months:24}") int ticketRetentionMonths) {
+    this.jdbc = jdbc;
+    this.tx = tx;
+    this.schema = schema;
+    this.enabled = enabled;
+    this.monthsAhead = monthsAhead;
+    this.tables = List.of(
+        new PartitionedTable(NOTIFICATION_ARCHIVE, "archived_at", archiveRetentionDays, Expiry.DROP),
+        new PartitionedTable(SUPPORT_TICKETS, "created_at", ticketRetentionMonths * 31, Expiry.DETACH));
+  }
+
+  /**
+   * Dopo PostgresSchemaInitializer. Non modifica le tabelle non partizionate
+   */
+  @Order(1)
+  @EventListener(ApplicationReadyEvent.class)
+  public void init() {
+    if (!enabled || !schema.isPostgres()) {
+      return;
+    }
+    for (PartitionedTable t : tables) {
+      if (relkind(t.name()) == 'r') {
+        log.info("{} non è partizionata: retention a righe. Per partizionarla eseguire {}", t.name(), MIGRATION);
+      }
+    }
+    maintain();
+  }
+
+  /**
+   * Crea le partizioni future e fa scadere quelle oltre la retention
+   */
+  @Scheduled(cron = "${funkard.partitions.cron:0 15 3 * * *}")
+  public void maintain() {
+    if (!enabled || !schema.isPostgres()) {
+      return;
+    }
+    YearMonth current = YearMonth.now(ZoneOffset.UTC);
+    for (PartitionedTable t : tables) {
+      if (!isPartitioned(t.name())) {
+        continue;
+      }
+      try {
+        for (int i = 0; i <= monthsAhead; i++) {
+          createMonth(t, current.plusMonths(i));
+        }
+        if (t.retentionDays() > 0) {
+          expire(t, LocalDate.now(ZoneOffset.UTC).minusDays(t.retentionDays()));
+        }
+      } catch (DataAccessException e) {
+        log.error("Manutenzione partizioni di {} fallita", t.name(), e);
+      }
+    }
+  }
+
+  /**
+   * true se la tabella è partizionata (la retention non richiede DELETE)
+   */
+  public boolean isPartitioned(String table) {
+    return schema.isPostgres() && relkind(table) == 'p';
+  }
+
+  /**
+   * Partizioni mensili attualmente collegate, in ordine
+   */
+  public List<String> partitions(String table) {
+    return jdbc.queryForList("""
+        select c.relname from pg_inherits i
+        join pg_class c on c.oid = i.inhrelid
+        join pg_class p on p.oid = i.inhparent
+        where p.relname = ? order by c.relname
+        """, String.class, table);
+  }
+
+  private char relkind(String table) {
+    List<String> kind = jdbc.queryForList(
+        "select relkind::text from pg_class where relname = ? and relnamespace = 'public'::regnamespace",
+        String.class, table);
+    return kind.isEmpty() ? '-' : kind.get(0).charAt(0);
+  }
+
+  private void createMonth(PartitionedTable t, YearMonth month) {
+    jdbc.execute("create table if not exists " + partitionName(t.name(), month)
+        + " partition of " + t.name()
+        + " for values from ('" + month.atDay(1) + " 00:00:00+00') to ('"
+        + month.plusMonths(1).atDay(1) + " 00:00:00+00')");
+  }
+
+  /**
+   * Scade le partizioni il cui mese termina prima del limite
+   */
+  private void expire(PartitionedTable t, LocalDate cutoff) {
+    Timestamp limit = Timestamp.from(cutoff.atStartOfDay(ZoneOffset.UTC).toInstant());
+    Pattern name = Pattern.compile(Pattern.quote(t.name()) + "_p(\\d{4})_(\\d{2})");
+    List<String> expired = new ArrayList<>();
+    for (String partition : partitions(t.name())) {
+      Matcher m = name.matcher(partition);
+      if (m.matches()) {
+        YearMonth month = YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)));
+        if (!month.plusMonths(1).atDay(1).isAfter(cutoff)) {
+          expired.add(partition);
+        }
+      }
+    }
+
+    for (String partition : expired) {
+      boolean done = Boolean.TRUE.equals(tx.execute(status -> t.expiry() == Expiry.DROP
+          ? drop(t, partition, limit)
+          : detach(t, partition)));
+      if (done) {
+        log.info("Partizione {} scaduta ({})", partition, t.expiry() == Expiry.DROP ? "eliminata" : "staccata");
+      }
+    }
+  }
+
+  /**
+   * DROP solo se ogni riga rispetta già la regola del cleanup (risolta prima
+   * del limite); altrimenti le righe scadute le elimina NotificationCleanupJob
+   */
+  private boolean drop(PartitionedTable t, String partition, Timestamp limit) {
+    Boolean kept = jdbc.queryForObject("select exists (select 1 from " + partition
+        + " where resolved_at is null or resolved_at >= ?)", Boolean.class, limit);
+    if (Boolean.TRUE.equals(kept)) {
+      return false;
+    }
+    // lo storico azioni non è partizionato: va rimosso insieme alle notifiche
+    jdbc.update("delete from admin_notification_actions where notification_id in (select id from "
+        + partition + ")");
+    jdbc.execute("alter table " + t.name() + " detach partition " + partition);
+    jdbc.execute("drop table " + partition);
+    return true;
+  }
+
+  /**
+   * Le note non sono partizionate: seguono il ticket nella tabella staccata
+   * {partizione}_notes, così non restano orfane in ticket_notes
+   */
+  private boolean detach(PartitionedTable t, String partition) {
+    jdbc.execute("alter table " + t.name() + " detach partition " + partition);
+    if (SUPPORT_TICKETS.equals(t.name())) {
+      String notes = partition + "_notes";
+      jdbc.execute("create table if not exists " + notes + " (like ticket_notes including defaults)");
+      jdbc.update("insert into " + notes + " select n.* from ticket_notes n where n.ticket_id in (select id from "
+          + partition + ")");
+      jdbc.update("delete from ticket_notes where ticket_id in (select id from " + partition + ")");
+    }
+    return true;
+  }
+
+  static String partitionName(String table, YearMonth month) {
+    return "%s_p%04d_%02d".formatted(table, month.getYear(), month.getMonthValue());
+  }
+
+  private enum Expiry { DROP, DETACH }
+
+  private record PartitionedTable(String name, String column, int retentionDays, Expiry expiry) {}
+}
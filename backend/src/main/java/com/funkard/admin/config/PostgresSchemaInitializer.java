@@ -0,0 +1,68 @@
+package com.funkard.admin.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * DDL specifico PostgreSQL non esprimibile con le annotazioni JPA
+ * (indici parziali, colonne generate, indici GIN). Statement idempotenti,
+ * eseguiti all'avvio e ignorati su altri database (es. H2 in locale).
+ */
+@Component
+public class PostgresSchemaInitializer {
+
+  private static final Logger log = LoggerFactory.getLogger(PostgresSchemaInitializer.class);
+
+  static final List<String> STATEMENTS = List.of(
+      // le archiviate stanno in admin_notifications_archive: indice parziale non più usato
+      "drop index if exists idx_admin_notif_cleanup",
+      // ricerca ticket: tsvector mantenuto dal DB ad ogni insert/update
+      "alter table support_tickets add column if not exists search_vector tsvector "
+          + "generated always as ("
+          + "setweight(to_tsvector('simple', coalesce(subject, '')), 'A') || "
+          + "setweight(to_tsvector('simple', coalesce(email, '')), 'A') || "
+          + "setweight(to_tsvector('simple', coalesce(message, '')), 'B') || "
+          + "setweight(to_tsvector('simple', coalesce(admin_note, '')), 'C')) stored",
+      "create index if not exists idx_ticket_search on support_tickets using gin (search_vector)",
+      "create index if not exists idx_ticket_notes_search on ticket_notes using gin (to_tsvector('simple', body))",
+      // filtri LIKE '%x%' su email/subject della lista ticket
+      "create extension if not exists pg_trgm",
+      "create index if not exists idx_ticket_email_trgm on support_tickets using gin (lower(email) gin_trgm_ops)",
+      "create index if not exists idx_ticket_subject_trgm on support_tickets using gin (lower(subject) gin_trgm_ops)"
+  );
+
+  private final JdbcTemplate jdbc;
+
+  public PostgresSchemaInitializer(JdbcTemplate jdbc) {
+    this.jdbc = jdbc;
+  }
+
+  @Order(0)
+  @EventListener(ApplicationReadyEvent.class)
+  public void apply() {
+    if (!isPostgres()) {
+      return;
+    }
+    for (String sql : STATEMENTS) {
+      try {
+        jdbc.execute(sql);
+      } catch (DataAccessException e) {
+        log.warn("DDL PostgreSQL non applicato: {} ({})", sql, e.getMostSpecificCause().getMessage());
+      }
+    }
+  }
+
+  public boolean isPostgres() {
+    String product = jdbc.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+    return product != null && product.toLowerCase().contains("postgres");
+  }
+}
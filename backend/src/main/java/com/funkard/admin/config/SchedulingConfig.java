@@ -0,0 +1,12 @@
+package com.funkard.admin.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Abilita i job @Scheduled del backend admin (heartbeat SSE, manutenzione)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,95 @@
+package com.funkard.admin.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Modalità di esecuzione del backend: funkard.threads.mode = platform | virtual.
+ *
+ * platform (default): pool Tomcat e scheduler standard di Spring Boot.
+ * virtual: richieste HTTP, task @Async e job @Scheduled girano su virtual
+ * thread. Le connessioni SSE e le attese sul DB non occupano più un thread di
+ * piattaforma; a limitare la concorrenza verso il DB resta il pool Hikari
+ * (vedi hikariTuning). Le write SSE restano sul pool di SseDispatcher, perché
+ * ResponseBodyEmitter.send è synchronized.
+ *
+ * Con virtual attivo si consiglia anche spring.jpa.open-in-view=false, così
+ * gli stream SSE non trattengono una connessione per tutta la loro durata.
+ */
+@Configuration
+public class ThreadingConfig {
+
+  public static final String MODE = "funkard.threads.mode";
+  public static final String VIRTUAL = "virtual";
+  public static final String POOL = "funkard.db.pool";
+
+  /**
+   * Pool Hikari dimensionato per il DB, non per il numero di richieste.
+   * Con i virtual thread le richieste oltre il pool attendono al massimo
+   * connection-timeout-ms e poi falliscono, invece di accumularsi.
+   * Applica solo i funkard.db.pool.* impostati, che hanno precedenza su
+   * spring.datasource.hikari.*; senza, la configurazione Hikari resta intatta.
+   */
+  @Bean
+  public static BeanPostProcessor hikariTuning(Environment env) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource ds) {
+          Binder pool = Binder.get(env);
+          pool.bind(POOL + ".max-size", Integer.class).ifBound(ds::setMaximumPoolSize);
+          pool.bind(POOL + ".min-idle", Integer.class)
+              .ifBound(minIdle -> ds.setMinimumIdle(Math.min(minIdle, ds.getMaximumPoolSize())));
+          pool.bind(POOL + ".connection-timeout-ms", Long.class).ifBound(ds::setConnectionTimeout);
+          pool.bind(POOL + ".max-lifetime-ms", Long.class).ifBound(ds::setMaxLifetime);
+          pool.bind(POOL + ".leak-detection-ms", Long.class).ifBound(ds::setLeakDetectionThreshold);
+        }
+        return bean;
+      }
+    };
+  }
+
+  @Configuration
+  @ConditionalOnProperty(name = MODE, havingValue = VIRTUAL)
+  static class VirtualThreads {
+
+    /**
+     * Un virtual thread per richiesta al posto del pool Tomcat
+     */
+    @Bean
+    TomcatProtocolHandlerCustomizer<?> virtualThreadRequests() {
+      return handler -> handler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean(name = {
+        TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+        AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    AsyncTaskExecutor applicationTaskExecutor() {
+      SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("funkard-async-");
+      executor.setVirtualThreads(true);
+      return executor;
+    }
+
+    @Bean
+    TaskScheduler taskScheduler() {
+      SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+      scheduler.setThreadNamePrefix("funkard-scheduler-");
+      scheduler.setVirtualThreads(true);
+      return scheduler;
+    }
+  }
+}
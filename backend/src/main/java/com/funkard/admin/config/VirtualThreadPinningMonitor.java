@@ -0,0 +1,75 @@
+package com.funkard.admin.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Diagnostica del pinning dei virtual thread (solo in modalità virtual).
+ *
+ * Ascolta in-process l'evento JFR jdk.VirtualThreadPinned: ogni volta che un
+ * virtual thread resta bloccato sul carrier oltre la soglia (synchronized
+ * con I/O, codice nativo) incrementa funkard.threads.pinned e logga i primi
+ * frame dello stack, così il punto da correggere è visibile senza profiler.
+ */
+@Component
+@ConditionalOnProperty(name = ThreadingConfig.MODE, havingValue = ThreadingConfig.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+  private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+  private static final int FRAMES = 6;
+
+  private final Counter pinned;
+  private final Duration threshold;
+  private RecordingStream stream;
+
+  public VirtualThreadPinningMonitor(MeterRegistry registry,
+                                     @Value("${funkard.threads.pinned-threshold-ms:20}") long thresholdMs) {
+    this.pinned = Counter.builder("funkard.threads.pinned")
+        .description("Virtual thread bloccati sul carrier oltre la soglia")
+        .register(registry);
+    this.threshold = Duration.ofMillis(thresholdMs);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    stream = new RecordingStream();
+    stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+    stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+    stream.startAsync();
+    log.info("Monitor pinning virtual thread attivo (soglia {} ms)", threshold.toMillis());
+  }
+
+  private void onPinned(RecordedEvent event) {
+    pinned.increment();
+    if (log.isWarnEnabled()) {
+      List<RecordedFrame> frames = event.getStackTrace() != null ? event.getStackTrace().getFrames() : List.of();
+      String top = frames.stream()
+          .limit(FRAMES)
+          .map(f -> f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber())
+          .collect(Collectors.joining(" <- "));
+      log.warn("Virtual thread pinned per {} ms: {}", event.getDuration().toMillis(), top);
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (stream != null) {
+      stream.close();
+    }
+  }
+}
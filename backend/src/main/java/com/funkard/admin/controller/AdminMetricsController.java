@@ -0,0 +1,29 @@
+package com.funkard.admin.controller;
+
+import com.funkard.admin.service.NotificationMetrics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/metrics")
+public class AdminMetricsController {
+
+  private final NotificationMetrics metrics;
+
+  public AdminMetricsController(NotificationMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Latenze p50/p95/p99 per metodo dei service, dal più lento (p95).
+   * Le serie complete sono su /actuator/prometheus.
+   * GET /api/admin/metrics/latency
+   */
+  @GetMapping("/latency")
+  public List<NotificationMetrics.MethodLatency> latency() {
+    return metrics.latency();
+  }
+}
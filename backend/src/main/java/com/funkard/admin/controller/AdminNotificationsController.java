@@ -1,12 +1,25 @@
 package com.funkard.admin.controller;
 
 import com.funkard.admin.model.AdminNotification;
+import com.funkard.admin.model.AdminNotificationAction;
+import com.funkard.admin.model.AdminNotificationArchive;
+import com.funkard.admin.model.AdminNotificationSummary;
 import com.funkard.admin.service.AdminNotificationService;
+import com.funkard.admin.service.CacheStatsSnapshot;
+import com.funkard.admin.service.CleanupProgress;
+import com.funkard.admin.service.CursorPage;
+import com.funkard.admin.service.NotificationPipeline;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.security.Principal;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin/notifications")
@@ -21,15 +34,55 @@ public class AdminNotificationsController {
   /**
    * Lista notifiche con filtri opzionali
    * GET /api/admin/notifications?type=&priority=&status=
+   *
+   * @deprecated restituisce solo le prime 500 righe (X-Has-More / X-Next-Cursor
+   * indicano se ce ne sono altre): usare /page
    */
+  @Deprecated
   @GetMapping
-  public List<AdminNotification> list(@RequestParam(required = false) String type,
-                                      @RequestParam(required = false) String priority,
-                                      @RequestParam(required = false) String status) {
-    if (type != null || priority != null || status != null) {
-      return service.filter(type, priority, status);
+  public ResponseEntity<List<AdminNotificationSummary>> list(@RequestParam(required = false) String type,
+                                                             @RequestParam(required = false) String priority,
+                                                             @RequestParam(required = false) String status) {
+    CursorPage<AdminNotificationSummary> first = service.list(type, priority, status);
+    ResponseEntity.BodyBuilder res = ResponseEntity.ok()
+        .header("Deprecation", "true")
+        .header(HttpHeaders.LINK, "</api/admin/notifications/page>; rel=\"successor-version\"")
+        .header("X-Has-More", String.valueOf(first.hasMore()));
+    if (first.nextCursor() != null) {
+      res.header("X-Next-Cursor", first.nextCursor());
+    }
+    return res.body(first.items());
+  }
+
+  /**
+   * Lista paginata keyset per infinite scroll (stessi filtri della lista)
+   * GET /api/admin/notifications/page?cursor=&limit=50&type=&priority=&status=
+   */
+  @GetMapping("/page")
+  public ResponseEntity<CursorPage<AdminNotificationSummary>> page(@RequestParam(required = false) String type,
+                                                                   @RequestParam(required = false) String priority,
+                                                                   @RequestParam(required = false) String status,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(defaultValue = "50") int limit) {
+    try {
+      return ResponseEntity.ok(service.page(type, priority, status, cursor, limit));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Archivio notifiche (tabella fredda), dalla più recente, con message
+   * GET /api/admin/notifications/archive?cursor=&limit=50
+   */
+  @GetMapping("/archive")
+  public ResponseEntity<CursorPage<AdminNotificationArchive>> archive(@RequestParam(required = false) String cursor,
+                                                                      @RequestParam(defaultValue = "50") int limit) {
+    try {
+      return ResponseEntity.ok(service.archived(cursor, limit));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
     }
-    return service.listActiveChrono();
   }
 
   /**
@@ -43,16 +96,34 @@ public class AdminNotificationsController {
         .orElse(ResponseEntity.notFound().build());
   }
 
+  /**
+   * Storico azioni notifica
+   * GET /api/admin/notifications/{id}/history?page=0&size=50
+   */
+  @GetMapping("/{id}/history")
+  public List<AdminNotificationAction> history(@PathVariable Long id,
+                                               @RequestParam(defaultValue = "0") int page,
+                                               @RequestParam(defaultValue = "50") int size) {
+    return service.history(id, page, size);
+  }
+
   /**
    * Segna notifica come letta
    * POST /api/admin/notifications/{id}/read
+   * Header opzionale If-Match: versione attesa; se cambiata -> 409
    */
   @PostMapping("/{id}/read")
-  public ResponseEntity<AdminNotification> markRead(@PathVariable Long id, Principal principal) {
+  public ResponseEntity<AdminNotification> markRead(@PathVariable Long id,
+                                                    @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                                    Principal principal) {
     String user = principal != null ? principal.getName() : "admin";
     try {
-      AdminNotification notification = service.markRead(id, user);
+      AdminNotification notification = service.markRead(id, user, IfMatch.version(ifMatch));
       return ResponseEntity.ok(notification);
+    } catch (OptimisticLockingFailureException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
     } catch (RuntimeException e) {
       return ResponseEntity.notFound().build();
     }
@@ -61,17 +132,23 @@ public class AdminNotificationsController {
   /**
    * Risolvi notifica
    * POST /api/admin/notifications/{id}/resolve
+   * 409 se già risolta da un altro admin o se la versione If-Match è vecchia
    */
   @PostMapping("/{id}/resolve")
   public ResponseEntity<AdminNotification> resolve(@PathVariable Long id,
                                                    @RequestBody(required = false) NoteReq body,
+                                                   @RequestHeader(value = "If-Match", required = false) String ifMatch,
                                                    Principal principal) {
     String user = principal != null ? principal.getName() : "admin";
     String note = body != null ? body.note : null;
     
     try {
-      AdminNotification notification = service.resolve(id, user, note);
+      AdminNotification notification = service.resolve(id, user, note, IfMatch.version(ifMatch));
       return ResponseEntity.ok(notification);
+    } catch (OptimisticLockingFailureException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
     } catch (RuntimeException e) {
       return ResponseEntity.notFound().build();
     }
@@ -84,26 +161,105 @@ public class AdminNotificationsController {
   @PostMapping("/{id}/archive")
   public ResponseEntity<AdminNotification> archive(@PathVariable Long id,
                                                    @RequestBody(required = false) NoteReq body,
+                                                   @RequestHeader(value = "If-Match", required = false) String ifMatch,
                                                    Principal principal) {
     String user = principal != null ? principal.getName() : "admin";
     String note = body != null ? body.note : null;
     
     try {
-      AdminNotification notification = service.archive(id, user, note);
+      AdminNotification notification = service.archive(id, user, note, IfMatch.version(ifMatch));
       return ResponseEntity.ok(notification);
+    } catch (OptimisticLockingFailureException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
     } catch (RuntimeException e) {
       return ResponseEntity.notFound().build();
     }
   }
 
   /**
-   * Cleanup notifiche archiviate
+   * Segna come lette in blocco
+   * POST /api/admin/notifications/bulk/read
+   * Body: {"ids":[1,2,3]} oppure filtro {"type":"mercato"}; senza ids né filtro -> 400
+   */
+  @PostMapping("/bulk/read")
+  public ResponseEntity<BulkRes> bulkRead(@RequestBody(required = false) BulkReq body, Principal principal) {
+    BulkReq req = body != null ? body : BulkReq.EMPTY;
+    try {
+      int affected = service.bulkMarkRead(req.ids(), req.type(), req.priority(), req.status(), userOf(principal));
+      return ResponseEntity.ok(new BulkRes("read", affected));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Risolvi in blocco
+   * POST /api/admin/notifications/bulk/resolve
+   */
+  @PostMapping("/bulk/resolve")
+  public ResponseEntity<BulkRes> bulkResolve(@RequestBody(required = false) BulkReq body, Principal principal) {
+    BulkReq req = body != null ? body : BulkReq.EMPTY;
+    try {
+      int affected = service.bulkResolve(req.ids(), req.type(), req.priority(), req.status(),
+          userOf(principal), req.note());
+      return ResponseEntity.ok(new BulkRes("resolve", affected));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Archivia in blocco
+   * POST /api/admin/notifications/bulk/archive
+   */
+  @PostMapping("/bulk/archive")
+  public ResponseEntity<BulkRes> bulkArchive(@RequestBody(required = false) BulkReq body, Principal principal) {
+    BulkReq req = body != null ? body : BulkReq.EMPTY;
+    try {
+      int affected = service.bulkArchive(req.ids(), req.type(), req.priority(), req.status(),
+          userOf(principal), req.note());
+      return ResponseEntity.ok(new BulkRes("archive", affected));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Accoda il cleanup notifiche archiviate (eseguito in background a blocchi)
    * DELETE /api/admin/notifications/cleanup?days=30
    */
   @DeleteMapping("/cleanup")
-  public ResponseEntity<CleanupRes> cleanup(@RequestParam(defaultValue = "30") int days) {
-    long deleted = service.cleanupArchivedOlderThanDays(days);
-    return ResponseEntity.ok(new CleanupRes(deleted, days));
+  public ResponseEntity<CleanupProgress> cleanup(@RequestParam(defaultValue = "30") int days) {
+    return ResponseEntity.accepted().body(service.enqueueCleanup(days));
+  }
+
+  /**
+   * Stato del cleanup in corso o dell'ultimo eseguito
+   * GET /api/admin/notifications/cleanup/status
+   */
+  @GetMapping("/cleanup/status")
+  public CleanupProgress cleanupStatus() {
+    return service.cleanupProgress();
+  }
+
+  /**
+   * Metriche pipeline di creazione (coda, batch, overflow)
+   * GET /api/admin/notifications/pipeline/stats
+   */
+  @GetMapping("/pipeline/stats")
+  public NotificationPipeline.PipelineStats pipelineStats() {
+    return service.pipelineStats();
+  }
+
+  /**
+   * Statistiche cache per id (hit, miss, evictions, invalidazioni)
+   * GET /api/admin/notifications/cache/stats
+   */
+  @GetMapping("/cache/stats")
+  public CacheStatsSnapshot cacheStats() {
+    return service.cacheStats();
   }
 
   /**
@@ -112,8 +268,10 @@ public class AdminNotificationsController {
    */
   @GetMapping("/unreadCount")
   public ResponseEntity<UnreadCountRes> unreadCount() {
-    long count = service.countUnread();
-    return ResponseEntity.ok(new UnreadCountRes(count));
+    return ResponseEntity.ok(new UnreadCountRes(
+        service.countUnread(),
+        service.countUnreadByType(),
+        service.countUnreadByPriority()));
   }
 
   /**
@@ -121,12 +279,30 @@ public class AdminNotificationsController {
    * GET /api/admin/notifications/recent
    */
   @GetMapping("/recent")
-  public List<AdminNotification> recent() {
+  public List<AdminNotificationSummary> recent() {
     return service.getRecentNotifications();
   }
 
+  /**
+   * Stream SSE notifiche (created / read / resolved / archived)
+   * GET /api/admin/notifications/stream
+   * Header Last-Event-ID (o ?lastEventId= per riconnessioni manuali) per riprendere
+   */
+  @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                           @RequestParam(required = false) String lastEventId) {
+    return service.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+  }
+
+  private static String userOf(Principal principal) {
+    return principal != null ? principal.getName() : "admin";
+  }
+
   // DTO Records
   public record NoteReq(String note) {}
-  public record CleanupRes(long deleted, int olderThanDays) {}
-  public record UnreadCountRes(long unreadCount) {}
+  public record BulkReq(List<Long> ids, String type, String priority, String status, String note) {
+    static final BulkReq EMPTY = new BulkReq(null, null, null, null, null);
+  }
+  public record BulkRes(String action, int affected) {}
+  public record UnreadCountRes(long unreadCount, Map<String, Long> byType, Map<String, Long> byPriority) {}
 }
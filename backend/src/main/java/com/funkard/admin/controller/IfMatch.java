@@ -0,0 +1,37 @@
+package com.funkard.admin.controller;
+
+/**
+ * Parsing dell'header If-Match usato per il controllo di versione
+ * (notifiche admin e ticket di supporto).
+ */
+public final class IfMatch {
+
+  private IfMatch() {
+  }
+
+  /**
+   * "3", W/"3" oppure 3 -> 3; assente, vuoto o "*" -> null (nessun controllo)
+   *
+   * @throws IllegalArgumentException se l'header non è una versione (-> 400)
+   */
+  public static Long version(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+      return null;
+    }
+    String v = ifMatch.trim();
+    if (v.startsWith("W/")) {
+      v = v.substring(2);
+    }
+    if (v.length() >= 2 && v.startsWith("\"") && v.endsWith("\"")) {
+      v = v.substring(1, v.length() - 1);
+    }
+    if (!v.isEmpty() && v.chars().allMatch(Character::isDigit)) {
+      try {
+        return Long.parseLong(v);
+      } catch (NumberFormatException e) {
+        // oltre Long.MAX_VALUE
+      }
+    }
+    throw new IllegalArgumentException("If-Match non valido: " + ifMatch);
+  }
+}
@@ -4,7 +4,14 @@ import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "admin_notifications")
+@Table(name = "admin_notifications", indexes = {
+    // lista attive + paginazione keyset + catch-up SSE
+    @Index(name = "idx_admin_notif_archived_created", columnList = "archived, created_at, id"),
+    // riallineamento contatore non lette (group by type, priority)
+    @Index(name = "idx_admin_notif_unread", columnList = "archived, read_status, type, priority"),
+    // filtri per tipo/priorità ordinati per data
+    @Index(name = "idx_admin_notif_type_priority_created", columnList = "type, priority, created_at, id")
+})
 public class AdminNotification {
 
   @Id
@@ -42,15 +49,19 @@ public class AdminNotification {
   @Column(name = "resolved_by", length = 120)
   private String resolvedBy;
 
-  /**
-   * JSON compatto con lo storico azioni:
-   * [
-   *   {"user":"Admin","action":"resolve","at":"2025-10-17T12:00:00Z","note":"..."},
-   *   {"user":"Admin","action":"archive","at":"2025-10-17T12:05:00Z"}
-   * ]
-   */
-  @Column(name = "history", columnDefinition = "text")
-  private String history;
+  // burst coalescing: ripetizioni della stessa notifica nella finestra di dedup
+  @Column(name = "occurrences", nullable = false, columnDefinition = "integer default 1")
+  private int occurrences = 1;
+
+  @Column(name = "last_seen_at")
+  private Instant lastSeenAt;
+
+  // optimistic locking: incrementata da ogni transizione (read / resolve / archive)
+  @Version
+  @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+  private long version;
+
+  // storico azioni: tabella admin_notification_actions (AdminNotificationAction)
 
   // Constructors
   public AdminNotification() {}
@@ -151,12 +162,28 @@ public class AdminNotification {
     this.resolvedBy = resolvedBy;
   }
 
-  public String getHistory() {
-    return history;
+  public int getOccurrences() {
+    return occurrences;
+  }
+
+  public void setOccurrences(int occurrences) {
+    this.occurrences = occurrences;
+  }
+
+  public Instant getLastSeenAt() {
+    return lastSeenAt;
+  }
+
+  public void setLastSeenAt(Instant lastSeenAt) {
+    this.lastSeenAt = lastSeenAt;
+  }
+
+  public long getVersion() {
+    return version;
   }
 
-  public void setHistory(String history) {
-    this.history = history;
+  public void setVersion(long version) {
+    this.version = version;
   }
 
   @Override
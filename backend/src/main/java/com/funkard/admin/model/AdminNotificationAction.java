@@ -0,0 +1,74 @@
+package com.funkard.admin.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+/**
+ * Voce dello storico azioni di una notifica (append-only).
+ * Sostituisce la vecchia colonna JSON admin_notifications.history:
+ * ogni azione è un insert, nessuna riscrittura dello storico esistente.
+ */
+@Entity
+@Immutable
+@Table(name = "admin_notification_actions", indexes = {
+    @Index(name = "idx_notification_actions_notification", columnList = "notification_id, at")
+})
+public class AdminNotificationAction {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "notification_id", nullable = false, updatable = false)
+  private Long notificationId;
+
+  @Column(name = "user_name", nullable = false, length = 120, updatable = false)
+  private String user;
+
+  @Column(nullable = false, length = 32, updatable = false)
+  private String action; // read | resolve | archive
+
+  @Column(name = "at", nullable = false, updatable = false)
+  private Instant at;
+
+  @Column(columnDefinition = "text", updatable = false)
+  private String note;
+
+  // Constructors
+  public AdminNotificationAction() {}
+
+  public AdminNotificationAction(Long notificationId, String user, String action, Instant at, String note) {
+    this.notificationId = notificationId;
+    this.user = user;
+    this.action = action;
+    this.at = at;
+    this.note = (note != null && !note.isBlank()) ? note : null;
+  }
+
+  // Getters
+  public Long getId() {
+    return id;
+  }
+
+  public Long getNotificationId() {
+    return notificationId;
+  }
+
+  public String getUser() {
+    return user;
+  }
+
+  public String getAction() {
+    return action;
+  }
+
+  public Instant getAt() {
+    return at;
+  }
+
+  public String getNote() {
+    return note;
+  }
+}
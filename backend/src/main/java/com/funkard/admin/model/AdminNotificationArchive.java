@@ -0,0 +1,163 @@
+package com.funkard.admin.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+/**
+ * Notifica archiviata (tabella fredda, append-only).
+ *
+ * archive() sposta qui la riga da admin_notifications con lo stesso id:
+ * la tabella calda contiene solo il working set e lo storico azioni resta
+ * in admin_notification_actions. Il message è salvato compresso (gzip).
+ * Le righe non vengono mai modificate, solo eliminate dal cleanup.
+ */
+@Entity
+@Immutable
+@Table(name = "admin_notifications_archive", indexes = {
+    // lista archivio (dalla più recente) e filtri per data
+    @Index(name = "idx_admin_notif_archive_created", columnList = "created_at, id"),
+    @Index(name = "idx_admin_notif_archive_type_priority", columnList = "type, priority, created_at, id"),
+    // cleanup per data di risoluzione
+    @Index(name = "idx_admin_notif_archive_resolved", columnList = "resolved_at")
+})
+public class AdminNotificationArchive {
+
+  @Id
+  private Long id; // stesso id della notifica originale
+
+  @Column(nullable = false, length = 32)
+  private String type;
+
+  @Column(nullable = false, length = 16)
+  private String priority;
+
+  @Column(nullable = false, length = 160)
+  private String title;
+
+  // senza columnDefinition Hibernate genera varbinary(255) su H2
+  @Convert(converter = GzipTextConverter.class)
+  @Column(name = "message_gz", nullable = false, columnDefinition = "bytea")
+  private String message;
+
+  @Column(name = "read_status", nullable = false)
+  private boolean readStatus;
+
+  @Column(name = "read_at")
+  private Instant readAt;
+
+  @Column(name = "created_at", nullable = false)
+  private Instant createdAt;
+
+  @Column(name = "resolved_at")
+  private Instant resolvedAt;
+
+  @Column(name = "resolved_by", length = 120)
+  private String resolvedBy;
+
+  @Column(name = "occurrences", nullable = false)
+  private int occurrences = 1;
+
+  @Column(name = "last_seen_at")
+  private Instant lastSeenAt;
+
+  @Column(name = "archived_at", nullable = false)
+  private Instant archivedAt;
+
+  @Column(name = "archived_by", length = 120)
+  private String archivedBy;
+
+  // Constructors
+  public AdminNotificationArchive() {}
+
+  // Getters
+  public Long getId() {
+    return id;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public String getPriority() {
+    return priority;
+  }
+
+  public String getTitle() {
+    return title;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public boolean isReadStatus() {
+    return readStatus;
+  }
+
+  public Instant getReadAt() {
+    return readAt;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  /** Sempre true: stessa forma JSON di AdminNotification */
+  public boolean isArchived() {
+    return true;
+  }
+
+  public Instant getResolvedAt() {
+    return resolvedAt;
+  }
+
+  public String getResolvedBy() {
+    return resolvedBy;
+  }
+
+  public int getOccurrences() {
+    return occurrences;
+  }
+
+  public Instant getLastSeenAt() {
+    return lastSeenAt;
+  }
+
+  public Instant getArchivedAt() {
+    return archivedAt;
+  }
+
+  public String getArchivedBy() {
+    return archivedBy;
+  }
+
+  /**
+   * Vista come AdminNotification (non gestita) per GET /{id} e archive()
+   */
+  public AdminNotification toNotification() {
+    AdminNotification n = new AdminNotification(type, priority, title, message);
+    n.setId(id);
+    n.setReadStatus(readStatus);
+    n.setReadAt(readAt);
+    n.setCreatedAt(createdAt);
+    n.setArchived(true);
+    n.setResolvedAt(resolvedAt);
+    n.setResolvedBy(resolvedBy);
+    n.setOccurrences(occurrences);
+    n.setLastSeenAt(lastSeenAt);
+    return n;
+  }
+
+  @Override
+  public String toString() {
+    return "AdminNotificationArchive{" +
+        "id=" + id +
+        ", type='" + type + '\'' +
+        ", priority='" + priority + '\'' +
+        ", title='" + title + '\'' +
+        ", archivedAt=" + archivedAt +
+        '}';
+  }
+}
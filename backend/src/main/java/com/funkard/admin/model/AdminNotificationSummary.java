@@ -0,0 +1,22 @@
+package com.funkard.admin.model;
+
+import java.time.Instant;
+
+/**
+ * Proiezione leggera di AdminNotification per liste e filtri.
+ * Non contiene message: la colonna text non viene letta dal DB
+ * né serializzata. Il dettaglio completo resta su GET /{id}.
+ */
+public record AdminNotificationSummary(
+    Long id,
+    String type,
+    String priority,
+    String title,
+    boolean readStatus,
+    Instant readAt,
+    Instant createdAt,
+    boolean archived,
+    Instant resolvedAt,
+    String resolvedBy,
+    int occurrences,
+    Instant lastSeenAt) {}
@@ -0,0 +1,15 @@
+package com.funkard.admin.model;
+
+import java.time.Instant;
+
+/**
+ * Riga candidata per un'azione bulk: solo le colonne necessarie a decidere
+ * la transizione e aggiornare i contatori.
+ */
+public record BulkTarget(
+    Long id,
+    String type,
+    String priority,
+    boolean readStatus,
+    boolean archived,
+    Instant resolvedAt) {}
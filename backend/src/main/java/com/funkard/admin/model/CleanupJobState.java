@@ -0,0 +1,154 @@
+package com.funkard.admin.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Stato persistito di un job di cleanup (una riga per job).
+ *
+ * Aggiornato nella stessa transazione che elimina ogni blocco: dopo un
+ * riavvio il cursore last_id coincide con l'ultimo blocco davvero eliminato
+ * e il job riprende da lì invece di ripartire da zero.
+ */
+@Entity
+@Table(name = "admin_cleanup_jobs")
+public class CleanupJobState {
+
+  @Id
+  @Column(length = 64)
+  private String name;
+
+  @Column(nullable = false)
+  private boolean running;
+
+  @Column(nullable = false)
+  private boolean finished;
+
+  @Column(name = "older_than_days", nullable = false)
+  private int olderThanDays;
+
+  @Column(name = "cutoff")
+  private Instant cutoff;
+
+  @Column(name = "last_id", nullable = false)
+  private long lastId;
+
+  @Column(nullable = false)
+  private long deleted;
+
+  @Column(nullable = false)
+  private int chunks;
+
+  @Column(name = "started_at")
+  private Instant startedAt;
+
+  @Column(name = "finished_at")
+  private Instant finishedAt;
+
+  @Column(length = 500)
+  private String error;
+
+  @Column(name = "updated_at", nullable = false)
+  private Instant updatedAt;
+
+  // Constructors
+  public CleanupJobState() {}
+
+  public CleanupJobState(String name) {
+    this.name = name;
+  }
+
+  // Getters and Setters
+  public String getName() {
+    return name;
+  }
+
+  public boolean isRunning() {
+    return running;
+  }
+
+  public void setRunning(boolean running) {
+    this.running = running;
+  }
+
+  public boolean isFinished() {
+    return finished;
+  }
+
+  public void setFinished(boolean finished) {
+    this.finished = finished;
+  }
+
+  public int getOlderThanDays() {
+    return olderThanDays;
+  }
+
+  public void setOlderThanDays(int olderThanDays) {
+    this.olderThanDays = olderThanDays;
+  }
+
+  public Instant getCutoff() {
+    return cutoff;
+  }
+
+  public void setCutoff(Instant cutoff) {
+    this.cutoff = cutoff;
+  }
+
+  public long getLastId() {
+    return lastId;
+  }
+
+  public void setLastId(long lastId) {
+    this.lastId = lastId;
+  }
+
+  public long getDeleted() {
+    return deleted;
+  }
+
+  public void setDeleted(long deleted) {
+    this.deleted = deleted;
+  }
+
+  public int getChunks() {
+    return chunks;
+  }
+
+  public void setChunks(int chunks) {
+    this.chunks = chunks;
+  }
+
+  public Instant getStartedAt() {
+    return startedAt;
+  }
+
+  public void setStartedAt(Instant startedAt) {
+    this.startedAt = startedAt;
+  }
+
+  public Instant getFinishedAt() {
+    return finishedAt;
+  }
+
+  public void setFinishedAt(Instant finishedAt) {
+    this.finishedAt = finishedAt;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+}
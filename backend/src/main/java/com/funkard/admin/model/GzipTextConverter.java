@@ -0,0 +1,74 @@
+package com.funkard.admin.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Testo salvato come bytea nelle tabelle d'archivio, gzip solo sopra
+ * MIN_COMPRESS_BYTES: la maggior parte dei messaggi è di poche decine di byte,
+ * dove gzip (18 byte di header e trailer) allunga il dato e costa CPU su
+ * ogni archiviazione e lettura. Sotto soglia si salvano i byte UTF-8 così
+ * come sono; in lettura il magic 0x1f 0x8b distingue i due formati (un testo
+ * UTF-8 valido non può iniziare così), quindi le righe già compresse restano
+ * leggibili. Usato anche da NotificationArchiveWriter per gli insert JDBC.
+ */
+@Converter
+public class GzipTextConverter implements AttributeConverter<String, byte[]> {
+
+  static final int MIN_COMPRESS_BYTES = 1024;
+
+  @Override
+  public byte[] convertToDatabaseColumn(String text) {
+    return compress(text);
+  }
+
+  @Override
+  public String convertToEntityAttribute(byte[] data) {
+    return decompress(data);
+  }
+
+  public static byte[] compress(String text) {
+    if (text == null) {
+      return null;
+    }
+    byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+    if (raw.length < MIN_COMPRESS_BYTES) {
+      return raw;
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+    try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+      gz.write(raw);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  public static String decompress(byte[] data) {
+    if (data == null) {
+      return null;
+    }
+    if (!isGzip(data)) {
+      return new String(data, StandardCharsets.UTF_8);
+    }
+    try (GZIPInputStream gz = new GZIPInputStream(new ByteArrayInputStream(data))) {
+      return new String(gz.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static boolean isGzip(byte[] data) {
+    return data.length >= 2
+        && (data[0] & 0xff) == (GZIPInputStream.GZIP_MAGIC & 0xff)
+        && (data[1] & 0xff) == (GZIPInputStream.GZIP_MAGIC >> 8);
+  }
+}
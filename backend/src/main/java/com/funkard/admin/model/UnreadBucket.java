@@ -0,0 +1,6 @@
+package com.funkard.admin.model;
+
+/**
+ * Conteggio notifiche non lette per coppia (type, priority)
+ */
+public record UnreadBucket(String type, String priority, long count) {}
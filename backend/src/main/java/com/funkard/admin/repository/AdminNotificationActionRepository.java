@@ -0,0 +1,26 @@
+package com.funkard.admin.repository;
+
+import com.funkard.admin.model.AdminNotificationAction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface AdminNotificationActionRepository extends JpaRepository<AdminNotificationAction, Long> {
+
+  /**
+   * Storico di una notifica in ordine cronologico (paginato)
+   */
+  List<AdminNotificationAction> findByNotificationIdOrderByAtAscIdAsc(Long notificationId, Pageable page);
+
+  /**
+   * Elimina lo storico delle notifiche indicate (usato dal cleanup)
+   */
+  @Modifying
+  @Query("delete from AdminNotificationAction a where a.notificationId in :ids")
+  int deleteByNotificationIds(@Param("ids") Collection<Long> ids);
+}
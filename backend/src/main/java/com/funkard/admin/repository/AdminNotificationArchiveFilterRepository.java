@@ -0,0 +1,17 @@
+package com.funkard.admin.repository;
+
+import com.funkard.admin.model.AdminNotificationSummary;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Filtri dinamici (Criteria API) sull'archivio, stessa proiezione e stesso
+ * ordinamento (createdAt, id) di AdminNotificationFilterRepository per
+ * status=archiviata. Parametri null = filtro non applicato.
+ */
+public interface AdminNotificationArchiveFilterRepository {
+
+  List<AdminNotificationSummary> filterArchivedAfter(String type, String priority,
+                                                     Instant createdAt, Long id, int limit);
+}
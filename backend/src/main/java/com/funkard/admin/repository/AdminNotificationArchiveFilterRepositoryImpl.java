@@ -0,0 +1,64 @@
+package com.funkard.admin.repository;
+
+import com.funkard.admin.model.AdminNotificationArchive;
+import com.funkard.admin.model.AdminNotificationSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+class AdminNotificationArchiveFilterRepositoryImpl implements AdminNotificationArchiveFilterRepository {
+
+  @PersistenceContext
+  private EntityManager em;
+
+  @Override
+  public List<AdminNotificationSummary> filterArchivedAfter(String type, String priority,
+                                                            Instant createdAt, Long id, int limit) {
+    CriteriaBuilder cb = em.getCriteriaBuilder();
+    CriteriaQuery<AdminNotificationSummary> q = cb.createQuery(AdminNotificationSummary.class);
+    Root<AdminNotificationArchive> a = q.from(AdminNotificationArchive.class);
+
+    List<Predicate> where = predicates(cb, a, type, priority);
+    where.add(cb.or(
+        cb.greaterThan(a.get("createdAt"), createdAt),
+        cb.and(cb.equal(a.get("createdAt"), createdAt), cb.greaterThan(a.get("id"), id))));
+
+    q.select(summary(cb, a))
+        .where(where.toArray(Predicate[]::new))
+        .orderBy(cb.asc(a.get("createdAt")), cb.asc(a.get("id")));
+    return em.createQuery(q).setMaxResults(limit).getResultList();
+  }
+
+  /**
+   * Stessa proiezione della tabella calda; archived è sempre true e il
+   * message compresso non viene letto
+   */
+  private static CompoundSelection<AdminNotificationSummary> summary(CriteriaBuilder cb,
+                                                                     Root<AdminNotificationArchive> a) {
+    return cb.construct(AdminNotificationSummary.class,
+        a.get("id"), a.get("type"), a.get("priority"), a.get("title"),
+        a.get("readStatus"), a.get("readAt"), a.get("createdAt"),
+        cb.literal(true), a.get("resolvedAt"), a.get("resolvedBy"),
+        a.get("occurrences"), a.get("lastSeenAt"));
+  }
+
+  private static List<Predicate> predicates(CriteriaBuilder cb, Root<AdminNotificationArchive> a,
+                                            String type, String priority) {
+    List<Predicate> out = new ArrayList<>(2);
+    if (type != null) {
+      out.add(cb.equal(a.get("type"), type));
+    }
+    if (priority != null) {
+      out.add(cb.equal(a.get("priority"), priority));
+    }
+    return out;
+  }
+}
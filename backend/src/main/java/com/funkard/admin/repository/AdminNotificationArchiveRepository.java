@@ -0,0 +1,61 @@
+package com.funkard.admin.repository;
+
+import com.funkard.admin.model.AdminNotificationArchive;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface AdminNotificationArchiveRepository extends JpaRepository<AdminNotificationArchive, Long>,
+    AdminNotificationArchiveFilterRepository {
+
+  /**
+   * Prima pagina dell'archivio, dalla notifica più recente
+   */
+  @Query("""
+    select a from AdminNotificationArchive a
+    order by a.createdAt desc, a.id desc
+  """)
+  List<AdminNotificationArchive> findNewest(Pageable page);
+
+  /**
+   * Pagina keyset dell'archivio prima della posizione (createdAt, id)
+   */
+  @Query("""
+    select a from AdminNotificationArchive a
+    where a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id)
+    order by a.createdAt desc, a.id desc
+  """)
+  List<AdminNotificationArchive> findBefore(@Param("createdAt") Instant createdAt,
+                                            @Param("id") Long id,
+                                            Pageable page);
+
+  /**
+   * Blocco di id di notifiche archiviate risolte prima del limite, dopo un certo id (cleanup)
+   */
+  @Query("""
+    select a.id from AdminNotificationArchive a
+    where a.resolvedAt < :olderThan and a.id > :afterId
+    order by a.id asc
+  """)
+  List<Long> findIdsResolvedBefore(@Param("olderThan") Instant olderThan,
+                                   @Param("afterId") Long afterId,
+                                   Pageable page);
+
+  /**
+   * DELETE bulk di un intervallo di id (senza caricare le entity)
+   * @return numero di notifiche eliminate
+   */
+  @Modifying
+  @Query("""
+    delete from AdminNotificationArchive a
+    where a.id between :fromId and :toId and a.resolvedAt < :olderThan
+  """)
+  int deleteResolvedInRange(@Param("fromId") Long fromId,
+                            @Param("toId") Long toId,
+                            @Param("olderThan") Instant olderThan);
+}
@@ -0,0 +1,37 @@
+package com.funkard.admin.repository;
+
+import com.funkard.admin.model.AdminNotificationSummary;
+import com.funkard.admin.model.BulkTarget;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Query di filtro dinamiche (Criteria API): vengono emessi solo i predicati
+ * dei parametri valorizzati, così il planner può usare gli indici compositi
+ * invece dei predicati "(:x is null or ...)".
+ *
+ * Parametri null = filtro non applicato. status: attiva | risolta | archiviata.
+ */
+public interface AdminNotificationFilterRepository {
+
+  /**
+   * Pagina keyset filtrata dopo la posizione (createdAt, id), proiezione senza message
+   */
+  List<AdminNotificationSummary> filterAfter(String type, String priority, String status,
+                                             Instant createdAt, Long id, int limit);
+
+  /**
+   * Righe su cui un'azione bulk avrà effetto, bloccate (select ... for update)
+   * fino alla fine della transazione e ordinate per id.
+   * La condizione dell'azione è nella query: una richiesta concorrente sugli
+   * stessi id attende il lock e poi non le vede più, quindi storico, archivio
+   * e contatori vengono aggiornati una sola volta per riga.
+   *
+   * @param ids    id espliciti, oppure null per usare i filtri (come filterAfter())
+   * @param action read | resolve | archive
+   */
+  List<BulkTarget> lockBulkTargets(Collection<Long> ids, String type, String priority, String status,
+                                   String action);
+}
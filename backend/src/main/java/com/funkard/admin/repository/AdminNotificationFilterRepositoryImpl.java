@@ -0,0 +1,99 @@
+package com.funkard.admin.repository;
+
+import com.funkard.admin.model.AdminNotification;
+import com.funkard.admin.model.AdminNotificationSummary;
+import com.funkard.admin.model.BulkTarget;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+class AdminNotificationFilterRepositoryImpl implements AdminNotificationFilterRepository {
+
+  @PersistenceContext
+  private EntityManager em;
+
+  @Override
+  public List<AdminNotificationSummary> filterAfter(String type, String priority, String status,
+                                                    Instant createdAt, Long id, int limit) {
+    CriteriaBuilder cb = em.getCriteriaBuilder();
+    CriteriaQuery<AdminNotificationSummary> q = cb.createQuery(AdminNotificationSummary.class);
+    Root<AdminNotification> n = q.from(AdminNotification.class);
+
+    List<Predicate> where = predicates(cb, n, type, priority, status);
+    where.add(cb.or(
+        cb.greaterThan(n.get("createdAt"), createdAt),
+        cb.and(cb.equal(n.get("createdAt"), createdAt), cb.greaterThan(n.get("id"), id))));
+
+    q.select(summary(cb, n))
+        .where(where.toArray(Predicate[]::new))
+        .orderBy(cb.asc(n.get("createdAt")), cb.asc(n.get("id")));
+    return em.createQuery(q).setMaxResults(limit).getResultList();
+  }
+
+  @Override
+  public List<BulkTarget> lockBulkTargets(Collection<Long> ids, String type, String priority, String status,
+                                          String action) {
+    CriteriaBuilder cb = em.getCriteriaBuilder();
+    CriteriaQuery<BulkTarget> q = cb.createQuery(BulkTarget.class);
+    Root<AdminNotification> n = q.from(AdminNotification.class);
+
+    List<Predicate> where = ids != null
+        ? new ArrayList<>(List.of(n.get("id").in(ids)))
+        : predicates(cb, n, type, priority, status);
+    where.add(switch (action) {
+      case "read" -> cb.isFalse(n.get("readStatus"));
+      case "resolve" -> cb.isNull(n.get("resolvedAt"));
+      case "archive" -> cb.isFalse(n.get("archived"));
+      default -> throw new IllegalArgumentException("Azione bulk sconosciuta: " + action);
+    });
+
+    q.select(cb.construct(BulkTarget.class,
+            n.get("id"), n.get("type"), n.get("priority"),
+            n.get("readStatus"), n.get("archived"), n.get("resolvedAt")))
+        .where(where.toArray(Predicate[]::new))
+        // ordine fisso dei lock: due bulk sovrapposti non vanno in deadlock
+        .orderBy(cb.asc(n.get("id")));
+    return em.createQuery(q).setLockMode(LockModeType.PESSIMISTIC_WRITE).getResultList();
+  }
+
+  private static CompoundSelection<AdminNotificationSummary> summary(CriteriaBuilder cb, Root<AdminNotification> n) {
+    return cb.construct(AdminNotificationSummary.class,
+        n.get("id"), n.get("type"), n.get("priority"), n.get("title"),
+        n.get("readStatus"), n.get("readAt"), n.get("createdAt"),
+        n.get("archived"), n.get("resolvedAt"), n.get("resolvedBy"),
+        n.get("occurrences"), n.get("lastSeenAt"));
+  }
+
+  /**
+   * Solo i predicati dei filtri presenti; uno stato sconosciuto non restituisce righe
+   */
+  private static List<Predicate> predicates(CriteriaBuilder cb, Root<AdminNotification> n,
+                                            String type, String priority, String status) {
+    List<Predicate> out = new ArrayList<>(4);
+    if (type != null) {
+      out.add(cb.equal(n.get("type"), type));
+    }
+    if (priority != null) {
+      out.add(cb.equal(n.get("priority"), priority));
+    }
+    if (status != null) {
+      out.add(switch (status) {
+        case "attiva" -> cb.isFalse(n.get("archived"));
+        case "archiviata" -> cb.isTrue(n.get("archived"));
+        case "risolta" -> cb.isNotNull(n.get("resolvedAt"));
+        default -> cb.disjunction();
+      });
+    }
+    return out;
+  }
+}
@@ -1,60 +1,140 @@
 package com.funkard.admin.repository;
 
 import com.funkard.admin.model.AdminNotification;
+import com.funkard.admin.model.AdminNotificationSummary;
+import com.funkard.admin.model.UnreadBucket;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
-public interface AdminNotificationRepository extends JpaRepository<AdminNotification, Long> {
+public interface AdminNotificationRepository extends JpaRepository<AdminNotification, Long>,
+    AdminNotificationFilterRepository {
 
   /**
-   * Lista notifiche attive in ordine cronologico (dalla più vecchia)
+   * Pagina keyset di notifiche attive dopo la posizione (createdAt, id)
    */
-  List<AdminNotification> findByArchivedFalseOrderByCreatedAtAsc();
+  @Query("""
+    select new com.funkard.admin.model.AdminNotificationSummary(
+      n.id, n.type, n.priority, n.title, n.readStatus, n.readAt,
+      n.createdAt, n.archived, n.resolvedAt, n.resolvedBy, n.occurrences, n.lastSeenAt)
+    from AdminNotification n
+    where n.archived = false
+      and (n.createdAt > :createdAt or (n.createdAt = :createdAt and n.id > :id))
+    order by n.createdAt asc, n.id asc
+  """)
+  List<AdminNotificationSummary> findActiveAfter(@Param("createdAt") Instant createdAt,
+                                                 @Param("id") Long id,
+                                                 Pageable page);
+
+  /**
+   * Conta notifiche non lette
+   */
+  long countByReadStatusFalseAndArchivedFalse();
 
   /**
-   * Filtra notifiche per tipo, priorità e stato
-   * @param type tipo notifica (errore, segnalazione, supporto, mercato, ...)
-   * @param priority priorità (bassa, media, alta, critica)
-   * @param status stato (attiva, risolta, archiviata)
-   * @return lista filtrata
+   * Conteggio non lette raggruppato per tipo e priorità (riallineamento UnreadCounter)
    */
   @Query("""
-    select n from AdminNotification n
-    where (:type is null or n.type = :type)
-      and (:priority is null or n.priority = :priority)
-      and (:status is null
-           or (:status = 'attiva' and n.archived = false)
-           or (:status = 'archiviata' and n.archived = true)
-           or (:status = 'risolta' and n.resolvedAt is not null))
-    order by n.createdAt asc
+    select new com.funkard.admin.model.UnreadBucket(n.type, n.priority, count(n))
+    from AdminNotification n
+    where n.readStatus = false and n.archived = false
+    group by n.type, n.priority
   """)
-  List<AdminNotification> filter(@Param("type") String type, 
-                                 @Param("priority") String priority, 
-                                 @Param("status") String status);
+  List<UnreadBucket> countUnreadBuckets();
 
   /**
-   * Elimina notifiche archiviate più vecchie di un certo periodo
-   * @param olderThan data limite
-   * @return numero di notifiche eliminate
+   * Lista notifiche recenti (ultime N), senza message
    */
-  long deleteByArchivedTrueAndResolvedAtBefore(Instant olderThan);
+  List<AdminNotificationSummary> findTop5ByArchivedFalseOrderByCreatedAtDesc();
 
   /**
-   * Conta notifiche non lette
+   * Catch-up SSE: notifiche attive create dopo un certo istante (limitato da page)
    */
-  long countByReadStatusFalseAndArchivedFalse();
+  List<AdminNotification> findByArchivedFalseAndCreatedAtAfterOrderByCreatedAtAsc(Instant after, Pageable page);
+
+  /**
+   * Segna come lette in blocco (solo quelle ancora non lette)
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+    update AdminNotification n set n.readStatus = true, n.readAt = :at, n.version = n.version + 1
+    where n.id in :ids and n.readStatus = false
+  """)
+  int markReadByIds(@Param("ids") Collection<Long> ids, @Param("at") Instant at);
+
+  /**
+   * Risolve in blocco (solo quelle non ancora risolte)
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+    update AdminNotification n set n.resolvedAt = :at, n.resolvedBy = :user, n.version = n.version + 1
+    where n.id in :ids and n.resolvedAt is null
+  """)
+  int resolveByIds(@Param("ids") Collection<Long> ids, @Param("at") Instant at, @Param("user") String user);
 
   /**
-   * Lista notifiche per priorità (per SSE stream)
+   * Archivia in blocco (solo quelle non ancora archiviate)
    */
-  List<AdminNotification> findByArchivedFalseAndPriorityOrderByCreatedAtDesc(String priority);
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+    update AdminNotification n set n.archived = true, n.version = n.version + 1
+    where n.id in :ids and n.archived = false
+  """)
+  int archiveByIds(@Param("ids") Collection<Long> ids);
 
   /**
-   * Lista notifiche recenti (ultime N)
+   * Transizioni singole condizionali, senza lock di riga: 0 righe aggiornate
+   * significa stato già cambiato o versione diversa da quella attesa.
+   * Le varianti *AtVersion controllano anche la versione (If-Match): sono
+   * query separate e non un "(:version is null or ...)", che con un parametro
+   * null Postgres non sa tipizzare e che impedisce un piano per id.
    */
-  List<AdminNotification> findTop5ByArchivedFalseOrderByCreatedAtDesc();
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+    update AdminNotification n set n.readStatus = true, n.readAt = :at, n.version = n.version + 1
+    where n.id = :id and n.readStatus = false
+  """)
+  int markReadIf(@Param("id") Long id, @Param("at") Instant at);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+    update AdminNotification n set n.readStatus = true, n.readAt = :at, n.version = n.version + 1
+    where n.id = :id and n.readStatus = false and n.version = :version
+  """)
+  int markReadIfAtVersion(@Param("id") Long id, @Param("version") long version, @Param("at") Instant at);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+    update AdminNotification n set n.resolvedAt = :at, n.resolvedBy = :user, n.version = n.version + 1
+    where n.id = :id and n.resolvedAt is null
+  """)
+  int resolveIf(@Param("id") Long id, @Param("at") Instant at, @Param("user") String user);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+    update AdminNotification n set n.resolvedAt = :at, n.resolvedBy = :user, n.version = n.version + 1
+    where n.id = :id and n.resolvedAt is null and n.version = :version
+  """)
+  int resolveIfAtVersion(@Param("id") Long id, @Param("version") long version,
+                         @Param("at") Instant at, @Param("user") String user);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+    update AdminNotification n set n.archived = true, n.version = n.version + 1
+    where n.id = :id and n.archived = false
+  """)
+  int archiveIf(@Param("id") Long id);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+    update AdminNotification n set n.archived = true, n.version = n.version + 1
+    where n.id = :id and n.archived = false and n.version = :version
+  """)
+  int archiveIfAtVersion(@Param("id") Long id, @Param("version") long version);
 }
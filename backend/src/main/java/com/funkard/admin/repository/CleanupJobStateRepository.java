@@ -0,0 +1,7 @@
+package com.funkard.admin.repository;
+
+import com.funkard.admin.model.CleanupJobState;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CleanupJobStateRepository extends JpaRepository<CleanupJobState, String> {
+}
@@ -0,0 +1,54 @@
+package com.funkard.admin.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Insert dello storico azioni tramite batch JDBC (azioni bulk e migrazione):
+ * un round-trip ogni BATCH_SIZE righe invece di un save per notifica.
+ */
+@Repository
+public class NotificationActionBatchWriter {
+
+  static final int BATCH_SIZE = 500;
+
+  private static final String INSERT =
+      "insert into admin_notification_actions (notification_id, user_name, action, at, note) values (?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbc;
+
+  public NotificationActionBatchWriter(JdbcTemplate jdbc) {
+    this.jdbc = jdbc;
+  }
+
+  /**
+   * Stessa azione su più notifiche
+   */
+  public void append(List<Long> notificationIds, String user, String action, String note, Instant at) {
+    List<Row> rows = notificationIds.stream()
+        .map(id -> new Row(id, user, action, at, note))
+        .toList();
+    append(rows);
+  }
+
+  public void append(List<Row> rows) {
+    jdbc.batchUpdate(INSERT, rows, BATCH_SIZE, (ps, row) -> {
+      ps.setLong(1, row.notificationId());
+      ps.setString(2, row.user());
+      ps.setString(3, row.action());
+      ps.setTimestamp(4, Timestamp.from(row.at()));
+      if (row.note() != null && !row.note().isBlank()) {
+        ps.setString(5, row.note());
+      } else {
+        ps.setNull(5, Types.VARCHAR);
+      }
+    });
+  }
+
+  public record Row(Long notificationId, String user, String action, Instant at, String note) {}
+}
@@ -0,0 +1,77 @@
+package com.funkard.admin.repository;
+
+import com.funkard.admin.model.GzipTextConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Spostamento delle notifiche archiviate dalla tabella calda all'archivio.
+ *
+ * Copia le righe con archived = true in admin_notifications_archive
+ * (message compresso in Java) e le elimina da admin_notifications, nella
+ * transazione del chiamante. Le righe non archiviate vengono ignorate, quindi
+ * move() è idempotente e sicuro con transizioni concorrenti.
+ */
+@Repository
+public class NotificationArchiveWriter {
+
+  private static final String INSERT = """
+      insert into admin_notifications_archive
+        (id, type, priority, title, message_gz, read_status, read_at, created_at,
+         resolved_at, resolved_by, occurrences, last_seen_at, archived_at, archived_by)
+      values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+      """;
+
+  private final JdbcTemplate jdbc;
+
+  public NotificationArchiveWriter(JdbcTemplate jdbc) {
+    this.jdbc = jdbc;
+  }
+
+  /**
+   * @param ids blocco di id (il chiamante limita la dimensione della clausola in)
+   * @return numero di notifiche spostate
+   */
+  public int move(Collection<Long> ids, String user, Instant at) {
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+    Object[] args = ids.toArray();
+
+    List<Object[]> rows = jdbc.query("""
+        select id, type, priority, title, message, read_status, read_at, created_at,
+               resolved_at, resolved_by, occurrences, last_seen_at
+        from admin_notifications
+        where archived = true and id in (%s)
+        """.formatted(in), (rs, i) -> new Object[] {
+            rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+            GzipTextConverter.compress(rs.getString(5)),
+            rs.getBoolean(6), rs.getTimestamp(7), rs.getTimestamp(8),
+            rs.getTimestamp(9), rs.getString(10), rs.getInt(11), rs.getTimestamp(12),
+            Timestamp.from(at), user}, args);
+    if (rows.isEmpty()) {
+      return 0;
+    }
+
+    jdbc.batchUpdate(INSERT, rows);
+    return jdbc.update(
+        "delete from admin_notifications where archived = true and id in (%s)"
+            .formatted(String.join(", ", Collections.nCopies(rows.size(), "?"))),
+        rows.stream().map(r -> r[0]).toArray());
+  }
+
+  /**
+   * Id di notifiche ancora archiviate nella tabella calda (backfill)
+   */
+  public List<Long> findArchivedInHot(int limit) {
+    return jdbc.queryForList(
+        "select id from admin_notifications where archived = true order by id limit ?", Long.class, limit);
+  }
+}
@@ -0,0 +1,96 @@
+package com.funkard.admin.repository;
+
+import com.funkard.admin.model.AdminNotification;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Insert multiplo di notifiche in un unico batch JDBC, con recupero degli id
+ * generati (IDENTITY non permette il batching degli insert di Hibernate),
+ * e incremento a batch delle ripetizioni coalescenti.
+ */
+@Repository
+public class NotificationBatchInserter {
+
+  private static final String INSERT = """
+      insert into admin_notifications
+        (type, priority, title, message, read_status, created_at, archived, occurrences, last_seen_at, version)
+      values (?, ?, ?, ?, false, ?, false, ?, ?, 0)
+      """;
+
+  private static final String INCREMENT = """
+      update admin_notifications
+      set occurrences = occurrences + ?, last_seen_at = ?
+      where id = ? and archived = false
+      """;
+
+  private final JdbcTemplate jdbc;
+
+  public NotificationBatchInserter(JdbcTemplate jdbc) {
+    this.jdbc = jdbc;
+  }
+
+  /**
+   * @return le notifiche inserite, con id, nello stesso ordine delle righe
+   */
+  public List<AdminNotification> insert(List<Row> rows) {
+    if (rows.isEmpty()) {
+      return List.of();
+    }
+    return jdbc.execute((ConnectionCallback<List<AdminNotification>>) con -> {
+      try (PreparedStatement ps = con.prepareStatement(INSERT, new String[] {"id"})) {
+        for (Row r : rows) {
+          ps.setString(1, r.type());
+          ps.setString(2, r.priority());
+          ps.setString(3, r.title());
+          ps.setString(4, r.message());
+          ps.setTimestamp(5, Timestamp.from(r.createdAt()));
+          ps.setInt(6, r.occurrences());
+          ps.setTimestamp(7, r.occurrences() > 1 ? Timestamp.from(r.lastSeenAt()) : null);
+          ps.addBatch();
+        }
+        ps.executeBatch();
+
+        List<AdminNotification> out = new ArrayList<>(rows.size());
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+          for (Row r : rows) {
+            AdminNotification n = new AdminNotification(r.type(), r.priority(), r.title(), r.message());
+            n.setCreatedAt(r.createdAt());
+            n.setOccurrences(r.occurrences());
+            if (keys.next()) {
+              n.setId(keys.getLong(1));
+            }
+            out.add(n);
+          }
+        }
+        return out;
+      }
+    });
+  }
+
+  /**
+   * Somma le ripetizioni alle righe esistenti (solo se ancora attive).
+   * @return righe aggiornate per ciascun incremento (0 = riga archiviata o eliminata)
+   */
+  public int[] incrementOccurrences(List<Increment> increments) {
+    if (increments.isEmpty()) {
+      return new int[0];
+    }
+    return jdbc.batchUpdate(INCREMENT, increments.stream()
+        .map(i -> new Object[] {i.count(), Timestamp.from(i.lastSeenAt()), i.id()})
+        .toList());
+  }
+
+  public record Row(String type, String priority, String title, String message,
+                    Instant createdAt, int occurrences, Instant lastSeenAt) {}
+
+  public record Increment(long id, int count, Instant lastSeenAt) {}
+}
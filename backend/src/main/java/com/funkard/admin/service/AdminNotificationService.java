@@ -1,150 +1,474 @@
 package com.funkard.admin.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.funkard.admin.model.AdminNotification;
+import com.funkard.admin.model.AdminNotificationAction;
+import com.funkard.admin.model.AdminNotificationArchive;
+import com.funkard.admin.model.AdminNotificationSummary;
+import com.funkard.admin.model.BulkTarget;
+import com.funkard.admin.model.UnreadBucket;
 import com.funkard.admin.repository.AdminNotificationRepository;
+import com.funkard.admin.repository.AdminNotificationActionRepository;
+import com.funkard.admin.repository.AdminNotificationArchiveRepository;
+import com.funkard.admin.repository.NotificationArchiveWriter;
+import com.funkard.admin.repository.NotificationActionBatchWriter;
+import com.funkard.admin.sse.AdminNotificationBroadcaster;
+import com.funkard.admin.sse.AdminNotificationBulkEvent;
+import com.funkard.admin.sse.AdminNotificationEvent;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Instant;
 import java.util.*;
 
 @Service
+@Timed(NotificationMetrics.SERVICE_TIMER)
 public class AdminNotificationService {
 
+  static final int MAX_PAGE_SIZE = 200;
+  static final int LIST_LIMIT = 500;
+  static final int BULK_CHUNK = 1000;
+  static final String ARCHIVED = "archiviata";
+
   private final AdminNotificationRepository repo;
-  private final ObjectMapper mapper = new ObjectMapper();
+  private final AdminNotificationActionRepository actions;
+  private final AdminNotificationArchiveRepository archive;
+  private final NotificationArchiveWriter archiveWriter;
+  private final NotificationActionBatchWriter actionWriter;
+  private final ApplicationEventPublisher events;
+  private final AdminNotificationBroadcaster broadcaster;
+  private final UnreadCounter unread;
+  private final NotificationCleanupJob cleanup;
+  private final NotificationPipeline pipeline;
+  private final NotificationCache cache;
+  private final NotificationMetrics metrics;
 
-  public AdminNotificationService(AdminNotificationRepository repo) {
+  public AdminNotificationService(AdminNotificationRepository repo,
+                                  AdminNotificationActionRepository actions,
+                                  AdminNotificationArchiveRepository archive,
+                                  NotificationArchiveWriter archiveWriter,
+                                  NotificationActionBatchWriter actionWriter,
+                                  ApplicationEventPublisher events,
+                                  AdminNotificationBroadcaster broadcaster,
+                                  UnreadCounter unread,
+                                  NotificationCleanupJob cleanup,
+                                  NotificationPipeline pipeline,
+                                  NotificationCache cache,
+                                  NotificationMetrics metrics) {
     this.repo = repo;
+    this.actions = actions;
+    this.archive = archive;
+    this.archiveWriter = archiveWriter;
+    this.actionWriter = actionWriter;
+    this.events = events;
+    this.broadcaster = broadcaster;
+    this.unread = unread;
+    this.cleanup = cleanup;
+    this.pipeline = pipeline;
+    this.cache = cache;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Apre lo stream SSE; con lastEventId riprende dagli eventi persi
+   * (ring buffer in memoria, oppure catch-up limitato da DB)
+   */
+  public SseEmitter subscribe(String lastEventId) {
+    return broadcaster.subscribe(lastEventId, (since, limit) ->
+        repo.findByArchivedFalseAndCreatedAtAfterOrderByCreatedAtAsc(since, PageRequest.of(0, limit))
+            .stream()
+            .map(n -> AdminNotificationEvent.of(AdminNotificationEvent.CREATED, n))
+            .toList());
+  }
+
+  /**
+   * Crea subito una notifica admin, deduplicata come quelle accodate: entro la
+   * finestra una ripetizione incrementa occurrences della riga esistente e non
+   * pubblica un nuovo evento. La scrittura usa una transazione propria.
+   *
+   * @return la riga creata, oppure quella che ha assorbito la ripetizione
+   */
+  public AdminNotification createAdminNotification(String title, String message, String priority, String type) {
+    long id = pipeline.writeNow(NotificationRequest.of(type, priority, title, message));
+    return load(id);
+  }
+
+  /**
+   * Accoda una notifica sulla pipeline asincrona: viene inserita a batch dopo
+   * il commit della transazione corrente, senza pesare sul chiamante.
+   * Ripetizioni con stessi type/priority/title entro la finestra vengono accorpate.
+   */
+  public void enqueueAdminNotification(String title, String message, String priority, String type) {
+    enqueueAdminNotification(title, message, priority, type, null);
+  }
+
+  /**
+   * Come sopra, con chiave di deduplicazione esplicita (es. un id di dominio)
+   */
+  public void enqueueAdminNotification(String title, String message, String priority, String type,
+                                       String fingerprint) {
+    pipeline.submit(NotificationRequest.of(type, priority, title, message, fingerprint));
+  }
+
+  /**
+   * Metriche della pipeline di creazione notifiche
+   */
+  public NotificationPipeline.PipelineStats pipelineStats() {
+    return pipeline.stats();
   }
 
   /**
-   * Lista notifiche attive in ordine cronologico
+   * Lista legacy non paginata (GET /api/admin/notifications): prima pagina
+   * keyset di al massimo LIST_LIMIT righe, stessi filtri e ordinamento di page().
+   *
+   * @deprecated usare {@link #page}; la lista completa non viene più restituita
    */
-  public List<AdminNotification> listActiveChrono() {
-    return repo.findByArchivedFalseOrderByCreatedAtAsc();
+  @Deprecated
+  public CursorPage<AdminNotificationSummary> list(String type, String priority, String status) {
+    return keyset(type, priority, status, NotificationCursor.START, LIST_LIMIT, "list");
   }
 
   /**
-   * Filtra notifiche per tipo, priorità e stato
+   * Pagina keyset (createdAt, id) di notifiche, con filtri opzionali.
+   * Senza filtri restituisce le attive in ordine cronologico.
+   * status=archiviata legge dall'archivio, gli altri stati dalla tabella calda:
+   * senza status, o con risolta, le archiviate non compaiono più (prima
+   * dell'archivio separato sì).
    */
-  public List<AdminNotification> filter(String type, String priority, String status) {
-    return repo.filter(emptyToNull(type), emptyToNull(priority), emptyToNull(status));
+  public CursorPage<AdminNotificationSummary> page(String type, String priority, String status,
+                                                   String cursor, int limit) {
+    NotificationCursor from = NotificationCursor.decode(cursor);
+    int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    return keyset(type, priority, status, from, size, "page");
+  }
+
+  /**
+   * Legge size+1 righe dopo from per sapere se esiste una pagina successiva
+   */
+  private CursorPage<AdminNotificationSummary> keyset(String type, String priority, String status,
+                                                      NotificationCursor from, int size, String metric) {
+    List<AdminNotificationSummary> rows;
+    if (ARCHIVED.equals(status)) {
+      rows = archive.filterArchivedAfter(emptyToNull(type), emptyToNull(priority),
+          from.createdAt(), from.id(), size + 1);
+    } else if (emptyToNull(type) != null || emptyToNull(priority) != null || emptyToNull(status) != null) {
+      rows = repo.filterAfter(emptyToNull(type), emptyToNull(priority), emptyToNull(status),
+          from.createdAt(), from.id(), size + 1);
+    } else {
+      rows = repo.findActiveAfter(from.createdAt(), from.id(), PageRequest.of(0, size + 1));
+    }
+
+    boolean hasMore = rows.size() > size;
+    List<AdminNotificationSummary> items = hasMore ? rows.subList(0, size) : rows;
+    metrics.rows(metric, items.size());
+    String next = null;
+    if (hasMore) {
+      AdminNotificationSummary last = items.get(items.size() - 1);
+      next = new NotificationCursor(last.createdAt(), last.id()).encode();
+    }
+    return new CursorPage<>(items, next, hasMore);
   }
 
   /**
-   * Ottieni notifica per ID
+   * Archivio notifiche dalla più recente, paginato keyset (createdAt, id).
+   * Include il message (decompresso): usato dalla pagina archivio.
+   */
+  public CursorPage<AdminNotificationArchive> archived(String cursor, int limit) {
+    int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    PageRequest first = PageRequest.of(0, size + 1);
+    List<AdminNotificationArchive> rows;
+    if (cursor == null || cursor.isBlank()) {
+      rows = archive.findNewest(first);
+    } else {
+      NotificationCursor from = NotificationCursor.decode(cursor);
+      rows = archive.findBefore(from.createdAt(), from.id(), first);
+    }
+
+    boolean hasMore = rows.size() > size;
+    List<AdminNotificationArchive> items = hasMore ? rows.subList(0, size) : rows;
+    metrics.rows("archive", items.size());
+    String next = null;
+    if (hasMore) {
+      AdminNotificationArchive last = items.get(items.size() - 1);
+      next = new NotificationCursor(last.getCreatedAt(), last.getId()).encode();
+    }
+    return new CursorPage<>(items, next, hasMore);
+  }
+
+  /**
+   * Ottieni notifica per ID (read-through da NotificationCache, poi archivio)
    */
   public Optional<AdminNotification> get(Long id) {
-    return repo.findById(id);
+    return cache.get(id)
+        .or(() -> archive.findById(id).map(AdminNotificationArchive::toNotification));
   }
 
   /**
-   * Risolvi notifica
+   * Statistiche della cache per id
+   */
+  public CacheStatsSnapshot cacheStats() {
+    return cache.stats();
+  }
+
+  /**
+   * Storico azioni di una notifica, paginato
+   */
+  public List<AdminNotificationAction> history(Long id, int page, int size) {
+    int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    List<AdminNotificationAction> rows =
+        actions.findByNotificationIdOrderByAtAscIdAsc(id, PageRequest.of(Math.max(page, 0), limit));
+    metrics.rows("history", rows.size());
+    return rows;
+  }
+
+  /**
+   * Risolvi notifica.
+   * UPDATE condizionale (solo se non ancora risolta), senza lock di riga:
+   * chi arriva secondo, o con una versione vecchia, riceve un conflitto.
+   *
+   * @param expectedVersion versione vista dal client (If-Match), null = nessun controllo
    */
   @Transactional
-  public AdminNotification resolve(Long id, String userName, String note) {
-    AdminNotification n = repo.findById(id)
-        .orElseThrow(() -> new RuntimeException("Notifica non trovata: " + id));
-    
-    n.setResolvedAt(Instant.now());
-    n.setResolvedBy(userName);
+  public AdminNotification resolve(Long id, String userName, String note, Long expectedVersion) {
+    Instant now = Instant.now();
+    int updated = expectedVersion == null
+        ? repo.resolveIf(id, now, userName)
+        : repo.resolveIfAtVersion(id, expectedVersion, now, userName);
+    AdminNotification n = load(id);
+    if (updated == 0) {
+      throw n.getResolvedAt() != null
+          ? conflict("Notifica già risolta da " + n.getResolvedBy() + ": " + id)
+          : conflict("Notifica modificata (versione " + n.getVersion() + "): " + id);
+    }
+
     pushHistory(n, userName, "resolve", note);
-    
-    return repo.save(n);
+    events.publishEvent(AdminNotificationEvent.of(AdminNotificationEvent.RESOLVED, n));
+    return n;
   }
 
   /**
-   * Archivia notifica
+   * Archivia notifica e la sposta in admin_notifications_archive
+   * (idempotente: già archiviata = nessun evento)
    */
   @Transactional
-  public AdminNotification archive(Long id, String userName, String note) {
-    AdminNotification n = repo.findById(id)
-        .orElseThrow(() -> new RuntimeException("Notifica non trovata: " + id));
-    
-    n.setArchived(true);
+  public AdminNotification archive(Long id, String userName, String note, Long expectedVersion) {
+    int updated = expectedVersion == null
+        ? repo.archiveIf(id)
+        : repo.archiveIfAtVersion(id, expectedVersion);
+    if (updated == 0) {
+      Optional<AdminNotificationArchive> archived = archive.findById(id);
+      if (archived.isPresent()) {
+        return archived.get().toNotification();
+      }
+      AdminNotification n = load(id);
+      throw conflict("Notifica modificata (versione " + n.getVersion() + "): " + id);
+    }
+
+    AdminNotification n = load(id);
     pushHistory(n, userName, "archive", note);
-    
-    return repo.save(n);
+    archiveWriter.move(List.of(id), userName, Instant.now());
+    events.publishEvent(AdminNotificationEvent.of(AdminNotificationEvent.ARCHIVED, n));
+    return n;
   }
 
   /**
-   * Segna notifica come letta
+   * Segna notifica come letta (idempotente: già letta = nessun evento)
    */
   @Transactional
-  public AdminNotification markRead(Long id, String userName) {
-    AdminNotification n = repo.findById(id)
-        .orElseThrow(() -> new RuntimeException("Notifica non trovata: " + id));
-    
-    if (!n.isReadStatus()) {
-      n.setReadStatus(true);
-      n.setReadAt(Instant.now());
-      pushHistory(n, userName, "read", null);
-      repo.save(n);
+  public AdminNotification markRead(Long id, String userName, Long expectedVersion) {
+    Instant now = Instant.now();
+    int updated = expectedVersion == null
+        ? repo.markReadIf(id, now)
+        : repo.markReadIfAtVersion(id, expectedVersion, now);
+    AdminNotification n = load(id);
+    if (updated == 0) {
+      if (!n.isReadStatus()) {
+        throw conflict("Notifica modificata (versione " + n.getVersion() + "): " + id);
+      }
+      return n;
     }
-    
+
+    pushHistory(n, userName, "read", null);
+    events.publishEvent(AdminNotificationEvent.of(AdminNotificationEvent.READ, n));
     return n;
   }
 
   /**
-   * Cleanup notifiche archiviate più vecchie di N giorni
+   * Segna come lette in blocco: lista di id oppure filtro (uno dei due è obbligatorio)
    */
   @Transactional
-  public long cleanupArchivedOlderThanDays(int days) {
-    Instant limit = Instant.now().minusSeconds(days * 24L * 3600L);
-    return repo.deleteByArchivedTrueAndResolvedAtBefore(limit);
+  public int bulkMarkRead(List<Long> ids, String type, String priority, String status, String userName) {
+    return bulk(AdminNotificationEvent.READ, ids, type, priority, status, userName, null);
   }
 
   /**
-   * Conta notifiche non lette
+   * Risolve in blocco: lista di id oppure filtro (uno dei due è obbligatorio)
    */
-  public long countUnread() {
-    return repo.countByReadStatusFalseAndArchivedFalse();
+  @Transactional
+  public int bulkResolve(List<Long> ids, String type, String priority, String status,
+                         String userName, String note) {
+    return bulk(AdminNotificationEvent.RESOLVED, ids, type, priority, status, userName, note);
   }
 
   /**
-   * Lista notifiche recenti per SSE
+   * Archivia in blocco: lista di id oppure filtro (uno dei due è obbligatorio)
    */
-  public List<AdminNotification> getRecentNotifications() {
-    return repo.findTop5ByArchivedFalseOrderByCreatedAtDesc();
+  @Transactional
+  public int bulkArchive(List<Long> ids, String type, String priority, String status,
+                         String userName, String note) {
+    return bulk(AdminNotificationEvent.ARCHIVED, ids, type, priority, status, userName, note);
   }
 
   /**
-   * Aggiunge entry allo storico JSON
+   * Azione bulk set-based: select dei candidati con lock di riga, UPDATE per
+   * blocchi di id, storico inserito in batch JDBC e un solo evento SSE per
+   * tutta l'azione.
+   *
+   * Storico, spostamento in archivio e contatori usano solo le righe bloccate
+   * da lockBulkTargets, cioè quelle che l'UPDATE modifica davvero: due bulk
+   * concorrenti sugli stessi id non producono voci doppie.
+   *
+   * @throws IllegalArgumentException se mancano sia gli id sia un filtro
    */
-  private void pushHistory(AdminNotification n, String user, String action, String note) {
-    try {
-      List<Map<String, Object>> history = new ArrayList<>();
-      
-      // Carica storico esistente
-      if (n.getHistory() != null && !n.getHistory().isBlank()) {
-        history = mapper.readValue(n.getHistory(), new TypeReference<>() {});
+  private int bulk(String action, List<Long> ids, String type, String priority, String status,
+                   String userName, String note) {
+    boolean byIds = ids != null && !ids.isEmpty();
+    if (!byIds && emptyToNull(type) == null && emptyToNull(priority) == null && emptyToNull(status) == null) {
+      throw new IllegalArgumentException("Azione bulk senza ids né filtro (type, priority, status)");
+    }
+
+    String historyAction = switch (action) {
+      case AdminNotificationEvent.READ -> "read";
+      case AdminNotificationEvent.RESOLVED -> "resolve";
+      default -> "archive";
+    };
+
+    List<BulkTarget> targets = new ArrayList<>();
+    if (byIds) {
+      for (List<Long> chunk : chunks(ids.stream().distinct().sorted().toList())) {
+        targets.addAll(repo.lockBulkTargets(chunk, null, null, null, historyAction));
+      }
+    } else {
+      targets = repo.lockBulkTargets(null, emptyToNull(type), emptyToNull(priority), emptyToNull(status),
+          historyAction);
+    }
+    if (targets.isEmpty()) {
+      return 0;
+    }
+
+    Instant now = Instant.now();
+    List<Long> targetIds = targets.stream().map(BulkTarget::id).toList();
+    for (List<Long> chunk : chunks(targetIds)) {
+      int updated = switch (action) {
+        case AdminNotificationEvent.READ -> repo.markReadByIds(chunk, now);
+        case AdminNotificationEvent.RESOLVED -> repo.resolveByIds(chunk, now, userName);
+        default -> repo.archiveByIds(chunk);
+      };
+      if (updated != chunk.size()) {
+        // righe bloccate: non dovrebbe mai succedere, meglio annullare che duplicare
+        throw new IllegalStateException("Bulk " + historyAction + ": attese " + chunk.size()
+            + " righe, aggiornate " + updated);
       }
-      
-      // Aggiungi nuova entry
-      Map<String, Object> entry = new LinkedHashMap<>();
-      entry.put("user", user);
-      entry.put("action", action);
-      entry.put("at", Instant.now().toString());
-      if (note != null && !note.isBlank()) {
-        entry.put("note", note);
+      if (AdminNotificationEvent.ARCHIVED.equals(action)) {
+        archiveWriter.move(chunk, userName, now);
       }
-      
-      history.add(entry);
-      
-      // Salva storico aggiornato
-      n.setHistory(mapper.writeValueAsString(history));
-      
-    } catch (Exception e) {
-      // Fallback minimale in caso di JSON malformato
-      String fallbackHistory = String.format(
-        "[{\"user\":\"%s\",\"action\":\"%s\",\"at\":\"%s\"}]",
-        user, action, Instant.now()
-      );
-      n.setHistory(fallbackHistory);
     }
+
+    actionWriter.append(targetIds, userName, historyAction, note, now);
+
+    Map<String, UnreadBucket> removed = new HashMap<>();
+    if (!AdminNotificationEvent.RESOLVED.equals(action)) {
+      for (BulkTarget t : targets) {
+        if (!t.readStatus() && !t.archived()) {
+          removed.merge(t.type() + "|" + t.priority(), new UnreadBucket(t.type(), t.priority(), 1),
+              (a, b) -> new UnreadBucket(a.type(), a.priority(), a.count() + 1));
+        }
+      }
+    }
+
+    events.publishEvent(new AdminNotificationBulkEvent(
+        action,
+        targets.size(),
+        targetIds.size() <= AdminNotificationBulkEvent.MAX_IDS ? targetIds : null,
+        List.copyOf(removed.values())));
+    metrics.rows("bulk-" + action, targets.size());
+    return targets.size();
+  }
+
+  private static List<List<Long>> chunks(List<Long> ids) {
+    List<List<Long>> out = new ArrayList<>();
+    for (int i = 0; i < ids.size(); i += BULK_CHUNK) {
+      out.add(ids.subList(i, Math.min(i + BULK_CHUNK, ids.size())));
+    }
+    return out;
+  }
+
+  /**
+   * Accoda il cleanup delle notifiche archiviate più vecchie di N giorni
+   */
+  public CleanupProgress enqueueCleanup(int days) {
+    return cleanup.enqueue(days);
+  }
+
+  /**
+   * Stato dell'ultimo cleanup
+   */
+  public CleanupProgress cleanupProgress() {
+    return cleanup.progress();
+  }
+
+  /**
+   * Conta notifiche non lette (contatore in memoria, nessuna query)
+   */
+  public long countUnread() {
+    return unread.total();
+  }
+
+  /**
+   * Non lette per tipo (contatore in memoria)
+   */
+  public Map<String, Long> countUnreadByType() {
+    return unread.byType();
+  }
+
+  /**
+   * Non lette per priorità (contatore in memoria)
+   */
+  public Map<String, Long> countUnreadByPriority() {
+    return unread.byPriority();
+  }
+
+  /**
+   * Lista notifiche recenti per SSE
+   */
+  public List<AdminNotificationSummary> getRecentNotifications() {
+    List<AdminNotificationSummary> rows = repo.findTop5ByArchivedFalseOrderByCreatedAtDesc();
+    metrics.rows("recent", rows.size());
+    return rows;
+  }
+
+  /**
+   * Notifica dalla tabella calda; se è già in archivio non è più modificabile (409)
+   */
+  private AdminNotification load(Long id) {
+    return repo.findById(id).orElseThrow(() -> archive.existsById(id)
+        ? conflict("Notifica archiviata: " + id)
+        : new RuntimeException("Notifica non trovata: " + id));
+  }
+
+  private static OptimisticLockingFailureException conflict(String message) {
+    return new OptimisticLockingFailureException(message);
+  }
+
+  /**
+   * Aggiunge una voce allo storico (solo insert)
+   */
+  private void pushHistory(AdminNotification n, String user, String action, String note) {
+    actions.save(new AdminNotificationAction(n.getId(), user, action, Instant.now(), note));
   }
 
   /**
@@ -0,0 +1,22 @@
+package com.funkard.admin.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Statistiche di una cache per id, esposte dagli endpoint /cache/stats
+ */
+public record CacheStatsSnapshot(
+    long size,
+    long hits,
+    long misses,
+    double hitRate,
+    long evictions,
+    long invalidations) {
+
+  public static CacheStatsSnapshot of(Cache<?, ?> cache, long invalidations) {
+    CacheStats s = cache.stats();
+    return new CacheStatsSnapshot(cache.estimatedSize(), s.hitCount(), s.missCount(),
+        s.hitRate(), s.evictionCount(), invalidations);
+  }
+}
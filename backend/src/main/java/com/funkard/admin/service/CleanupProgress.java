@@ -0,0 +1,52 @@
+package com.funkard.admin.service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Stato (immutabile) del job di cleanup, esposto da GET /cleanup/status.
+ *
+ * @param lastId ultimo id eliminato: punto di ripresa del job
+ * @param error  messaggio di errore se il job si è fermato prima della fine
+ */
+public record CleanupProgress(
+    boolean running,
+    boolean finished,
+    int olderThanDays,
+    Instant cutoff,
+    long lastId,
+    long deleted,
+    int chunks,
+    Instant startedAt,
+    Instant finishedAt,
+    String error) {
+
+  static final CleanupProgress IDLE =
+      new CleanupProgress(false, true, 0, null, 0L, 0L, 0, null, null, null);
+
+  static CleanupProgress start(int days, Instant cutoff, long resumeFrom) {
+    return new CleanupProgress(true, false, days, cutoff, resumeFrom, 0L, 0, Instant.now(), null, null);
+  }
+
+  CleanupProgress advance(long lastId, int deletedInChunk) {
+    return new CleanupProgress(true, false, olderThanDays, cutoff, lastId,
+        deleted + deletedInChunk, chunks + 1, startedAt, null, null);
+  }
+
+  CleanupProgress finish(String error) {
+    return new CleanupProgress(false, error == null, olderThanDays, cutoff, lastId,
+        deleted, chunks, startedAt, Instant.now(), error);
+  }
+
+  /**
+   * Righe eliminate al secondo dall'avvio
+   */
+  public double rowsPerSecond() {
+    if (startedAt == null) {
+      return 0;
+    }
+    Instant end = finishedAt != null ? finishedAt : Instant.now();
+    long ms = Math.max(1, Duration.between(startedAt, end).toMillis());
+    return deleted * 1000.0 / ms;
+  }
+}
@@ -0,0 +1,97 @@
+package com.funkard.admin.service;
+
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Ordina i commit rispetto al riallineamento di un contatore in memoria.
+ *
+ * Un contatore aggiornato dagli eventi dopo il commit e riallineato con
+ * "copia, query, differenza" conterebbe due volte un evento già committato
+ * (quindi visto dalla query) il cui listener gira dopo la copia. Con il gate
+ * una transazione che pubblica eventi tiene il lato lettura dal beforeCommit
+ * fino a dopo i listener afterCommit, e il riallineamento gira in
+ * {@link #exclusive}: non esiste mai un commit visibile alla query con il
+ * delta non ancora applicato.
+ *
+ * I listener AFTER_COMMIT girano nell'afterCompletion delle synchronization,
+ * ordinate per @Order: quelli del contatore vanno annotati con
+ * {@link #LISTENER_ORDER}, così il gate si libera sempre dopo di loro.
+ *
+ * Gli eventi pubblicati senza transazione non passano dal gate: il loro
+ * commit è già avvenuto e il delta arriva come prima.
+ */
+public final class CommitGate {
+
+  /** @Order dei listener transazionali che aggiornano un contatore col gate */
+  public static final int LISTENER_ORDER = Ordered.LOWEST_PRECEDENCE - 1;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /**
+   * Iscrive la transazione corrente al gate (una volta sola per transazione);
+   * da chiamare quando pubblica un evento che aggiorna il contatore
+   */
+  public void enter() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+      if (s instanceof Hold hold && hold.gate() == this) {
+        return;
+      }
+    }
+    TransactionSynchronizationManager.registerSynchronization(new Hold());
+  }
+
+  /**
+   * Esegue il riallineamento senza commit in corso: attende quelli già
+   * entrati e trattiene i nuovi fino alla fine.
+   * Chi lo chiama deve avere già la connessione, altrimenti con il pool
+   * occupato da transazioni ferme nel beforeCommit resterebbe in attesa.
+   */
+  public <T> T exclusive(Supplier<T> action) {
+    lock.writeLock().lock();
+    try {
+      return action.get();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * beforeCommit e afterCompletion girano sullo stesso thread; con ordine
+   * LOWEST_PRECEDENCE l'afterCompletion viene dopo i listener con LISTENER_ORDER
+   */
+  private final class Hold implements TransactionSynchronization {
+
+    private boolean held;
+
+    CommitGate gate() {
+      return CommitGate.this;
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      lock.readLock().lock();
+      held = true;
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      if (held) {
+        held = false;
+        lock.readLock().unlock();
+      }
+    }
+
+    @Override
+    public int getOrder() {
+      return Ordered.LOWEST_PRECEDENCE;
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package com.funkard.admin.service;
+
+import java.util.List;
+
+/**
+ * Pagina keyset per infinite scroll.
+ *
+ * @param items      elementi della pagina
+ * @param nextCursor token opaco da passare come ?cursor= per la pagina successiva (null se finita)
+ * @param hasMore    true se esistono altri elementi dopo questa pagina
+ */
+public record CursorPage<T>(List<T> items, String nextCursor, boolean hasMore) {}
@@ -0,0 +1,128 @@
+package com.funkard.admin.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.funkard.admin.repository.NotificationActionBatchWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Migrazione una tantum della vecchia colonna JSON admin_notifications.history
+ * verso admin_notification_actions.
+ *
+ * Lavora a blocchi di CHUNK righe, ognuno nella propria transazione: le voci
+ * vengono inserite e la colonna history azzerata, quindi la migrazione è
+ * idempotente e riprende da dove si era fermata. Un JSON illeggibile non
+ * viene perso: finisce come voce "legacy" con il testo originale in note.
+ */
+@Component
+public class LegacyHistoryMigration {
+
+  private static final Logger log = LoggerFactory.getLogger(LegacyHistoryMigration.class);
+  static final int CHUNK = 500;
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final NotificationActionBatchWriter writer;
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final boolean enabled;
+
+  public LegacyHistoryMigration(JdbcTemplate jdbc,
+                                TransactionTemplate tx,
+                                NotificationActionBatchWriter writer,
+                                @Value("${funkard.admin.history-migration.enabled:true}") boolean enabled) {
+    this.jdbc = jdbc;
+    this.tx = tx;
+    this.writer = writer;
+    this.enabled = enabled;
+  }
+
+  /**
+   * Prima di NotificationArchiveBackfill, che copia le righe senza history
+   */
+  @Order(2)
+  @EventListener(ApplicationReadyEvent.class)
+  public void migrate() {
+    if (!enabled) {
+      return;
+    }
+    long migrated = 0;
+    try {
+      Integer done;
+      while ((done = tx.execute(status -> migrateChunk())) != null && done > 0) {
+        migrated += done;
+      }
+    } catch (BadSqlGrammarException e) {
+      // schema nuovo senza colonna history: niente da migrare
+      log.debug("Colonna history assente, migrazione storico saltata");
+      return;
+    }
+    if (migrated > 0) {
+      log.info("Storico JSON migrato in admin_notification_actions per {} notifiche", migrated);
+    }
+  }
+
+  private int migrateChunk() {
+    List<Map<String, Object>> rows = jdbc.queryForList(
+        "select id, history from admin_notifications where history is not null order by id limit " + CHUNK);
+    if (rows.isEmpty()) {
+      return 0;
+    }
+
+    List<NotificationActionBatchWriter.Row> actions = new ArrayList<>();
+    List<Object[]> cleared = new ArrayList<>(rows.size());
+    for (Map<String, Object> row : rows) {
+      Long id = ((Number) row.get("id")).longValue();
+      String history = (String) row.get("history");
+      actions.addAll(parse(id, history));
+      cleared.add(new Object[] {id});
+    }
+
+    writer.append(actions);
+    jdbc.batchUpdate("update admin_notifications set history = null where id = ?", cleared);
+    return rows.size();
+  }
+
+  private List<NotificationActionBatchWriter.Row> parse(Long id, String history) {
+    List<NotificationActionBatchWriter.Row> out = new ArrayList<>();
+    if (history.isBlank()) {
+      return out;
+    }
+    try {
+      List<Map<String, Object>> entries = mapper.readValue(history, new TypeReference<>() {});
+      for (Map<String, Object> e : entries) {
+        out.add(new NotificationActionBatchWriter.Row(
+            id,
+            String.valueOf(e.getOrDefault("user", "admin")),
+            String.valueOf(e.getOrDefault("action", "legacy")),
+            parseInstant(e.get("at")),
+            e.get("note") != null ? String.valueOf(e.get("note")) : null));
+      }
+    } catch (Exception e) {
+      out.clear();
+      out.add(new NotificationActionBatchWriter.Row(id, "system", "legacy", Instant.now(), history));
+    }
+    return out;
+  }
+
+  private static Instant parseInstant(Object raw) {
+    try {
+      return raw != null ? Instant.parse(raw.toString()) : Instant.EPOCH;
+    } catch (RuntimeException e) {
+      return Instant.EPOCH;
+    }
+  }
+}
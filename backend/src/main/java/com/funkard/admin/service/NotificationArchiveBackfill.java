@@ -0,0 +1,63 @@
+package com.funkard.admin.service;
+
+import com.funkard.admin.repository.NotificationArchiveWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Sposta nell'archivio le notifiche archiviate rimaste nella tabella calda
+ * (righe precedenti all'introduzione di admin_notifications_archive).
+ *
+ * Lavora a blocchi di CHUNK righe, ognuno nella propria transazione;
+ * è idempotente e dopo il primo avvio non trova più nulla da spostare.
+ * Gira dopo LegacyHistoryMigration: l'archivio non ha la vecchia colonna
+ * history, che andrebbe persa con l'eliminazione dalla tabella calda.
+ */
+@Component
+public class NotificationArchiveBackfill {
+
+  private static final Logger log = LoggerFactory.getLogger(NotificationArchiveBackfill.class);
+  static final int CHUNK = 500;
+
+  private final NotificationArchiveWriter writer;
+  private final TransactionTemplate tx;
+  private final boolean enabled;
+
+  public NotificationArchiveBackfill(NotificationArchiveWriter writer,
+                                     TransactionTemplate tx,
+                                     @Value("${funkard.admin.archive-backfill.enabled:true}") boolean enabled) {
+    this.writer = writer;
+    this.tx = tx;
+    this.enabled = enabled;
+  }
+
+  @Order(3)
+  @EventListener(ApplicationReadyEvent.class)
+  public void backfill() {
+    if (!enabled) {
+      return;
+    }
+    long moved = 0;
+    Integer done;
+    while ((done = tx.execute(status -> moveChunk())) != null && done > 0) {
+      moved += done;
+    }
+    if (moved > 0) {
+      log.info("Spostate {} notifiche archiviate in admin_notifications_archive", moved);
+    }
+  }
+
+  private int moveChunk() {
+    List<Long> ids = writer.findArchivedInHot(CHUNK);
+    return ids.isEmpty() ? 0 : writer.move(ids, "system", Instant.now());
+  }
+}
@@ -0,0 +1,107 @@
+package com.funkard.admin.service;
+
+import com.funkard.admin.model.AdminNotification;
+import com.funkard.admin.repository.AdminNotificationRepository;
+import com.funkard.admin.sse.AdminNotificationBulkEvent;
+import com.funkard.admin.sse.AdminNotificationEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache read-through per GET /api/admin/notifications/{id}.
+ *
+ * Limitata per numero di voci e con TTL. Le scritture non passano mai dalla
+ * cache (il service rilegge dal repository): l'invalidazione avviene per id
+ * dopo il commit, dagli stessi eventi che alimentano SSE e UnreadCounter.
+ * Le notifiche inesistenti non vengono memorizzate.
+ */
+@Component
+public class NotificationCache {
+
+  private final AdminNotificationRepository repo;
+  private final Cache<Long, AdminNotification> cache;
+  private final AtomicLong invalidations = new AtomicLong();
+  private final AtomicLong generation = new AtomicLong(); // +1 a ogni invalidazione
+
+  public NotificationCache(AdminNotificationRepository repo,
+                           @Value("${funkard.admin.cache.max-size:10000}") long maxSize,
+                           @Value("${funkard.admin.cache.ttl-ms:300000}") long ttlMs,
+                           MeterRegistry registry) {
+    this.repo = repo;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofMillis(ttlMs))
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(registry, cache, "admin_notifications");
+  }
+
+  /**
+   * La query gira fuori dalla cache: con cache.get(id, loader) il loader
+   * tiene il lock (synchronized) di ConcurrentHashMap e con i virtual thread
+   * bloccherebbe il carrier per tutta la query. Se nel frattempo arriva
+   * un'invalidazione, il valore letto viene scartato.
+   */
+  public Optional<AdminNotification> get(Long id) {
+    AdminNotification cached = cache.getIfPresent(id);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+    long seen = generation.get();
+    Optional<AdminNotification> loaded = repo.findById(id);
+    loaded.ifPresent(n -> {
+      cache.put(id, n);
+      if (generation.get() != seen) {
+        cache.invalidate(id);
+      }
+    });
+    return loaded;
+  }
+
+  public void evict(Long id) {
+    invalidations.incrementAndGet();
+    generation.incrementAndGet();
+    cache.invalidate(id);
+  }
+
+  public void evictAll(Collection<Long> ids) {
+    invalidations.addAndGet(ids.size());
+    generation.incrementAndGet();
+    cache.invalidateAll(ids);
+  }
+
+  public CacheStatsSnapshot stats() {
+    return CacheStatsSnapshot.of(cache, invalidations.get());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onNotificationEvent(AdminNotificationEvent event) {
+    if (!AdminNotificationEvent.CREATED.equals(event.action())) {
+      evict(event.id());
+    }
+  }
+
+  /**
+   * Oltre MAX_IDS l'evento non porta gli id: si svuota l'intera cache
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBulkEvent(AdminNotificationBulkEvent event) {
+    if (event.ids() == null || event.count() > event.ids().size()) {
+      invalidations.addAndGet(cache.estimatedSize());
+      generation.incrementAndGet();
+      cache.invalidateAll();
+    } else {
+      evictAll(event.ids());
+    }
+  }
+}
@@ -0,0 +1,219 @@
+package com.funkard.admin.service;
+
+import com.funkard.admin.model.CleanupJobState;
+import com.funkard.admin.repository.AdminNotificationActionRepository;
+import com.funkard.admin.repository.AdminNotificationArchiveRepository;
+import com.funkard.admin.repository.CleanupJobStateRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cleanup in background delle notifiche archiviate (admin_notifications_archive).
+ *
+ * Cancella a blocchi di id crescenti (chunk-size righe per transazione) con
+ * DELETE JPQL bulk, senza caricare entity. Tra un blocco e l'altro rispetta il
+ * limite rows-per-second. Il cursore sull'ultimo id cancellato rende il job
+ * ripartibile: una nuova richiesta con lo stesso limite riprende da lì.
+ *
+ * Lo stato è salvato in admin_cleanup_jobs nella stessa transazione di ogni
+ * blocco. Se il processo si ferma a metà job, al riavvio il job riprende
+ * dall'ultimo blocco eliminato con lo stesso cutoff.
+ */
+@Component
+public class NotificationCleanupJob {
+
+  private static final Logger log = LoggerFactory.getLogger(NotificationCleanupJob.class);
+
+  static final String JOB = "notification-archive";
+
+  private final AdminNotificationArchiveRepository archive;
+  private final AdminNotificationActionRepository actions;
+  private final CleanupJobStateRepository state;
+  private final TransactionTemplate tx;
+  private final NotificationMetrics metrics;
+  private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+    Thread t = new Thread(r, "notification-cleanup");
+    t.setDaemon(true);
+    return t;
+  });
+  private final AtomicReference<CleanupProgress> progress = new AtomicReference<>(CleanupProgress.IDLE);
+
+  private final int chunkSize;
+  private final int rowsPerSecond;
+  private final int retentionDays;
+
+  public NotificationCleanupJob(AdminNotificationArchiveRepository archive,
+                                AdminNotificationActionRepository actions,
+                                CleanupJobStateRepository state,
+                                TransactionTemplate tx,
+                                NotificationMetrics metrics,
+                                @Value("${funkard.admin.cleanup.chunk-size:500}") int chunkSize,
+                                @Value("${funkard.admin.cleanup.rows-per-second:2000}") int rowsPerSecond,
+                                @Value("${funkard.admin.cleanup.retention-days:30}") int retentionDays) {
+    this.archive = archive;
+    this.actions = actions;
+    this.state = state;
+    this.tx = tx;
+    this.metrics = metrics;
+    this.chunkSize = chunkSize;
+    this.rowsPerSecond = rowsPerSecond;
+    this.retentionDays = retentionDays;
+  }
+
+  /**
+   * Accoda il cleanup delle archiviate risolte da più di N giorni.
+   * Se un job è già in corso restituisce il suo stato senza avviarne un altro.
+   */
+  public synchronized CleanupProgress enqueue(int days) {
+    CleanupProgress current = progress.get();
+    if (current.running()) {
+      return current;
+    }
+    Instant cutoff = Instant.now().minusSeconds(days * 24L * 3600L);
+    // stesso periodo di un job interrotto: riparte dall'ultimo id
+    long resumeFrom = current.olderThanDays() == days && !current.finished() ? current.lastId() : 0L;
+    CleanupProgress started = CleanupProgress.start(days, cutoff, resumeFrom);
+    save(started);
+    progress.set(started);
+    worker.execute(() -> run(started));
+    return started;
+  }
+
+  /**
+   * All'avvio ricarica l'ultimo stato salvato; un job rimasto "running"
+   * (processo fermato a metà) riprende dal suo cursore.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void restore() {
+    CleanupProgress saved = state.findById(JOB).map(NotificationCleanupJob::toProgress).orElse(null);
+    if (saved == null || progress.get().running()) {
+      return;
+    }
+    if (!saved.running()) {
+      progress.set(saved);
+      return;
+    }
+    CleanupProgress resumed = CleanupProgress.start(saved.olderThanDays(), saved.cutoff(), saved.lastId());
+    log.info("Cleanup notifiche interrotto dal riavvio: riprende dopo l'id {}", saved.lastId());
+    save(resumed);
+    progress.set(resumed);
+    worker.execute(() -> run(resumed));
+  }
+
+  public CleanupProgress progress() {
+    return progress.get();
+  }
+
+  /**
+   * Cleanup automatico giornaliero. Vale anche con l'archivio partizionato:
+   * PartitionManager elimina solo le partizioni con tutte le righe già scadute
+   */
+  @Scheduled(cron = "${funkard.admin.cleanup.cron:0 30 3 * * *}")
+  public void scheduled() {
+    enqueue(retentionDays);
+  }
+
+  private void run(CleanupProgress start) {
+    CleanupProgress p = start;
+    try {
+      while (true) {
+        long chunkStart = System.nanoTime();
+        long after = p.lastId();
+        List<Long> ids = archive.findIdsResolvedBefore(p.cutoff(), after, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+          break;
+        }
+
+        long from = ids.get(0);
+        long to = ids.get(ids.size() - 1);
+        CleanupProgress current = p;
+        // cursore salvato insieme alle DELETE: avanza solo se il blocco è committato
+        CleanupProgress next = tx.execute(status -> {
+          actions.deleteByNotificationIds(ids);
+          CleanupProgress advanced = current.advance(to, archive.deleteResolvedInRange(from, to, start.cutoff()));
+          save(advanced);
+          return advanced;
+        });
+
+        metrics.cleanupDeleted((int) (next.deleted() - current.deleted()));
+        p = next;
+        progress.set(p);
+        throttle(ids.size(), chunkStart);
+      }
+      finish(p.finish(null));
+      log.info("Cleanup notifiche completato: {} eliminate in {} blocchi", p.deleted(), p.chunks());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      // stato salvato ancora "running": al prossimo avvio il job riprende
+      progress.set(p.finish("interrotto"));
+    } catch (RuntimeException e) {
+      log.error("Cleanup notifiche fallito dopo {} righe (ultimo id {})", p.deleted(), p.lastId(), e);
+      finish(p.finish(e.getMessage()));
+    }
+  }
+
+  private void finish(CleanupProgress done) {
+    progress.set(done);
+    try {
+      save(done);
+    } catch (DataAccessException e) {
+      log.warn("Stato cleanup non salvato: {}", e.getMostSpecificCause().getMessage());
+    }
+  }
+
+  private void save(CleanupProgress p) {
+    CleanupJobState row = state.findById(JOB).orElseGet(() -> new CleanupJobState(JOB));
+    row.setRunning(p.running());
+    row.setFinished(p.finished());
+    row.setOlderThanDays(p.olderThanDays());
+    row.setCutoff(p.cutoff());
+    row.setLastId(p.lastId());
+    row.setDeleted(p.deleted());
+    row.setChunks(p.chunks());
+    row.setStartedAt(p.startedAt());
+    row.setFinishedAt(p.finishedAt());
+    row.setError(p.error() != null && p.error().length() > 500 ? p.error().substring(0, 500) : p.error());
+    row.setUpdatedAt(Instant.now());
+    state.save(row);
+  }
+
+  private static CleanupProgress toProgress(CleanupJobState row) {
+    return new CleanupProgress(row.isRunning(), row.isFinished(), row.getOlderThanDays(), row.getCutoff(),
+        row.getLastId(), row.getDeleted(), row.getChunks(), row.getStartedAt(), row.getFinishedAt(),
+        row.getError());
+  }
+
+  /**
+   * Attende quanto serve per restare sotto rows-per-second
+   */
+  private void throttle(int rows, long chunkStartNanos) throws InterruptedException {
+    if (rowsPerSecond <= 0) {
+      return;
+    }
+    long budgetMs = rows * 1000L / rowsPerSecond;
+    long elapsedMs = (System.nanoTime() - chunkStartNanos) / 1_000_000L;
+    if (budgetMs > elapsedMs) {
+      Thread.sleep(budgetMs - elapsedMs);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    worker.shutdownNow();
+  }
+}
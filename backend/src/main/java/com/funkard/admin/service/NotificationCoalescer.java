@@ -0,0 +1,156 @@
+package com.funkard.admin.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicazione delle notifiche a raffica.
+ *
+ * Tiene in una LRU limitata le chiavi (type, priority, title) o i fingerprint
+ * forniti dal chiamante, con l'id della riga creata e l'inizio della finestra.
+ * Una ripetizione entro window-ms non crea una nuova riga: diventa un
+ * incremento di occurrences/last_seen_at sulla riga esistente. La ricerca non
+ * legge mai il DB.
+ *
+ * Tra plan() e remember() c'è l'insert: due flush concorrenti potrebbero
+ * pianificare entrambi una nuova riga per la stessa chiave. Per questo plan()
+ * si può chiamare solo dentro serialized(), che tiene un lock per tutto il
+ * flush (plan, insert, remember/forget).
+ */
+@Component
+public class NotificationCoalescer {
+
+  private final long windowMs;
+  private final Map<String, Recent> recent; // LRU, accesso solo sotto lock
+  private final ReentrantLock lock = new ReentrantLock();
+  private final AtomicLong coalesced = new AtomicLong();
+  private final ReentrantLock flushLock = new ReentrantLock();
+
+  public NotificationCoalescer(@Value("${funkard.admin.dedup.window-ms:60000}") long windowMs,
+                               @Value("${funkard.admin.dedup.lru-size:10000}") int lruSize) {
+    this.windowMs = windowMs;
+    this.recent = new LinkedHashMap<>(Math.min(lruSize, 1024), 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Recent> eldest) {
+        return size() > lruSize;
+      }
+    };
+  }
+
+  /**
+   * Divide un batch in nuove righe e incrementi di righe recenti.
+   * Le richieste con la stessa chiave nello stesso batch diventano una sola riga.
+   */
+  Plan plan(List<NotificationRequest> batch) {
+    if (!flushLock.isHeldByCurrentThread()) {
+      throw new IllegalStateException("plan() fuori da serialized()");
+    }
+    Map<String, List<NotificationRequest>> groups = new LinkedHashMap<>();
+    for (NotificationRequest r : batch) {
+      groups.computeIfAbsent(r.dedupKey(), k -> new ArrayList<>()).add(r);
+    }
+
+    List<Insert> inserts = new ArrayList<>();
+    List<Increment> increments = new ArrayList<>();
+    // un solo lock per tutto il batch: le ricerche vedono la stessa LRU
+    lock.lock();
+    try {
+      for (Map.Entry<String, List<NotificationRequest>> g : groups.entrySet()) {
+        List<NotificationRequest> requests = g.getValue();
+        NotificationRequest first = requests.get(0);
+        Instant lastSeen = requests.get(requests.size() - 1).createdAt();
+        Recent hit = lookup(g.getKey(), first.createdAt());
+        if (hit != null) {
+          increments.add(new Increment(g.getKey(), hit.id(), first, requests.size(), lastSeen));
+        } else {
+          inserts.add(new Insert(g.getKey(), first, requests.size(), lastSeen));
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    return new Plan(inserts, increments);
+  }
+
+  /**
+   * Registra la riga appena creata come destinazione delle ripetizioni
+   */
+  void remember(String key, long id, Instant windowStart) {
+    lock.lock();
+    try {
+      recent.put(key, new Recent(id, windowStart));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  void forget(String key) {
+    lock.lock();
+    try {
+      recent.remove(key);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Esegue un flush completo (plan, insert, remember) escludendo gli altri flush
+   */
+  <T> T serialized(Supplier<T> flush) {
+    flushLock.lock();
+    try {
+      return flush.get();
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  void countCoalesced(long n) {
+    coalesced.addAndGet(n);
+  }
+
+  /**
+   * Ripetizioni assorbite senza creare nuove righe
+   */
+  public long coalescedCount() {
+    return coalesced.get();
+  }
+
+  /**
+   * Sotto lock
+   */
+  private Recent lookup(String key, Instant at) {
+    Recent r = recent.get(key);
+    if (r == null) {
+      return null;
+    }
+    if (at.toEpochMilli() - r.windowStart().toEpochMilli() > windowMs) {
+      recent.remove(key);
+      return null;
+    }
+    return r;
+  }
+
+  private record Recent(long id, Instant windowStart) {}
+
+  record Plan(List<Insert> inserts, List<Increment> increments) {}
+
+  /**
+   * Nuova riga che rappresenta {@code occurrences} richieste identiche
+   */
+  record Insert(String key, NotificationRequest request, int occurrences, Instant lastSeenAt) {}
+
+  /**
+   * Ripetizioni da sommare alla riga {@code id}
+   */
+  record Increment(String key, long id, NotificationRequest request, int count, Instant lastSeenAt) {}
+}
@@ -0,0 +1,36 @@
+package com.funkard.admin.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Posizione keyset (createdAt, id) codificata come token opaco base64url.
+ * Stabile anche con inserimenti concorrenti: la pagina successiva parte
+ * sempre dall'ultima riga vista, senza OFFSET.
+ */
+record NotificationCursor(Instant createdAt, long id) {
+
+  /** Prima pagina: precede qualsiasi riga reale */
+  static final NotificationCursor START = new NotificationCursor(Instant.EPOCH, 0L);
+
+  String encode() {
+    String raw = createdAt.getEpochSecond() + ":" + createdAt.getNano() + ":" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  static NotificationCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      return START;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      String[] parts = raw.split(":");
+      return new NotificationCursor(
+          Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])),
+          Long.parseLong(parts[2]));
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Cursor non valido: " + token);
+    }
+  }
+}
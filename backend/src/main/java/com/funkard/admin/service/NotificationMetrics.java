@@ -0,0 +1,131 @@
+package com.funkard.admin.service;
+
+import com.funkard.admin.sse.AdminNotificationBroadcaster;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metriche del modulo notifiche.
+ *
+ * Le latenze dei metodi arrivano da @Timed sui service (SERVICE_TIMER e
+ * funkard.support.service); qui stanno le righe restituite, il cleanup e i
+ * gauge letti dai componenti in memoria (non lette, client SSE, pipeline).
+ */
+@Component
+public class NotificationMetrics {
+
+  public static final String SERVICE_TIMER = "funkard.admin.notifications.service";
+  public static final List<String> LATENCY_TIMERS = List.of(SERVICE_TIMER, "funkard.support.service");
+
+  private final MeterRegistry registry;
+  private final Counter cleanupDeleted;
+
+  public NotificationMetrics(MeterRegistry registry,
+                             UnreadCounter unread,
+                             AdminNotificationBroadcaster broadcaster,
+                             NotificationPipeline pipeline,
+                             NotificationCoalescer coalescer) {
+    this.registry = registry;
+    this.cleanupDeleted = Counter.builder("funkard.notifications.cleanup.deleted")
+        .description("Notifiche archiviate eliminate dal cleanup")
+        .register(registry);
+
+    Gauge.builder("funkard.notifications.unread", unread, UnreadCounter::total)
+        .description("Notifiche attive non lette")
+        .register(registry);
+    Gauge.builder("funkard.sse.subscribers", broadcaster, AdminNotificationBroadcaster::getSubscriberCount)
+        .tag("stream", "notifications")
+        .register(registry);
+    FunctionCounter.builder("funkard.sse.evicted", broadcaster, AdminNotificationBroadcaster::getEvictedCount)
+        .tag("stream", "notifications")
+        .register(registry);
+
+    for (PriorityLane lane : PriorityLane.values()) {
+      Gauge.builder("funkard.notifications.pipeline.queued", pipeline, p -> p.queued(lane))
+          .tag("lane", lane.tag())
+          .register(registry);
+      FunctionCounter.builder("funkard.notifications.pipeline.deferred", pipeline, p -> p.deferred(lane))
+          .description("Richieste che hanno atteso il token per rate limit del tipo")
+          .tag("lane", lane.tag())
+          .register(registry);
+      FunctionCounter.builder("funkard.notifications.pipeline.dropped", pipeline, p -> p.dropped(lane))
+          .description("Richieste scartate a corsia piena o oltre max-delay-ms di rate limit (solo media e bassa)")
+          .tag("lane", lane.tag())
+          .register(registry);
+    }
+    FunctionCounter.builder("funkard.notifications.pipeline.inserted", pipeline, p -> p.stats().inserted())
+        .register(registry);
+    FunctionCounter.builder("funkard.notifications.pipeline.overflow", pipeline, p -> p.stats().overflow())
+        .register(registry);
+    FunctionCounter.builder("funkard.notifications.pipeline.failed", pipeline, p -> p.stats().failed())
+        .register(registry);
+    Gauge.builder("funkard.notifications.pipeline.parked", pipeline, p -> p.stats().parked())
+        .description("Richieste di batch falliti in attesa di retry")
+        .register(registry);
+    Gauge.builder("funkard.notifications.pipeline.throttled", pipeline, p -> p.stats().throttled())
+        .description("Richieste in attesa del token del loro tipo")
+        .register(registry);
+    FunctionCounter.builder("funkard.notifications.coalesced", coalescer, NotificationCoalescer::coalescedCount)
+        .register(registry);
+  }
+
+  /**
+   * Righe restituite da una lettura (list, filter, page, history, recent) o toccate da un bulk
+   */
+  void rows(String op, int count) {
+    DistributionSummary.builder("funkard.notifications.rows")
+        .tag("op", op)
+        .register(registry)
+        .record(count);
+  }
+
+  void cleanupDeleted(int count) {
+    cleanupDeleted.increment(count);
+  }
+
+  /**
+   * Percentili di latenza per metodo dei service, per la dashboard
+   */
+  public List<MethodLatency> latency() {
+    List<MethodLatency> out = new ArrayList<>();
+    for (String name : LATENCY_TIMERS) {
+      for (Timer t : registry.find(name).timers()) {
+        HistogramSnapshot s = t.takeSnapshot();
+        double p50 = 0, p95 = 0, p99 = 0;
+        for (ValueAtPercentile v : s.percentileValues()) {
+          double ms = v.value(TimeUnit.MILLISECONDS);
+          if (v.percentile() == 0.5) {
+            p50 = ms;
+          } else if (v.percentile() == 0.95) {
+            p95 = ms;
+          } else if (v.percentile() == 0.99) {
+            p99 = ms;
+          }
+        }
+        out.add(new MethodLatency(t.getId().getTag("class"), t.getId().getTag("method"),
+            t.getId().getTag("exception"), s.count(), s.mean(TimeUnit.MILLISECONDS),
+            p50, p95, p99, s.max(TimeUnit.MILLISECONDS)));
+      }
+    }
+    out.sort(Comparator.comparingDouble(MethodLatency::p95Ms).reversed());
+    return out;
+  }
+
+  /**
+   * Latenze in millisecondi; i percentili sono calcolati su una finestra mobile
+   */
+  public record MethodLatency(String service, String method, String exception, long count,
+                              double meanMs, double p50Ms, double p95Ms, double p99Ms, double maxMs) {}
+}
@@ -0,0 +1,496 @@
+package com.funkard.admin.service;
+
+import com.funkard.admin.model.AdminNotification;
+import com.funkard.admin.repository.NotificationBatchInserter;
+import com.funkard.admin.sse.AdminNotificationEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creazione notifiche asincrona e a batch.
+ *
+ * submit() accoda la richiesta solo dopo il commit della transazione del
+ * chiamante (es. SupportTicketService.create): il ticket non paga più l'insert
+ * della notifica. Un worker su virtual thread raccoglie fino a batch-size
+ * richieste (attendendo al massimo linger-ms) e le inserisce con un solo batch
+ * JDBC, poi pubblica gli eventi "created".
+ *
+ * Le ripetizioni (stessa chiave di NotificationCoalescer entro la finestra)
+ * non creano righe né eventi: incrementano occurrences della riga esistente.
+ *
+ * Priorità: una corsia limitata per priorità (PriorityLanes), svuotate sempre
+ * dalla più alta. Un batch che contiene una critica parte subito, senza
+ * linger. Ogni tipo ha un token bucket (TypeRateLimiter), applicato dal
+ * worker quando estrae la richiesta: oltre il limite la richiesta attende il
+ * suo token fuori dalle corsie (deferred) e viene inserita al ritmo del
+ * limite. Media e bassa che dovrebbero attendere più di max-delay-ms vengono
+ * scartate (dropped); alta attende sempre. Le critiche non sono mai limitate.
+ * In attesa del token ci sono al massimo capacity richieste per corsia:
+ * raggiunto il limite il worker smette di estrarre da quella corsia, che si
+ * riempie e passa all'overflow.
+ *
+ * Consegna at-least-once finché il processo è vivo: un batch fallito viene
+ * parcheggiato e ritentato dal worker con backoff esponenziale (fino a
+ * 30 s), senza limite di tentativi. A ogni fallimento il blocco ritentato si
+ * dimezza e torna in fondo, così una singola riga che fallisce sempre resta
+ * parcheggiata da sola senza fermare le altre.
+ *
+ * Se la corsia è piena, critica e alta vengono accodate comunque oltre la
+ * capacità (overflow): il chiamante non fa mai I/O, anche perché submit()
+ * gira in afterCommit, dove la transazione del ticket è già chiusa. L'alta
+ * arriva al massimo a una seconda capacità di overflow, poi viene scartata
+ * anche lei; la critica non ha limite. Media e bassa vengono scartate
+ * (dropped) perché sotto flood non occupino memoria.
+ * Gli insert usano una transazione propria (REQUIRES_NEW).
+ */
+@Component
+public class NotificationPipeline {
+
+  private static final Logger log = LoggerFactory.getLogger(NotificationPipeline.class);
+  private static final long RETRY_MIN_MS = 100;
+  private static final long RETRY_MAX_MS = 30_000;
+
+  private final NotificationBatchInserter inserter;
+  private final NotificationCoalescer coalescer;
+  private final NotificationCache cache;
+  private final TransactionTemplate tx;
+  private final ApplicationEventPublisher events;
+  private final PriorityLanes lanes;
+  private final TypeRateLimiter limiter;
+  private final int batchSize;
+  private final long lingerMs;
+  private final long maxDelayNanos;
+  private final int heldCapacity;
+
+  private final AtomicLong submitted = new AtomicLong();
+  private final AtomicLong inserted = new AtomicLong();
+  private final AtomicLong batches = new AtomicLong();
+  private final AtomicLong overflow = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final Map<PriorityLane, AtomicLong> deferred = counters();
+  private final Map<PriorityLane, AtomicLong> dropped = counters();
+  private final AtomicInteger throttled = new AtomicInteger();
+
+  // richieste in attesa del token del loro tipo, per istante di rilascio; solo worker
+  private final PriorityQueue<Held> held = new PriorityQueue<>(
+      Comparator.comparingLong(Held::releaseAt).thenComparing(Held::lane));
+  private final Map<PriorityLane, Integer> heldByLane = new EnumMap<>(PriorityLane.class);
+
+  // batch falliti in attesa di retry; li tocca solo il worker, size() anche stats()
+  private final LinkedBlockingDeque<NotificationRequest> parked = new LinkedBlockingDeque<>();
+  private long retryAt;
+  private long backoffMs = RETRY_MIN_MS;
+  private int retryChunk;
+
+  private volatile boolean running = true;
+  private Thread worker;
+
+  public NotificationPipeline(NotificationBatchInserter inserter,
+                              NotificationCoalescer coalescer,
+                              NotificationCache cache,
+                              PlatformTransactionManager txManager,
+                              ApplicationEventPublisher events,
+                              @Value("${funkard.admin.pipeline.capacity:10000}") int capacity,
+                              @Value("${funkard.admin.pipeline.critical-capacity:1000}") int criticalCapacity,
+                              @Value("${funkard.admin.pipeline.batch-size:200}") int batchSize,
+                              @Value("${funkard.admin.pipeline.linger-ms:20}") long lingerMs,
+                              @Value("${funkard.admin.pipeline.rate.per-second:20}") double ratePerSecond,
+                              @Value("${funkard.admin.pipeline.rate.burst:100}") double rateBurst,
+                              @Value("${funkard.admin.pipeline.rate.max-delay-ms:5000}") long maxDelayMs) {
+    this.inserter = inserter;
+    this.coalescer = coalescer;
+    this.cache = cache;
+    this.tx = new TransactionTemplate(txManager);
+    this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.events = events;
+    this.lanes = new PriorityLanes(criticalCapacity, capacity);
+    this.limiter = new TypeRateLimiter(ratePerSecond, rateBurst);
+    this.batchSize = batchSize;
+    this.lingerMs = lingerMs;
+    this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+    this.heldCapacity = Math.max(1, capacity);
+    this.retryChunk = batchSize;
+  }
+
+  @PostConstruct
+  void start() {
+    worker = Thread.ofVirtual().name("notification-pipeline").start(this::loop);
+  }
+
+  /**
+   * Accoda una notifica; con transazione attiva solo dopo il commit
+   */
+  public void submit(NotificationRequest request) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          enqueue(request);
+        }
+      });
+    } else {
+      enqueue(request);
+    }
+  }
+
+  public PipelineStats stats() {
+    int[] usage = lanes.usage();
+    Map<String, Integer> queuedByLane = new LinkedHashMap<>();
+    Map<String, Long> deferredByLane = new LinkedHashMap<>();
+    Map<String, Long> droppedByLane = new LinkedHashMap<>();
+    for (PriorityLane lane : PriorityLane.values()) {
+      queuedByLane.put(lane.tag(), lanes.size(lane));
+      deferredByLane.put(lane.tag(), deferred.get(lane).get());
+      droppedByLane.put(lane.tag(), dropped.get(lane).get());
+    }
+    return new PipelineStats(usage[0], usage[1],
+        submitted.get(), inserted.get(), coalescer.coalescedCount(), batches.get(), overflow.get(), failed.get(),
+        parked.size(), throttled.get(), queuedByLane, deferredByLane, droppedByLane);
+  }
+
+  int queued(PriorityLane lane) {
+    return lanes.size(lane);
+  }
+
+  long deferred(PriorityLane lane) {
+    return deferred.get(lane).get();
+  }
+
+  long dropped(PriorityLane lane) {
+    return dropped.get(lane).get();
+  }
+
+  /**
+   * Sul thread del chiamante: solo l'accodamento nella corsia della priorità,
+   * il rate limit lo applica il worker
+   */
+  private void enqueue(NotificationRequest request) {
+    submitted.incrementAndGet();
+    PriorityLane lane = PriorityLane.of(request.priority());
+    if (lanes.offer(lane, request)) {
+      return;
+    }
+    if (lane.neverDropped() && lanes.push(lane, request)) {
+      // corsia piena: oltre la capacità, ma l'insert resta al worker
+      overflow.incrementAndGet();
+    } else {
+      dropped.get(lane).incrementAndGet();
+      log.debug("Notifica {} scartata (corsia piena): {}", lane.tag(), request.title());
+    }
+  }
+
+  private void loop() {
+    List<NotificationRequest> batch = new ArrayList<>(batchSize);
+    while (running || !lanes.isEmpty()) {
+      try {
+        retryParked();
+        release(batch);
+        if (batch.isEmpty()) {
+          NotificationRequest first = lanes.poll(pollNanos(), TimeUnit.NANOSECONDS);
+          if (first == null || !admit(first, batch)) {
+            continue;
+          }
+        }
+        // una critica non aspetta il linger: parte con quello che c'è già in coda
+        boolean urgent = batch.stream().anyMatch(NotificationPipeline::critical);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        while (batch.size() < batchSize) {
+          // una alla volta: una corsia sospesa da admit() non viene più estratta
+          NotificationRequest r;
+          while (batch.size() < batchSize && (r = lanes.poll()) != null) {
+            urgent |= admit(r, batch) && critical(r);
+          }
+          long waitNanos = deadline - System.nanoTime();
+          if (urgent || batch.size() >= batchSize || waitNanos <= 0) {
+            break;
+          }
+          NotificationRequest next = lanes.poll(waitNanos, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          urgent = admit(next, batch) && critical(next);
+        }
+        flush(batch);
+      } catch (InterruptedException e) {
+        if (!running) {
+          // allo shutdown le richieste accodate vengono inserite senza rate limit
+          lanes.drainAll(batch);
+          flush(batch);
+          break;
+        }
+      } finally {
+        batch.clear();
+      }
+    }
+    List<NotificationRequest> rest = new ArrayList<>(held.size());
+    while (!held.isEmpty()) {
+      rest.add(held.poll().request());
+    }
+    heldByLane.clear();
+    throttled.set(0);
+    flush(rest);
+    // ultimo tentativo per i parcheggiati, poi sono persi col processo
+    retryAt = System.nanoTime();
+    retryChunk = Integer.MAX_VALUE;
+    retryParked();
+    if (!parked.isEmpty()) {
+      log.error("{} notifiche parcheggiate non inserite allo shutdown: {}", parked.size(), parked);
+    }
+  }
+
+  /**
+   * Rate limit del tipo. Entro il limite la richiesta entra nel batch,
+   * altrimenti attende il suo token in held oppure viene scartata.
+   *
+   * @return true se la richiesta è entrata nel batch
+   */
+  private boolean admit(NotificationRequest request, List<NotificationRequest> batch) {
+    PriorityLane lane = PriorityLane.of(request.priority());
+    if (lane == PriorityLane.CRITICA) {
+      batch.add(request);
+      return true;
+    }
+    long wait = limiter.reserve(request.type(), lane.neverDropped() ? Long.MAX_VALUE : maxDelayNanos);
+    if (wait == 0) {
+      batch.add(request);
+      return true;
+    }
+    if (wait == TypeRateLimiter.REJECTED) {
+      dropped.get(lane).incrementAndGet();
+      log.debug("Notifica {} scartata (tipo {} oltre il limite): {}", lane.tag(), request.type(), request.title());
+      return false;
+    }
+    deferred.get(lane).incrementAndGet();
+    throttled.incrementAndGet();
+    held.add(new Held(System.nanoTime() + wait, lane, request));
+    if (heldByLane.merge(lane, 1, Integer::sum) >= heldCapacity) {
+      lanes.pause(lane, true);
+    }
+    return false;
+  }
+
+  /**
+   * Sposta nel batch le richieste il cui token è maturato
+   */
+  private void release(List<NotificationRequest> batch) {
+    long now = System.nanoTime();
+    while (batch.size() < batchSize && !held.isEmpty() && held.peek().releaseAt() - now <= 0) {
+      Held h = held.poll();
+      batch.add(h.request());
+      throttled.decrementAndGet();
+      if (heldByLane.merge(h.lane(), -1, Integer::sum) < heldCapacity) {
+        lanes.pause(h.lane(), false);
+      }
+    }
+  }
+
+  private static boolean critical(NotificationRequest request) {
+    return PriorityLane.of(request.priority()) == PriorityLane.CRITICA;
+  }
+
+  /**
+   * Attesa massima sulle corsie: non oltre il prossimo retry dei parcheggiati
+   * né il prossimo token maturato
+   */
+  private long pollNanos() {
+    long now = System.nanoTime();
+    long wait = TimeUnit.SECONDS.toNanos(1);
+    if (!parked.isEmpty()) {
+      wait = Math.min(wait, retryAt - now);
+    }
+    if (!held.isEmpty()) {
+      wait = Math.min(wait, held.peek().releaseAt() - now);
+    }
+    return Math.max(0, wait);
+  }
+
+  /**
+   * Ritenta un blocco di parcheggiati se il backoff è scaduto
+   */
+  private void retryParked() {
+    if (parked.isEmpty() || retryAt - System.nanoTime() > 0) {
+      return;
+    }
+    List<NotificationRequest> retry = new ArrayList<>(Math.min(retryChunk, parked.size()));
+    parked.drainTo(retry, retryChunk);
+    if (insert(retry)) {
+      backoffMs = RETRY_MIN_MS;
+      retryChunk = batchSize;
+      return;
+    }
+    parked.addAll(retry);
+    retryChunk = Math.max(1, retryChunk / 2);
+    backoffMs = Math.min(RETRY_MAX_MS, backoffMs * 2);
+    retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs);
+  }
+
+  /**
+   * Inserisce il batch; se fallisce lo parcheggia per il retry
+   */
+  private void flush(List<NotificationRequest> batch) {
+    if (batch.isEmpty() || insert(batch)) {
+      return;
+    }
+    boolean first = parked.isEmpty();
+    parked.addAll(batch);
+    if (first) {
+      retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs);
+    }
+  }
+
+  /**
+   * Scrittura sincrona di una singola richiesta, con la stessa deduplicazione
+   * dei batch: una ripetizione entro la finestra incrementa occurrences della
+   * riga esistente invece di crearne una nuova. Non passa dalle corsie né dal
+   * rate limit; un errore arriva al chiamante.
+   *
+   * @return id della riga creata o incrementata
+   */
+  long writeNow(NotificationRequest request) {
+    Written written = coalescer.serialized(() -> {
+      Written w = tx.execute(status -> publish(write(coalescer.plan(List.of(request)))));
+      if (!w.saved().isEmpty()) {
+        AdminNotification n = w.saved().get(0);
+        coalescer.remember(w.keys().get(0), n.getId(), n.getCreatedAt());
+      }
+      return w;
+    });
+    if (written.saved().isEmpty()) {
+      coalescer.countCoalesced(1);
+      cache.evictAll(written.incremented());
+      return written.incremented().get(0);
+    }
+    inserted.incrementAndGet();
+    return written.saved().get(0).getId();
+  }
+
+  /**
+   * Inserisce il batch in una transazione nuova e pubblica gli eventi
+   *
+   * @return false se l'insert è fallito (nessuna riga scritta)
+   */
+  private boolean insert(List<NotificationRequest> batch) {
+    try {
+      // plan, insert e remember sotto lo stesso lock: nessun altro flush vede
+      // la chiave ancora senza riga e ne crea una seconda
+      Written written = coalescer.serialized(() -> {
+        Written w = tx.execute(status -> publish(write(coalescer.plan(batch))));
+        for (int i = 0; i < w.saved().size(); i++) {
+          AdminNotification n = w.saved().get(i);
+          coalescer.remember(w.keys().get(i), n.getId(), n.getCreatedAt());
+        }
+        return w;
+      });
+      batches.incrementAndGet();
+      inserted.addAndGet(written.saved().size());
+      coalescer.countCoalesced(batch.size() - written.saved().size());
+      // le ripetizioni non pubblicano eventi: occurrences va invalidato qui
+      cache.evictAll(written.incremented());
+      return true;
+    } catch (RuntimeException e) {
+      failed.addAndGet(batch.size());
+      log.warn("Insert batch notifiche fallito ({} righe, {} già parcheggiate)", batch.size(), parked.size(), e);
+      return false;
+    }
+  }
+
+  /**
+   * Applica prima gli incrementi; quelli che non trovano più la riga attiva
+   * (archiviata o eliminata) diventano nuovi insert.
+   */
+  private Written write(NotificationCoalescer.Plan plan) {
+    List<NotificationCoalescer.Increment> increments = plan.increments();
+    int[] updated = inserter.incrementOccurrences(increments.stream()
+        .map(i -> new NotificationBatchInserter.Increment(i.id(), i.count(), i.lastSeenAt()))
+        .toList());
+
+    List<Long> incremented = new ArrayList<>();
+    List<String> keys = new ArrayList<>();
+    List<NotificationBatchInserter.Row> rows = new ArrayList<>();
+    for (NotificationCoalescer.Insert i : plan.inserts()) {
+      keys.add(i.key());
+      rows.add(row(i.request(), i.occurrences(), i.lastSeenAt()));
+    }
+    for (int k = 0; k < increments.size(); k++) {
+      NotificationCoalescer.Increment i = increments.get(k);
+      if (updated[k] == 0) {
+        coalescer.forget(i.key());
+        keys.add(i.key());
+        rows.add(row(i.request(), i.count(), i.lastSeenAt()));
+      } else {
+        incremented.add(i.id());
+      }
+    }
+    return new Written(incremented, keys, inserter.insert(rows));
+  }
+
+  /**
+   * Eventi "created" pubblicati dentro la transazione dell'insert: i listener
+   * girano dopo il suo commit (e non girano se fallisce)
+   */
+  private Written publish(Written written) {
+    for (AdminNotification n : written.saved()) {
+      events.publishEvent(AdminNotificationEvent.of(AdminNotificationEvent.CREATED, n));
+    }
+    return written;
+  }
+
+  private static NotificationBatchInserter.Row row(NotificationRequest r, int occurrences, Instant lastSeenAt) {
+    return new NotificationBatchInserter.Row(r.type(), r.priority(), r.title(), r.message(),
+        r.createdAt(), occurrences, lastSeenAt);
+  }
+
+  private static Map<PriorityLane, AtomicLong> counters() {
+    Map<PriorityLane, AtomicLong> out = new EnumMap<>(PriorityLane.class);
+    for (PriorityLane lane : PriorityLane.values()) {
+      out.put(lane, new AtomicLong());
+    }
+    return out;
+  }
+
+  private record Written(List<Long> incremented, List<String> keys, List<AdminNotification> saved) {}
+
+  private record Held(long releaseAt, PriorityLane lane, NotificationRequest request) {}
+
+  @PreDestroy
+  void stop() throws InterruptedException {
+    running = false;
+    worker.interrupt();
+    worker.join(TimeUnit.SECONDS.toMillis(10));
+  }
+
+  /**
+   * Metriche di backpressure della pipeline; le mappe sono per corsia
+   * (critica, alta, media, bassa). deferred = rimandate per rate limit del tipo,
+   * throttled = in attesa del token adesso (al massimo capacity per corsia),
+   * dropped = scartate per corsia (o overflow) piena o rate limit, failed = righe di insert falliti (anche ritentati),
+   * parked = in attesa di retry.
+   */
+  public record PipelineStats(int queued, int remainingCapacity, long submitted, long inserted,
+                              long coalesced, long batches, long overflow, long failed, int parked,
+                              int throttled, Map<String, Integer> queuedByLane, Map<String, Long> deferred,
+                              Map<String, Long> dropped) {}
+}
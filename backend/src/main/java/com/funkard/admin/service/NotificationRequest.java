@@ -0,0 +1,27 @@
+package com.funkard.admin.service;
+
+import java.time.Instant;
+
+/**
+ * Richiesta di creazione notifica accodata su NotificationPipeline
+ *
+ * @param fingerprint chiave di deduplicazione opzionale; se null vale (type, priority, title)
+ */
+public record NotificationRequest(String type, String priority, String title, String message,
+                                  String fingerprint, Instant createdAt) {
+
+  public static NotificationRequest of(String type, String priority, String title, String message) {
+    return of(type, priority, title, message, null);
+  }
+
+  public static NotificationRequest of(String type, String priority, String title, String message,
+                                       String fingerprint) {
+    return new NotificationRequest(type, priority, title, message, fingerprint, Instant.now());
+  }
+
+  String dedupKey() {
+    return fingerprint != null && !fingerprint.isBlank()
+        ? fingerprint
+        : type + '|' + priority + '|' + title;
+  }
+}
@@ -0,0 +1,36 @@
+package com.funkard.admin.service;
+
+import java.util.Locale;
+
+/**
+ * Corsie di NotificationPipeline, in ordine di consegna.
+ * Accetta i valori italiani e quelli inglesi usati da alcuni chiamanti (es. "high").
+ */
+enum PriorityLane {
+  CRITICA, ALTA, MEDIA, BASSA;
+
+  static PriorityLane of(String priority) {
+    if (priority == null) {
+      return MEDIA;
+    }
+    return switch (priority.toLowerCase(Locale.ROOT)) {
+      case "critica", "critical" -> CRITICA;
+      case "alta", "high" -> ALTA;
+      case "bassa", "low" -> BASSA;
+      default -> MEDIA;
+    };
+  }
+
+  /**
+   * Le corsie alte non vengono scartate a coda piena: vanno in overflow
+   * (l'alta fino a una seconda capacità) e oltre il rate limit attendono il
+   * token
+   */
+  boolean neverDropped() {
+    return this == CRITICA || this == ALTA;
+  }
+
+  String tag() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,205 @@
+package com.funkard.admin.service;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Code limitate, una per PriorityLane, con un unico punto di attesa.
+ * poll() restituisce sempre prima le corsie più alte: una notifica critica
+ * non resta mai dietro a quelle di priorità minore.
+ *
+ * Una corsia sospesa (pause) resta accodata ma poll() la salta: il worker la
+ * sospende quando non può accettare altre richieste di quella corsia.
+ * drainAll() la svuota comunque.
+ */
+final class PriorityLanes {
+
+  private final Map<PriorityLane, ArrayDeque<NotificationRequest>> lanes = new EnumMap<>(PriorityLane.class);
+  private final Map<PriorityLane, Integer> capacity = new EnumMap<>(PriorityLane.class);
+  private final Set<PriorityLane> paused = EnumSet.noneOf(PriorityLane.class);
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private int size;
+  // richieste nelle corsie non sospese
+  private int available;
+
+  PriorityLanes(int criticalCapacity, int capacity) {
+    for (PriorityLane lane : PriorityLane.values()) {
+      int max = lane == PriorityLane.CRITICA ? criticalCapacity : capacity;
+      this.lanes.put(lane, new ArrayDeque<>(Math.min(max, 1024)));
+      this.capacity.put(lane, max);
+    }
+  }
+
+  /**
+   * @return false se la corsia è piena
+   */
+  boolean offer(PriorityLane lane, NotificationRequest request) {
+    lock.lock();
+    try {
+      ArrayDeque<NotificationRequest> queue = lanes.get(lane);
+      if (queue.size() >= capacity.get(lane)) {
+        return false;
+      }
+      add(lane, request);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Accoda oltre la capacità, per le corsie che non si scartano a coda piena.
+   * La critica non ha limite; le altre arrivano al massimo al doppio della
+   * capacità.
+   *
+   * @return false se anche l'overflow della corsia è pieno
+   */
+  boolean push(PriorityLane lane, NotificationRequest request) {
+    lock.lock();
+    try {
+      ArrayDeque<NotificationRequest> queue = lanes.get(lane);
+      if (lane != PriorityLane.CRITICA && queue.size() >= 2L * capacity.get(lane)) {
+        return false;
+      }
+      add(lane, request);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Sospende o riprende l'estrazione dalla corsia
+   */
+  void pause(PriorityLane lane, boolean pause) {
+    lock.lock();
+    try {
+      if (pause ? !paused.add(lane) : !paused.remove(lane)) {
+        return;
+      }
+      available += pause ? -lanes.get(lane).size() : lanes.get(lane).size();
+      if (available > 0) {
+        notEmpty.signal();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  NotificationRequest poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (available == 0) {
+        if (nanos <= 0) {
+          return null;
+        }
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      return take();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Senza attesa: null se non c'è nulla da estrarre
+   */
+  NotificationRequest poll() {
+    lock.lock();
+    try {
+      return available == 0 ? null : take();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Svuota tutte le corsie, anche quelle sospese (shutdown)
+   */
+  int drainAll(List<NotificationRequest> out) {
+    lock.lock();
+    try {
+      int n = size;
+      for (ArrayDeque<NotificationRequest> queue : lanes.values()) {
+        out.addAll(queue);
+        queue.clear();
+      }
+      size = 0;
+      available = 0;
+      return n;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void add(PriorityLane lane, NotificationRequest request) {
+    lanes.get(lane).addLast(request);
+    size++;
+    if (!paused.contains(lane)) {
+      available++;
+      notEmpty.signal();
+    }
+  }
+
+  /**
+   * Prossima richiesta della corsia più alta non vuota e non sospesa
+   * (sotto lock, available > 0)
+   */
+  private NotificationRequest take() {
+    for (Map.Entry<PriorityLane, ArrayDeque<NotificationRequest>> e : lanes.entrySet()) {
+      if (paused.contains(e.getKey())) {
+        continue;
+      }
+      NotificationRequest r = e.getValue().pollFirst();
+      if (r != null) {
+        size--;
+        available--;
+        return r;
+      }
+    }
+    throw new IllegalStateException("available non allineato alle corsie");
+  }
+
+  boolean isEmpty() {
+    lock.lock();
+    try {
+      return size == 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int size(PriorityLane lane) {
+    lock.lock();
+    try {
+      return lanes.get(lane).size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Richieste in coda e posti liberi: [queued, remaining]
+   */
+  int[] usage() {
+    lock.lock();
+    try {
+      int free = 0;
+      for (PriorityLane lane : PriorityLane.values()) {
+        free += Math.max(0, capacity.get(lane) - lanes.get(lane).size());
+      }
+      return new int[] {size, free};
+    } finally {
+      lock.unlock();
+    }
+  }
+}
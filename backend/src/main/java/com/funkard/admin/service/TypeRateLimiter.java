@@ -0,0 +1,62 @@
+package com.funkard.admin.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per tipo di notifica: perSecond token al secondo, fino a burst.
+ *
+ * reserve() prenota il prossimo token del tipo anche se non è ancora
+ * disponibile e restituisce quanto attendere: le richieste oltre il limite
+ * vengono scaglionate al ritmo perSecond, non inserite subito. Una
+ * prenotazione che richiederebbe più di maxWait non consuma token.
+ * perSecond <= 0 disattiva il limite.
+ *
+ * Non thread-safe: lo usa solo il worker di NotificationPipeline.
+ */
+final class TypeRateLimiter {
+
+  static final long REJECTED = -1;
+
+  private final double perSecond;
+  private final double burst;
+  private final LongSupplier clock;
+  private final Map<String, Bucket> buckets = new HashMap<>();
+
+  TypeRateLimiter(double perSecond, double burst) {
+    this(perSecond, burst, System::nanoTime);
+  }
+
+  TypeRateLimiter(double perSecond, double burst, LongSupplier clock) {
+    this.perSecond = perSecond;
+    this.burst = Math.max(1, burst);
+    this.clock = clock;
+  }
+
+  /**
+   * @return 0 se il token è disponibile subito, altrimenti i nanosecondi da
+   *         attendere prima dell'insert, o REJECTED se l'attesa supera maxWaitNanos
+   */
+  long reserve(String type, long maxWaitNanos) {
+    if (perSecond <= 0) {
+      return 0;
+    }
+    long now = clock.getAsLong();
+    String key = type == null ? "" : type;
+    Bucket prev = buckets.get(key);
+    // i token possono andare sotto zero: ogni prenotazione sposta in avanti la successiva
+    double tokens = prev == null
+        ? burst
+        : Math.min(burst, prev.tokens() + (now - prev.at()) / 1e9 * perSecond);
+    long wait = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / perSecond * 1e9);
+    if (wait > maxWaitNanos) {
+      buckets.put(key, new Bucket(tokens, now));
+      return REJECTED;
+    }
+    buckets.put(key, new Bucket(tokens - 1, now));
+    return wait;
+  }
+
+  private record Bucket(double tokens, long at) {}
+}
@@ -0,0 +1,190 @@
+package com.funkard.admin.service;
+
+import com.funkard.admin.model.UnreadBucket;
+import com.funkard.admin.repository.AdminNotificationRepository;
+import com.funkard.admin.sse.AdminNotificationBulkEvent;
+import com.funkard.admin.sse.AdminNotificationEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contatore in memoria delle notifiche non lette (attive), per tipo e priorità.
+ *
+ * Aggiornato dopo il commit dagli eventi di AdminNotificationService
+ * (created / read / archived, singoli o bulk) e riallineato col DB all'avvio e
+ * periodicamente, così GET /unreadCount non esegue query.
+ *
+ * Il riallineamento non sostituisce i contatori: applica come delta la
+ * differenza tra il risultato della query e una copia presa subito prima,
+ * così gli eventi arrivati mentre la query è in corso non vanno persi.
+ * Copia e query girano nel CommitGate: un evento già visto dalla query non
+ * può avere il listener ancora in sospeso, quindi non viene contato due volte.
+ */
+@Component
+public class UnreadCounter {
+
+  private static final Logger log = LoggerFactory.getLogger(UnreadCounter.class);
+
+  private final AdminNotificationRepository repo;
+  private final TransactionTemplate readOnly;
+  private final CommitGate gate = new CommitGate();
+  private final Counts counts = new Counts();
+
+  public UnreadCounter(AdminNotificationRepository repo, PlatformTransactionManager txManager) {
+    this.repo = repo;
+    this.readOnly = new TransactionTemplate(txManager);
+    this.readOnly.setReadOnly(true);
+  }
+
+  public long total() {
+    return counts.total.get();
+  }
+
+  public Map<String, Long> byType() {
+    return counts.snapshot(counts.byType);
+  }
+
+  public Map<String, Long> byPriority() {
+    return counts.snapshot(counts.byPriority);
+  }
+
+  /**
+   * Alla pubblicazione, prima del commit: la transazione entra nel gate
+   */
+  @EventListener({AdminNotificationEvent.class, AdminNotificationBulkEvent.class})
+  public void holdCommit() {
+    gate.enter();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  @Order(CommitGate.LISTENER_ORDER)
+  public void onNotificationEvent(AdminNotificationEvent event) {
+    switch (event.action()) {
+      case AdminNotificationEvent.CREATED -> {
+        if (!event.readStatus() && !event.archived()) {
+          counts.add(event.type(), event.priority(), 1);
+        }
+      }
+      case AdminNotificationEvent.READ -> {
+        if (!event.archived()) {
+          counts.add(event.type(), event.priority(), -1);
+        }
+      }
+      case AdminNotificationEvent.ARCHIVED -> {
+        if (!event.readStatus()) {
+          counts.add(event.type(), event.priority(), -1);
+        }
+      }
+      default -> {
+        // resolved: non cambia lo stato di lettura
+      }
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  @Order(CommitGate.LISTENER_ORDER)
+  public void onBulkEvent(AdminNotificationBulkEvent event) {
+    for (UnreadBucket b : event.unreadRemoved()) {
+      counts.add(b.type(), b.priority(), -b.count());
+    }
+  }
+
+  /**
+   * Riallinea i contatori con una sola query aggregata. La transazione
+   * read-only prende la connessione prima del gate, che blocca i commit
+   * solo per la durata della query.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(fixedDelayString = "${funkard.admin.unread.reconcile-ms:300000}",
+      initialDelayString = "${funkard.admin.unread.reconcile-ms:300000}")
+  public void reconcile() {
+    long drift = readOnly.execute(status -> gate.exclusive(() -> {
+      Counts before = counts.copy();
+      List<UnreadBucket> buckets = repo.countUnreadBuckets();
+      Counts fresh = new Counts();
+      for (UnreadBucket b : buckets) {
+        fresh.add(b.type(), b.priority(), b.count());
+      }
+      counts.rebase(before, fresh);
+      return fresh.total.get() - before.total.get();
+    }));
+    if (drift != 0) {
+      log.info("Contatore non lette riallineato: {} (drift {})", counts.total.get(), drift);
+    }
+  }
+
+  private static final class Counts {
+    final AtomicLong total = new AtomicLong();
+    final ConcurrentHashMap<String, AtomicLong> byType = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, AtomicLong> byPriority = new ConcurrentHashMap<>();
+
+    void add(String type, String priority, long delta) {
+      total.addAndGet(delta);
+      byType.computeIfAbsent(type, k -> new AtomicLong()).addAndGet(delta);
+      byPriority.computeIfAbsent(priority, k -> new AtomicLong()).addAndGet(delta);
+    }
+
+    Counts copy() {
+      Counts out = new Counts();
+      out.total.set(total.get());
+      byType.forEach((k, v) -> out.byType.put(k, new AtomicLong(v.get())));
+      byPriority.forEach((k, v) -> out.byPriority.put(k, new AtomicLong(v.get())));
+      return out;
+    }
+
+    /**
+     * Aggiunge (fresh - before) chiave per chiave, senza toccare i delta
+     * applicati dagli eventi dopo la copia before
+     */
+    void rebase(Counts before, Counts fresh) {
+      total.addAndGet(fresh.total.get() - before.total.get());
+      shift(byType, before.byType, fresh.byType);
+      shift(byPriority, before.byPriority, fresh.byPriority);
+    }
+
+    private static void shift(ConcurrentHashMap<String, AtomicLong> target,
+                              Map<String, AtomicLong> before, Map<String, AtomicLong> fresh) {
+      Set<String> keys = new HashSet<>(before.keySet());
+      keys.addAll(fresh.keySet());
+      for (String k : keys) {
+        long delta = value(fresh, k) - value(before, k);
+        if (delta != 0) {
+          target.computeIfAbsent(k, x -> new AtomicLong()).addAndGet(delta);
+        }
+      }
+    }
+
+    private static long value(Map<String, AtomicLong> source, String key) {
+      AtomicLong v = source.get(key);
+      return v != null ? v.get() : 0;
+    }
+
+    Map<String, Long> snapshot(Map<String, AtomicLong> source) {
+      Map<String, Long> out = new TreeMap<>();
+      source.forEach((k, v) -> {
+        long value = v.get();
+        if (value > 0) {
+          out.put(k, value);
+        }
+      });
+      return Collections.unmodifiableMap(out);
+    }
+  }
+}
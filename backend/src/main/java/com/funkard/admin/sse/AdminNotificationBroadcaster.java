@@ -0,0 +1,235 @@
+package com.funkard.admin.sse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+
+/**
+ * Hub SSE per /api/admin/notifications/stream.
+ *
+ * Ogni evento di AdminNotificationService viene serializzato una sola volta
+ * (dopo il commit della transazione) e accodato a tutti i subscriber.
+ * L'invio vero e proprio avviene su SseDispatcher, mai sul thread che
+ * ha pubblicato l'evento.
+ *
+ * Gli eventi notifica restano anche in un ReplayBuffer: un client che si
+ * riconnette con Last-Event-ID riceve solo quelli persi. Se il buffer non
+ * copre più il buco si usa il catch-up da DB fornito dal service, senza le
+ * righe che il buffer riconsegna già.
+ */
+@Component
+public class AdminNotificationBroadcaster {
+
+  private static final Logger log = LoggerFactory.getLogger(AdminNotificationBroadcaster.class);
+
+  private final Set<SseSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final AtomicLong evicted = new AtomicLong();
+  // ReentrantLock invece di synchronized: con i virtual thread l'attesa su un
+  // monitor conteso blocca anche il carrier
+  private final ReentrantLock publishLock = new ReentrantLock();
+  private final ReplayBuffer replay;
+  private final ObjectMapper mapper;
+  private final SseDispatcher dispatcher;
+  private final int bufferSize;
+  private final long timeoutMs;
+  private final int catchUpLimit;
+
+  public AdminNotificationBroadcaster(
+      ObjectMapper mapper,
+      SseDispatcher dispatcher,
+      @Value("${funkard.admin.sse.buffer-size:64}") int bufferSize,
+      @Value("${funkard.admin.sse.timeout-ms:1800000}") long timeoutMs,
+      @Value("${funkard.admin.sse.replay-size:1024}") int replaySize,
+      @Value("${funkard.admin.sse.catch-up-limit:200}") int catchUpLimit) {
+    this.mapper = mapper;
+    this.dispatcher = dispatcher;
+    this.bufferSize = bufferSize;
+    this.timeoutMs = timeoutMs;
+    this.replay = new ReplayBuffer(replaySize);
+    this.catchUpLimit = catchUpLimit;
+  }
+
+  /**
+   * Registra un nuovo client, riprendendo da lastEventId se presente.
+   *
+   * @param catchUp query DB limitata (since, limit) usata solo quando il
+   *                buffer non contiene più l'evento lastEventId
+   */
+  public SseEmitter subscribe(String lastEventId,
+                              BiFunction<Instant, Integer, List<AdminNotificationEvent>> catchUp) {
+    Optional<ReplayBuffer.EventId> last = ReplayBuffer.EventId.parse(lastEventId);
+
+    if (last.isPresent()) {
+      publishLock.lock();
+      try {
+        Optional<List<SseMessage>> missed = replay.since(last.get());
+        if (missed.isPresent()) {
+          return register(missed.get());
+        }
+      } finally {
+        publishLock.unlock();
+      }
+
+      // Buco più vecchio del buffer: query DB fuori dal lock
+      Instant since = Instant.ofEpochMilli(last.get().at());
+      List<AdminNotificationEvent> rows = catchUp.apply(since, catchUpLimit);
+      List<SseMessage> fromDb = new ArrayList<>(rows.size());
+      for (AdminNotificationEvent row : rows) {
+        fromDb.add(new SseMessage(null, eventName(row), toJson(row)));
+      }
+
+      publishLock.lock();
+      try {
+        return register(catchUpBacklog(last.get().at(), rows, fromDb));
+      } finally {
+        publishLock.unlock();
+      }
+    }
+
+    publishLock.lock();
+    try {
+      return register(List.of());
+    } finally {
+      publishLock.unlock();
+    }
+  }
+
+  /**
+   * Righe da DB seguite dagli eventi ancora nel buffer dopo {@code at}. Una riga
+   * il cui evento è anche nel buffer viene saltata: passa una volta sola, con il
+   * suo id SSE. Va chiamato sotto publishLock.
+   *
+   * @param fromDb le righe già serializzate, nello stesso ordine di rows
+   */
+  List<SseMessage> catchUpBacklog(long at, List<AdminNotificationEvent> rows, List<SseMessage> fromDb) {
+    Set<String> buffered = new HashSet<>();
+    List<SseMessage> recent = replay.after(at, buffered);
+    List<SseMessage> backlog = new ArrayList<>(rows.size() + recent.size() + 1);
+    if (rows.size() >= catchUpLimit) {
+      // catch-up troncato: il client deve ricaricare la lista
+      backlog.add(SseMessage.of("resync", "{}"));
+    }
+    for (int i = 0; i < rows.size(); i++) {
+      if (!buffered.contains(replayKey(rows.get(i)))) {
+        backlog.add(fromDb.get(i));
+      }
+    }
+    backlog.addAll(recent);
+    return backlog;
+  }
+
+  /**
+   * Crea il subscriber con spazio sufficiente per il backlog e lo rende
+   * visibile ai publish successivi. Va chiamato sotto publishLock.
+   */
+  private SseEmitter register(List<SseMessage> backlog) {
+    SseEmitter emitter = new SseEmitter(timeoutMs);
+    SseSubscriber subscriber = new SseSubscriber(
+        emitter, bufferSize + backlog.size() + 1, dispatcher, subscribers::remove);
+    subscriber.offer(SseMessage.of("connected", "{}"));
+    backlog.forEach(subscriber::offer);
+    subscribers.add(subscriber);
+    return emitter;
+  }
+
+  /**
+   * Fan-out di un evento notifica a tutti i client connessi.
+   * Gli eventi "created" usano il nome di default (message) per compatibilità
+   * con useSSE/onmessage; gli altri sono eventi nominati notification-*.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onNotificationEvent(AdminNotificationEvent event) {
+    String json = toJson(event);
+    publishLock.lock();
+    try {
+      broadcast(replay.append(replayKey(event), eventName(event), json, event.urgent()));
+    } finally {
+      publishLock.unlock();
+    }
+  }
+
+  /**
+   * Azione bulk: un solo evento "notifications-bulk" per tutte le righe coinvolte
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBulkEvent(AdminNotificationBulkEvent event) {
+    String json = toJson(event);
+    publishLock.lock();
+    try {
+      broadcast(replay.append(null, "notifications-bulk", json, false));
+    } finally {
+      publishLock.unlock();
+    }
+  }
+
+  /**
+   * Identità di un evento notifica, uguale per la riga del catch-up e per
+   * l'evento nel buffer
+   */
+  private static String replayKey(AdminNotificationEvent event) {
+    return event.id() == null ? null : event.action() + ":" + event.id();
+  }
+
+  private static String eventName(AdminNotificationEvent event) {
+    return AdminNotificationEvent.CREATED.equals(event.action())
+        ? null
+        : "notification-" + event.action();
+  }
+
+  /**
+   * Keep-alive: evita che proxy e browser chiudano la connessione inattiva
+   */
+  @Scheduled(fixedRateString = "${funkard.admin.sse.heartbeat-ms:25000}")
+  public void heartbeat() {
+    broadcast(SseMessage.of("ping", "{}"));
+  }
+
+  public int getSubscriberCount() {
+    return subscribers.size();
+  }
+
+  public long getEvictedCount() {
+    return evicted.get();
+  }
+
+  void broadcast(SseMessage message) {
+    for (SseSubscriber subscriber : subscribers) {
+      boolean wasOpen = !subscriber.isClosed();
+      if (!subscriber.offer(message) && wasOpen) {
+        evicted.incrementAndGet();
+      }
+    }
+  }
+
+  private String toJson(Object payload) {
+    try {
+      return mapper.writeValueAsString(payload);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Serializzazione evento SSE fallita", e);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    subscribers.forEach(SseSubscriber::close);
+    log.info("Admin SSE hub chiuso ({} client espulsi per lentezza)", evicted.get());
+  }
+}
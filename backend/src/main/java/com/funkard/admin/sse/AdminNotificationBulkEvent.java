@@ -0,0 +1,22 @@
+package com.funkard.admin.sse;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.funkard.admin.model.UnreadBucket;
+
+import java.util.List;
+
+/**
+ * Evento unico per un'azione bulk (read / resolved / archived su N notifiche).
+ * Un solo evento SSE invece di N: oltre MAX_IDS gli id non vengono inviati e
+ * il client deve ricaricare la lista.
+ *
+ * @param unreadRemoved non lette attive uscite dal conteggio, per UnreadCounter
+ */
+public record AdminNotificationBulkEvent(
+    String action,
+    int count,
+    List<Long> ids,
+    @JsonIgnore List<UnreadBucket> unreadRemoved) {
+
+  public static final int MAX_IDS = 500;
+}
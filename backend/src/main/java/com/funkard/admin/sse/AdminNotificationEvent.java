@@ -0,0 +1,59 @@
+package com.funkard.admin.sse;
+
+import com.funkard.admin.model.AdminNotification;
+
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Evento applicativo pubblicato da AdminNotificationService ad ogni cambio di stato.
+ * Non include lo storico (history): i client lo leggono da GET /{id}/history se serve.
+ *
+ * @param action created | read | resolved | archived
+ */
+public record AdminNotificationEvent(
+    String action,
+    Long id,
+    String type,
+    String priority,
+    String title,
+    String message,
+    boolean readStatus,
+    boolean archived,
+    Instant createdAt,
+    Instant resolvedAt,
+    String resolvedBy) {
+
+  public static final String CREATED = "created";
+  public static final String READ = "read";
+  public static final String RESOLVED = "resolved";
+  public static final String ARCHIVED = "archived";
+
+  /**
+   * Nuova notifica critica o alta: per un client con eventi in coda passa davanti
+   */
+  public boolean urgent() {
+    if (!CREATED.equals(action) || priority == null) {
+      return false;
+    }
+    return switch (priority.toLowerCase(Locale.ROOT)) {
+      case "critica", "critical", "alta", "high" -> true;
+      default -> false;
+    };
+  }
+
+  public static AdminNotificationEvent of(String action, AdminNotification n) {
+    return new AdminNotificationEvent(
+        action,
+        n.getId(),
+        n.getType(),
+        n.getPriority(),
+        n.getTitle(),
+        n.getMessage(),
+        n.isReadStatus(),
+        n.isArchived(),
+        n.getCreatedAt(),
+        n.getResolvedAt(),
+        n.getResolvedBy());
+  }
+}
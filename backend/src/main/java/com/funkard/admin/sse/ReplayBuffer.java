@@ -0,0 +1,105 @@
+package com.funkard.admin.sse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Ring buffer a dimensione fissa degli ultimi eventi notifica, indicizzati da
+ * un numero di sequenza monotono. L'id SSE ha forma "seq-epochMillis": il
+ * timestamp permette di riconoscere id di una vita precedente del server e di
+ * ripiegare sul catch-up da DB.
+ *
+ * Non thread-safe: l'accesso è serializzato da AdminNotificationBroadcaster.
+ */
+class ReplayBuffer {
+
+  private record Entry(long seq, long at, String key, SseMessage message) {}
+
+  private final Entry[] ring;
+  private long nextSeq = 1;
+
+  ReplayBuffer(int capacity) {
+    this.ring = new Entry[capacity];
+  }
+
+  /**
+   * Assegna il prossimo id all'evento e lo memorizza, sovrascrivendo il più vecchio
+   *
+   * @param key identità dell'evento (es. "created:42") usata per non duplicarlo
+   *            nel catch-up da DB; null se l'evento non ha una riga corrispondente
+   */
+  SseMessage append(String key, String name, String data, boolean urgent) {
+    long seq = nextSeq++;
+    long at = System.currentTimeMillis();
+    SseMessage message = new SseMessage(seq + "-" + at, name, data, urgent);
+    ring[(int) (seq % ring.length)] = new Entry(seq, at, key, message);
+    return message;
+  }
+
+  /**
+   * Eventi successivi a lastEventId, in ordine.
+   * @return vuoto se l'id è più vecchio del buffer o non appartiene a questa istanza
+   */
+  Optional<List<SseMessage>> since(EventId last) {
+    long latest = nextSeq - 1;
+    long oldest = Math.max(1, nextSeq - ring.length);
+    if (last.seq() > latest || last.seq() < oldest - 1) {
+      return Optional.empty();
+    }
+    if (last.seq() >= oldest) {
+      Entry known = ring[(int) (last.seq() % ring.length)];
+      if (known == null || known.at() != last.at()) {
+        return Optional.empty();
+      }
+    }
+
+    List<SseMessage> missed = new ArrayList<>((int) (latest - last.seq()));
+    for (long seq = last.seq() + 1; seq <= latest; seq++) {
+      missed.add(ring[(int) (seq % ring.length)].message());
+    }
+    return Optional.of(missed);
+  }
+
+  /**
+   * Eventi ancora in memoria registrati dopo l'istante indicato, dal più vecchio.
+   * Le chiavi degli eventi restituiti vengono aggiunte a {@code keys}.
+   */
+  List<SseMessage> after(long epochMillis, Set<String> keys) {
+    List<SseMessage> out = new ArrayList<>();
+    for (long seq = Math.max(1, nextSeq - ring.length); seq < nextSeq; seq++) {
+      Entry e = ring[(int) (seq % ring.length)];
+      if (e.at() > epochMillis) {
+        out.add(e.message());
+        if (e.key() != null) {
+          keys.add(e.key());
+        }
+      }
+    }
+    return out;
+  }
+
+  /**
+   * Id "seq-epochMillis" inviato dal client in Last-Event-ID
+   */
+  record EventId(long seq, long at) {
+
+    static Optional<EventId> parse(String raw) {
+      if (raw == null || raw.isBlank()) {
+        return Optional.empty();
+      }
+      int dash = raw.indexOf('-');
+      if (dash <= 0) {
+        return Optional.empty();
+      }
+      try {
+        return Optional.of(new EventId(
+            Long.parseLong(raw.substring(0, dash).trim()),
+            Long.parseLong(raw.substring(dash + 1).trim())));
+      } catch (NumberFormatException e) {
+        return Optional.empty();
+      }
+    }
+  }
+}
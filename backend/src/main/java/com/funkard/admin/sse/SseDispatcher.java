@@ -0,0 +1,144 @@
+package com.funkard.admin.sse;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool condiviso che scrive sui socket SSE per tutti gli stream
+ * (notifiche admin e ticket di supporto).
+ * Resta su thread di piattaforma anche con funkard.threads.mode=virtual:
+ * ResponseBodyEmitter.send scrive sul socket dentro un metodo synchronized,
+ * quindi su un virtual thread una write lenta bloccherebbe il carrier.
+ *
+ * Ogni send ha una scadenza (send-timeout-ms): se il socket non accetta i
+ * dati in tempo il watchdog espelle il client e aggiunge un thread al pool
+ * finché la write bloccata non ritorna. Così un browser
+ * fermo occupa al massimo un thread "in più" e non toglie capacità agli altri.
+ * I timer delle send completate vengono tolti subito dalla coda del watchdog
+ * (remove-on-cancel): altrimenti ogni send lascerebbe un timer morto in coda
+ * fino alla scadenza.
+ */
+@Component
+public class SseDispatcher implements Executor {
+
+  private final ThreadPoolExecutor pool;
+  private final ScheduledThreadPoolExecutor watchdog;
+  private final long sendTimeoutMs;
+  private final int maxThreads;
+  private final AtomicInteger stalled = new AtomicInteger();
+
+  public SseDispatcher(@Value("${funkard.admin.sse.dispatch-threads:4}") int threads,
+                       @Value("${funkard.admin.sse.max-dispatch-threads:64}") int maxThreads,
+                       @Value("${funkard.admin.sse.send-timeout-ms:5000}") long sendTimeoutMs) {
+    this.sendTimeoutMs = sendTimeoutMs;
+    this.maxThreads = Math.max(threads, maxThreads);
+    this.watchdog = new ScheduledThreadPoolExecutor(1, r -> {
+      Thread t = new Thread(r, "admin-sse-watchdog");
+      t.setDaemon(true);
+      return t;
+    });
+    this.watchdog.setRemoveOnCancelPolicy(true);
+    AtomicInteger counter = new AtomicInteger();
+    this.pool = new ThreadPoolExecutor(threads, this.maxThreads, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), r -> {
+          Thread t = new Thread(r, "admin-sse-" + counter.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        });
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    pool.execute(task);
+  }
+
+  /**
+   * Avvia il timer di una singola send. Se scade prima di {@link Send#done()}
+   * viene eseguito onTimeout (sul thread del watchdog, che non deve bloccare).
+   */
+  Send startSend(Runnable onTimeout) {
+    Send send = new Send(onTimeout);
+    send.timer = watchdog.schedule(send::expire, sendTimeoutMs, TimeUnit.MILLISECONDS);
+    return send;
+  }
+
+  /**
+   * Send attualmente bloccate oltre la scadenza
+   */
+  public int getStalledCount() {
+    return stalled.get();
+  }
+
+  /**
+   * Timer di send ancora in coda sul watchdog
+   */
+  int getPendingTimerCount() {
+    return watchdog.getQueue().size();
+  }
+
+  private void compensate(int delta) {
+    synchronized (pool) {
+      int core = pool.getCorePoolSize() + delta;
+      if (core >= 1 && core <= maxThreads) {
+        pool.setCorePoolSize(core);
+      }
+    }
+  }
+
+  /**
+   * Timer di una send: done() e expire() si escludono a vicenda
+   */
+  final class Send {
+
+    private static final int RUNNING = 0;
+    private static final int DONE = 1;
+    private static final int EXPIRED = 2;
+
+    private final AtomicInteger state = new AtomicInteger(RUNNING);
+    private final Runnable onTimeout;
+    private volatile ScheduledFuture<?> timer;
+
+    private Send(Runnable onTimeout) {
+      this.onTimeout = onTimeout;
+    }
+
+    private void expire() {
+      if (state.compareAndSet(RUNNING, EXPIRED)) {
+        stalled.incrementAndGet();
+        compensate(1);
+        onTimeout.run();
+      }
+    }
+
+    /**
+     * Chiamato dal thread di invio quando la write è ritornata
+     * (anche con eccezione)
+     */
+    void done() {
+      if (state.compareAndSet(RUNNING, DONE)) {
+        ScheduledFuture<?> t = timer;
+        if (t != null) {
+          t.cancel(false);
+        }
+        return;
+      }
+      stalled.decrementAndGet();
+      compensate(-1);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    watchdog.shutdownNow();
+    pool.shutdown();
+  }
+}
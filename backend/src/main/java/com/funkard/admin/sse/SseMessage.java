@@ -0,0 +1,39 @@
+package com.funkard.admin.sse;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Evento SSE già serializzato, condiviso tra tutti i subscriber.
+ * Il payload JSON viene prodotto una sola volta per evento: ogni client
+ * costruisce solo il proprio SseEventBuilder al momento dell'invio.
+ *
+ * @param id     id evento (Last-Event-ID), può essere null
+ * @param name   nome evento; null = evento "message" di default
+ * @param data   payload JSON
+ * @param urgent consegnato prima degli eventi già in coda del client
+ */
+public record SseMessage(String id, String name, String data, boolean urgent) {
+
+  public SseMessage(String id, String name, String data) {
+    this(id, name, data, false);
+  }
+
+  public static SseMessage of(String name, String data) {
+    return new SseMessage(null, name, data);
+  }
+
+  SseMessage withoutId() {
+    return new SseMessage(null, name, data, urgent);
+  }
+
+  SseEmitter.SseEventBuilder toEvent() {
+    SseEmitter.SseEventBuilder event = SseEmitter.event();
+    if (id != null) {
+      event.id(id);
+    }
+    if (name != null) {
+      event.name(name);
+    }
+    return event.data(data);
+  }
+}
@@ -0,0 +1,160 @@
+package com.funkard.admin.sse;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Singolo client SSE con buffer dedicato e limitato.
+ *
+ * Il broadcaster non scrive mai direttamente sul socket: accoda l'evento con
+ * offer() (non bloccante) e un worker del pool condiviso svuota il buffer.
+ * Se il buffer è pieno il client è troppo lento e viene disconnesso, così un
+ * browser bloccato non rallenta gli altri né accumula eventi in memoria.
+ *
+ * Anche la chiusura passa dal dispatcher: emitter.complete() può bloccare
+ * (condivide il monitor dell'emitter con una send in corso), quindi non viene
+ * mai chiamato dal thread che pubblica, che spesso tiene il lock del broadcaster.
+ * Una send che supera la scadenza del dispatcher espelle il client; l'emitter
+ * viene completato dallo stesso thread appena la write ritorna.
+ *
+ * Gli eventi urgenti (nuove notifiche critiche e alte) hanno una coda propria,
+ * svuotata per prima: a un client in ritardo arrivano prima del backlog. Un
+ * urgente che supera eventi più vecchi ancora in coda parte senza id, così
+ * Last-Event-ID resta all'ultimo evento consegnato in ordine e un resume non
+ * salta quelli in coda; in quel caso l'urgente può arrivare due volte.
+ */
+public class SseSubscriber {
+
+  private final SseEmitter emitter;
+  private final BlockingQueue<Pending> buffer;
+  private final BlockingQueue<Pending> urgent;
+  private final AtomicLong sequence = new AtomicLong();
+  private final SseDispatcher dispatcher;
+  private final Consumer<SseSubscriber> onClose;
+  private final AtomicBoolean draining = new AtomicBoolean(false);
+  private final AtomicBoolean closed = new AtomicBoolean(false);
+  private final AtomicBoolean completed = new AtomicBoolean(false);
+
+  public SseSubscriber(SseEmitter emitter, int bufferSize, SseDispatcher dispatcher,
+                       Consumer<SseSubscriber> onClose) {
+    this.emitter = emitter;
+    this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    this.urgent = new ArrayBlockingQueue<>(bufferSize);
+    this.dispatcher = dispatcher;
+    this.onClose = onClose;
+
+    emitter.onCompletion(this::close);
+    emitter.onTimeout(this::close);
+    emitter.onError(e -> close());
+  }
+
+  public SseEmitter getEmitter() {
+    return emitter;
+  }
+
+  public boolean isClosed() {
+    return closed.get();
+  }
+
+  /**
+   * Accoda un evento per questo client.
+   * @return false se il client è chiuso o è stato espulso perché lento
+   */
+  public boolean offer(SseMessage message) {
+    if (closed.get()) {
+      return false;
+    }
+    Pending pending = new Pending(sequence.incrementAndGet(), message);
+    if (!(message.urgent() ? urgent : buffer).offer(pending)) {
+      close();
+      return false;
+    }
+    scheduleDrain();
+    return true;
+  }
+
+  /**
+   * Chiude il client e libera il buffer (idempotente).
+   * Non blocca: il completamento dell'emitter è delegato al dispatcher.
+   */
+  public void close() {
+    if (!closed.compareAndSet(false, true)) {
+      return;
+    }
+    buffer.clear();
+    urgent.clear();
+    onClose.accept(this);
+    scheduleDrain();
+  }
+
+  private void scheduleDrain() {
+    if (draining.compareAndSet(false, true)) {
+      try {
+        dispatcher.execute(this::drain);
+      } catch (RuntimeException e) {
+        // pool in shutdown: il client non può essere servito, l'emitter
+        // verrà chiuso dal timeout del container
+        draining.set(false);
+        close();
+      }
+    }
+  }
+
+  private void drain() {
+    try {
+      Pending next;
+      while (!closed.get() && (next = next()) != null) {
+        send(next);
+      }
+    } catch (IOException | IllegalStateException e) {
+      close();
+    } finally {
+      if (closed.get()) {
+        complete();
+      }
+      draining.set(false);
+      // evento (o close) arrivato dopo l'ultimo controllo ma prima del reset del flag
+      if (closed.get() ? !completed.get() : !(buffer.isEmpty() && urgent.isEmpty())) {
+        scheduleDrain();
+      }
+    }
+  }
+
+  private Pending next() {
+    Pending p = urgent.poll();
+    return p != null ? p : buffer.poll();
+  }
+
+  private void send(Pending pending) throws IOException {
+    SseMessage message = pending.message();
+    Pending head = buffer.peek();
+    if (message.id() != null && head != null && head.seq() < pending.seq()) {
+      message = message.withoutId();
+    }
+    SseDispatcher.Send deadline = dispatcher.startSend(this::close);
+    try {
+      emitter.send(message.toEvent());
+    } finally {
+      deadline.done();
+    }
+  }
+
+  private void complete() {
+    if (!completed.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      emitter.complete();
+    } catch (RuntimeException ignored) {
+      // emitter già completato dal container
+    }
+  }
+
+  private record Pending(long seq, SseMessage message) {}
+}
@@ -0,0 +1,152 @@
+package com.funkard.support;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.funkard.admin.sse.SseDispatcher;
+import com.funkard.admin.sse.SseMessage;
+import com.funkard.admin.sse.SseSubscriber;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stream SSE dei ticket di supporto con filtro per ruolo lato server.
+ *
+ * I subscriber sono indicizzati per ruolo (SUPER_ADMIN, ADMIN) e, per lo staff
+ * SUPPORT, per assegnatario: ogni evento viene consegnato solo agli insiemi
+ * che lo riguardano, senza scorrere tutti i client connessi.
+ */
+@Component
+public class SupportEventBroadcaster {
+
+    static final String SUPER_ADMIN = "SUPER_ADMIN";
+    static final String ADMIN = "ADMIN";
+    static final String SUPPORT = "SUPPORT";
+
+    private final Set<SseSubscriber> superAdmins = ConcurrentHashMap.newKeySet();
+    private final Set<SseSubscriber> admins = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, Set<SseSubscriber>> byAssignee = new ConcurrentHashMap<>();
+    private final AtomicLong evicted = new AtomicLong();
+
+    private final ObjectMapper mapper;
+    private final SseDispatcher dispatcher;
+    private final int bufferSize;
+    private final long timeoutMs;
+
+    public SupportEventBroadcaster(
+            ObjectMapper mapper,
+            SseDispatcher dispatcher,
+            @Value("${funkard.admin.sse.buffer-size:64}") int bufferSize,
+            @Value("${funkard.admin.sse.timeout-ms:1800000}") long timeoutMs) {
+        this.mapper = mapper;
+        this.dispatcher = dispatcher;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Registra un client. Ruoli sconosciuti sono trattati come SUPPORT.
+     *
+     * @throws IllegalArgumentException per SUPPORT senza userId: non essendo in
+     *         nessun insieme non riceverebbe eventi né heartbeat
+     */
+    public SseEmitter subscribe(String userId, String role) {
+        String normalizedRole = normalizeRole(role);
+        if (SUPPORT.equals(normalizedRole) && (userId == null || userId.isBlank())) {
+            throw new IllegalArgumentException("Stream SUPPORT senza utente");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+
+        SseSubscriber subscriber;
+        if (SUPER_ADMIN.equals(normalizedRole)) {
+            subscriber = new SseSubscriber(emitter, bufferSize, dispatcher, superAdmins::remove);
+            superAdmins.add(subscriber);
+        } else if (ADMIN.equals(normalizedRole)) {
+            subscriber = new SseSubscriber(emitter, bufferSize, dispatcher, admins::remove);
+            admins.add(subscriber);
+        } else {
+            subscriber = new SseSubscriber(emitter, bufferSize, dispatcher, s -> unindex(userId, s));
+            byAssignee.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+
+        subscriber.offer(SseMessage.of("connected", "{\"role\":\"" + normalizedRole + "\"}"));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketEvent(SupportTicketEvent event) {
+        SseMessage message = SseMessage.of(event.event(), toJson(event));
+
+        deliver(superAdmins, message);
+        deliver(admins, message);
+        if (!event.staffOnly() && event.assignedTo() != null) {
+            Set<SseSubscriber> assignees = byAssignee.get(event.assignedTo());
+            if (assignees != null) {
+                deliver(assignees, message);
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${funkard.admin.sse.heartbeat-ms:25000}")
+    public void heartbeat() {
+        SseMessage ping = SseMessage.of("ping", "{}");
+        deliver(superAdmins, ping);
+        deliver(admins, ping);
+        byAssignee.values().forEach(set -> deliver(set, ping));
+    }
+
+    public int getSubscriberCount() {
+        int support = byAssignee.values().stream().mapToInt(Set::size).sum();
+        return superAdmins.size() + admins.size() + support;
+    }
+
+    public long getEvictedCount() {
+        return evicted.get();
+    }
+
+    private void deliver(Set<SseSubscriber> targets, SseMessage message) {
+        for (SseSubscriber subscriber : targets) {
+            boolean wasOpen = !subscriber.isClosed();
+            if (!subscriber.offer(message) && wasOpen) {
+                evicted.incrementAndGet();
+            }
+        }
+    }
+
+    private void unindex(String userId, SseSubscriber subscriber) {
+        byAssignee.computeIfPresent(userId, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return mapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Serializzazione evento ticket fallita", e);
+        }
+    }
+
+    static String normalizeRole(String role) {
+        if (role == null) {
+            return SUPPORT;
+        }
+        String upper = role.trim().toUpperCase();
+        return SUPER_ADMIN.equals(upper) || ADMIN.equals(upper) ? upper : SUPPORT;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        superAdmins.forEach(SseSubscriber::close);
+        admins.forEach(SseSubscriber::close);
+        byAssignee.values().forEach(set -> set.forEach(SseSubscriber::close));
+    }
+}
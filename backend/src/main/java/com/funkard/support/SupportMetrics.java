@@ -0,0 +1,68 @@
+package com.funkard.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Metriche del modulo support: ticket creati e transizioni per stato (contati
+ * dopo il commit dagli eventi), righe restituite dalle letture, ticket per
+ * stato (da SupportStats) e client dello stream SSE.
+ * Le latenze dei metodi arrivano da @Timed su SupportTicketService.
+ */
+@Component
+public class SupportMetrics {
+
+    public static final String SERVICE_TIMER = "funkard.support.service";
+
+    private final MeterRegistry registry;
+
+    public SupportMetrics(MeterRegistry registry, SupportStats stats, SupportEventBroadcaster broadcaster) {
+        this.registry = registry;
+
+        for (TicketStatus status : TicketStatus.values()) {
+            Gauge.builder("funkard.support.tickets", stats, s -> s.count(status))
+                    .tag("status", status.name())
+                    .description("Ticket per stato (aggregati SupportStats)")
+                    .register(registry);
+        }
+        Gauge.builder("funkard.sse.subscribers", broadcaster, SupportEventBroadcaster::getSubscriberCount)
+                .tag("stream", "support")
+                .register(registry);
+        FunctionCounter.builder("funkard.sse.evicted", broadcaster, SupportEventBroadcaster::getEvictedCount)
+                .tag("stream", "support")
+                .register(registry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketEvent(SupportTicketEvent event) {
+        if (SupportTicketEvent.NEW_TICKET.equals(event.event())) {
+            Counter.builder("funkard.support.tickets.created")
+                    .tag("status", String.valueOf(event.status()))
+                    .register(registry)
+                    .increment();
+        } else if (SupportTicketEvent.NEW_MESSAGE.equals(event.event())) {
+            Counter.builder("funkard.support.notes.created").register(registry).increment();
+        } else if (event.previousStatus() != null && event.previousStatus() != event.status()) {
+            Counter.builder("funkard.support.tickets.transitions")
+                    .tag("from", event.previousStatus().name())
+                    .tag("to", String.valueOf(event.status()))
+                    .register(registry)
+                    .increment();
+        }
+    }
+
+    /**
+     * Righe restituite da una lettura (page, search, notes)
+     */
+    void rows(String op, int count) {
+        DistributionSummary.builder("funkard.support.rows")
+                .tag("op", op)
+                .register(registry)
+                .record(count);
+    }
+}
@@ -0,0 +1,341 @@
+package com.funkard.support;
+
+import com.funkard.admin.service.CommitGate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Statistiche support precalcolate per GET /api/admin/support/stats.
+ *
+ * Contatori per stato e aggregati giornalieri (ticket creati, risolti, durata
+ * createdAt→resolvedAt con istogramma a fasce) per gli ultimi window-days
+ * giorni, in UTC. Aggiornati dopo il commit dagli eventi di
+ * SupportTicketService e riallineati col DB all'avvio e periodicamente,
+ * come UnreadCounter: la pagina statistiche non scarica più i ticket.
+ *
+ * Come in UnreadCounter il riallineamento non sostituisce gli aggregati:
+ * applica la differenza tra la query e una copia presa subito prima, così
+ * gli eventi arrivati durante la lettura non vanno persi, e copia e letture
+ * girano nel CommitGate, così un evento già letto non viene contato due volte.
+ */
+@Component
+public class SupportStats {
+
+    private static final Logger log = LoggerFactory.getLogger(SupportStats.class);
+
+    static final Set<TicketStatus> OPEN = EnumSet.of(TicketStatus.NEW, TicketStatus.IN_PROGRESS);
+    /** Limiti superiori (secondi) delle fasce di risoluzione; l'ultima fascia è aperta */
+    static final long[] BUCKET_BOUNDS = {3_600, 14_400, 86_400, 259_200};
+    static final List<String> BUCKET_LABELS = List.of("<1h", "1-4h", "4-24h", "1-3d", ">3d");
+
+    private final SupportTicketRepository repo;
+    private final TransactionTemplate readOnly;
+    private final int windowDays;
+
+    private final CommitGate gate = new CommitGate();
+    private final Aggregates aggregates = new Aggregates();
+    private volatile OffsetDateTime oldestOpen;
+    private volatile boolean oldestOpenStale = true;
+
+    public SupportStats(SupportTicketRepository repo,
+                        PlatformTransactionManager txManager,
+                        @Value("${funkard.support.stats.window-days:30}") int windowDays) {
+        this.repo = repo;
+        this.readOnly = new TransactionTemplate(txManager);
+        this.readOnly.setReadOnly(true);
+        this.windowDays = windowDays;
+    }
+
+    /**
+     * Alla pubblicazione, prima del commit: la transazione entra nel gate
+     */
+    @EventListener(SupportTicketEvent.class)
+    public void holdCommit() {
+        gate.enter();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(CommitGate.LISTENER_ORDER)
+    public void onTicketEvent(SupportTicketEvent event) {
+        Aggregates a = aggregates;
+        if (SupportTicketEvent.NEW_TICKET.equals(event.event())) {
+            a.status(event.status(), 1);
+            a.created(event.createdAt());
+            if (oldestOpen == null) {
+                oldestOpenStale = true;
+            }
+            return;
+        }
+
+        TicketStatus previous = event.previousStatus();
+        if (previous == null || previous == event.status()) {
+            return;
+        }
+        a.status(previous, -1);
+        a.status(event.status(), 1);
+        if (event.status() == TicketStatus.RESOLVED) {
+            a.resolved(event.createdAt(), event.resolvedAt());
+        }
+        if (OPEN.contains(previous) != OPEN.contains(event.status())) {
+            // chiuso o riaperto: il ticket aperto più vecchio può essere cambiato
+            oldestOpenStale = true;
+        }
+        a.prune(firstDay());
+    }
+
+    /**
+     * Riallinea gli aggregati col DB: una query per stato e una lettura
+     * in streaming delle sole date dei ticket nella finestra. Le due letture
+     * girano nel gate (dopo aver preso la connessione): i commit dei ticket
+     * attendono la fine della lettura della finestra.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${funkard.support.stats.reconcile-ms:600000}",
+            initialDelayString = "${funkard.support.stats.reconcile-ms:600000}")
+    public void reconcile() {
+        LocalDate from = firstDay();
+        OffsetDateTime since = from.atStartOfDay().atOffset(ZoneOffset.UTC);
+
+        long drift = readOnly.execute(status -> gate.exclusive(() -> {
+            Aggregates before = aggregates.copy();
+            Aggregates a = new Aggregates();
+            for (TicketStatusCount c : repo.countByStatus()) {
+                a.status(c.status(), c.count());
+            }
+            try (Stream<TicketTimes> rows = repo.streamTimesSince(since)) {
+                rows.forEach(t -> {
+                    if (t.createdAt() != null && !t.createdAt().isBefore(since)) {
+                        a.created(t.createdAt());
+                    }
+                    if (t.status() != TicketStatus.NEW && t.status() != TicketStatus.IN_PROGRESS
+                            && t.resolvedAt() != null && !t.resolvedAt().isBefore(since)) {
+                        a.resolved(t.createdAt(), t.resolvedAt());
+                    }
+                });
+            }
+            aggregates.rebase(before, a);
+            return a.total() - before.total();
+        }));
+
+        aggregates.prune(from);
+        oldestOpen = repo.findOldestCreatedAt(OPEN);
+        oldestOpenStale = false;
+        if (drift != 0) {
+            log.info("Statistiche support riallineate: {} ticket (drift {})", aggregates.total(), drift);
+        }
+    }
+
+    /**
+     * Ticket attualmente in {@code status} (gauge Micrometer)
+     */
+    public long count(TicketStatus status) {
+        AtomicLong c = aggregates.byStatus.get(status);
+        return c != null ? Math.max(0, c.get()) : 0;
+    }
+
+    public SupportStatsRes snapshot() {
+        if (oldestOpenStale) {
+            oldestOpenStale = false;
+            oldestOpen = repo.findOldestCreatedAt(OPEN);
+        }
+        Aggregates a = aggregates;
+        LocalDate first = firstDay();
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        Map<TicketStatus, Long> byStatus = new EnumMap<>(TicketStatus.class);
+        for (TicketStatus s : TicketStatus.values()) {
+            byStatus.put(s, Math.max(0, a.byStatus.getOrDefault(s, new AtomicLong()).get()));
+        }
+        long open = byStatus.get(TicketStatus.NEW) + byStatus.get(TicketStatus.IN_PROGRESS);
+
+        List<SupportStatsRes.DayCount> chart = new ArrayList<>();
+        List<SupportStatsRes.DayResolution> resolution = new ArrayList<>();
+        long resolvedInWindow = 0;
+        long secondsInWindow = 0;
+        for (LocalDate d = first; !d.isAfter(today); d = d.plusDays(1)) {
+            Day day = a.days.get(d);
+            chart.add(new SupportStatsRes.DayCount(d.toString(), day != null ? day.created.get() : 0));
+            long resolved = day != null ? day.resolved.get() : 0;
+            long seconds = day != null ? day.resolutionSeconds.get() : 0;
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < BUCKET_LABELS.size(); i++) {
+                histogram.put(BUCKET_LABELS.get(i), day != null ? day.buckets.get(i) : 0);
+            }
+            resolution.add(new SupportStatsRes.DayResolution(
+                    d.toString(), resolved, resolved > 0 ? seconds / resolved : 0, histogram));
+            resolvedInWindow += resolved;
+            secondsInWindow += seconds;
+        }
+
+        long avgSeconds = resolvedInWindow > 0 ? secondsInWindow / resolvedInWindow : 0;
+        OffsetDateTime oldest = oldestOpen;
+        return new SupportStatsRes(
+                byStatus.values().stream().mapToLong(Long::longValue).sum(),
+                open,
+                byStatus.get(TicketStatus.RESOLVED),
+                resolvedInWindow > 0 ? format(avgSeconds) : "-",
+                avgSeconds,
+                byStatus,
+                oldest,
+                oldest != null ? Duration.between(oldest, OffsetDateTime.now()).toSeconds() : 0,
+                chart,
+                resolution);
+    }
+
+    private LocalDate firstDay() {
+        return LocalDate.now(ZoneOffset.UTC).minusDays(windowDays - 1L);
+    }
+
+    private static LocalDate day(OffsetDateTime at) {
+        return at.atZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+    }
+
+    static int bucket(long seconds) {
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            if (seconds < BUCKET_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS.length;
+    }
+
+    /**
+     * 8100 -> "2h 15m", 200000 -> "2g 7h"
+     */
+    static String format(long seconds) {
+        long minutes = seconds / 60;
+        if (minutes < 60) {
+            return minutes + "m";
+        }
+        long hours = minutes / 60;
+        if (hours < 24) {
+            return hours + "h " + (minutes % 60) + "m";
+        }
+        return (hours / 24) + "g " + (hours % 24) + "h";
+    }
+
+    private static final class Aggregates {
+        final ConcurrentHashMap<TicketStatus, AtomicLong> byStatus = new ConcurrentHashMap<>();
+        final ConcurrentSkipListMap<LocalDate, Day> days = new ConcurrentSkipListMap<>();
+
+        void status(TicketStatus status, long delta) {
+            if (status != null) {
+                byStatus.computeIfAbsent(status, k -> new AtomicLong()).addAndGet(delta);
+            }
+        }
+
+        void created(OffsetDateTime at) {
+            if (at != null) {
+                days.computeIfAbsent(day(at), k -> new Day()).created.incrementAndGet();
+            }
+        }
+
+        void resolved(OffsetDateTime createdAt, OffsetDateTime resolvedAt) {
+            if (createdAt == null || resolvedAt == null) {
+                return;
+            }
+            long seconds = Math.max(0, Duration.between(createdAt, resolvedAt).toSeconds());
+            Day d = days.computeIfAbsent(day(resolvedAt), k -> new Day());
+            d.resolved.incrementAndGet();
+            d.resolutionSeconds.addAndGet(seconds);
+            d.buckets.incrementAndGet(bucket(seconds));
+        }
+
+        Aggregates copy() {
+            Aggregates out = new Aggregates();
+            byStatus.forEach((k, v) -> out.byStatus.put(k, new AtomicLong(v.get())));
+            days.forEach((k, v) -> out.days.put(k, v.copy()));
+            return out;
+        }
+
+        /**
+         * Aggiunge (fresh - before) per stato e per giorno, senza toccare i
+         * delta applicati dagli eventi dopo la copia before
+         */
+        void rebase(Aggregates before, Aggregates fresh) {
+            for (TicketStatus s : TicketStatus.values()) {
+                long delta = value(fresh.byStatus.get(s)) - value(before.byStatus.get(s));
+                if (delta != 0) {
+                    status(s, delta);
+                }
+            }
+            Set<LocalDate> keys = new HashSet<>(before.days.keySet());
+            keys.addAll(fresh.days.keySet());
+            for (LocalDate d : keys) {
+                Day target = days.computeIfAbsent(d, k -> new Day());
+                target.shift(before.days.get(d), fresh.days.get(d));
+            }
+        }
+
+        private static long value(AtomicLong v) {
+            return v != null ? v.get() : 0;
+        }
+
+        void prune(LocalDate first) {
+            days.headMap(first).clear();
+        }
+
+        long total() {
+            return byStatus.values().stream().mapToLong(AtomicLong::get).sum();
+        }
+    }
+
+    private static final class Day {
+        final AtomicLong created = new AtomicLong();
+        final AtomicLong resolved = new AtomicLong();
+        final AtomicLong resolutionSeconds = new AtomicLong();
+        final AtomicLongArray buckets = new AtomicLongArray(BUCKET_LABELS.size());
+
+        Day copy() {
+            Day out = new Day();
+            out.created.set(created.get());
+            out.resolved.set(resolved.get());
+            out.resolutionSeconds.set(resolutionSeconds.get());
+            for (int i = 0; i < buckets.length(); i++) {
+                out.buckets.set(i, buckets.get(i));
+            }
+            return out;
+        }
+
+        /**
+         * Somma (fresh - before); un giorno assente vale zero
+         */
+        void shift(Day before, Day fresh) {
+            Day b = before != null ? before : new Day();
+            Day f = fresh != null ? fresh : new Day();
+            created.addAndGet(f.created.get() - b.created.get());
+            resolved.addAndGet(f.resolved.get() - b.resolved.get());
+            resolutionSeconds.addAndGet(f.resolutionSeconds.get() - b.resolutionSeconds.get());
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.addAndGet(i, f.buckets.get(i) - b.buckets.get(i));
+            }
+        }
+    }
+}
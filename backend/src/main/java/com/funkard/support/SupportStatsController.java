@@ -0,0 +1,21 @@
+package com.funkard.support;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+public class SupportStatsController {
+
+    private final SupportStats stats;
+
+    /**
+     * Statistiche precalcolate: nessuna query sui ticket per richiesta
+     * (salvo il ricalcolo del ticket aperto più vecchio dopo una chiusura)
+     */
+    @GetMapping("/api/admin/support/stats")
+    public SupportStatsRes stats() {
+        return stats.snapshot();
+    }
+}
@@ -0,0 +1,31 @@
+package com.funkard.support;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Risposta di GET /api/admin/support/stats. I primi campi sono quelli letti da
+ * app/dashboard/support/stats.tsx; gli altri espongono backlog e SLA.
+ *
+ * @param avgResponseTime     tempo medio di risoluzione nella finestra, formattato ("2h 15m")
+ * @param backlogAgeSeconds   età del ticket aperto (NEW / IN_PROGRESS) più vecchio
+ * @param chartData           ticket creati per giorno (UTC)
+ * @param resolution          risolti per giorno con durata media e istogramma a fasce
+ */
+public record SupportStatsRes(
+        long totalTickets,
+        long openTickets,
+        long resolvedTickets,
+        String avgResponseTime,
+        long avgResolutionSeconds,
+        Map<TicketStatus, Long> byStatus,
+        OffsetDateTime oldestOpenAt,
+        long backlogAgeSeconds,
+        List<DayCount> chartData,
+        List<DayResolution> resolution) {
+
+    public record DayCount(String day, long count) {}
+
+    public record DayResolution(String day, long resolved, long avgSeconds, Map<String, Long> histogram) {}
+}
@@ -0,0 +1,48 @@
+package com.funkard.support;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.security.Principal;
+
+@RestController
+@RequiredArgsConstructor
+public class SupportStreamController {
+
+    private final SupportEventBroadcaster broadcaster;
+
+    /**
+     * Stream eventi ticket filtrato per ruolo.
+     * Anche /admin/support/stream: alcuni hook del frontend omettono il prefisso /api.
+     *
+     * Utente e ruolo arrivano dall'autenticazione della richiesta; eventuali
+     * userId/role in query string vengono ignorati, altrimenti chiunque potrebbe
+     * iscriversi come SUPER_ADMIN o come un altro assegnatario. Senza utente
+     * autenticato risponde 401: uno stream anonimo non riceverebbe nulla.
+     */
+    @GetMapping(value = {"/api/admin/support/stream", "/admin/support/stream"},
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal == null || principal.getName() == null || principal.getName().isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(broadcaster.subscribe(principal.getName(), roleOf(request)));
+    }
+
+    private static String roleOf(HttpServletRequest request) {
+        if (request.isUserInRole(SupportEventBroadcaster.SUPER_ADMIN)) {
+            return SupportEventBroadcaster.SUPER_ADMIN;
+        }
+        if (request.isUserInRole(SupportEventBroadcaster.ADMIN)) {
+            return SupportEventBroadcaster.ADMIN;
+        }
+        return SupportEventBroadcaster.SUPPORT;
+    }
+}
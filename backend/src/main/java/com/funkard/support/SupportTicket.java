@@ -6,8 +6,9 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "support_tickets", indexes = {
-    @Index(name = "idx_ticket_status", columnList = "status"),
-    @Index(name = "idx_ticket_created_at", columnList = "createdAt")
+    // keyset della lista: (createdAt, id) con e senza filtro stato
+    @Index(name = "idx_ticket_created_id", columnList = "createdAt, id"),
+    @Index(name = "idx_ticket_status_created_id", columnList = "status, createdAt, id")
 })
 public class SupportTicket {
 
@@ -31,10 +32,18 @@ public class SupportTicket {
     @Column(length = 200)
     private String adminNote;
 
+    @Column(length = 120)
+    private String assignedTo; // id/email dello staff support assegnato
+
     private OffsetDateTime createdAt = OffsetDateTime.now();
     private OffsetDateTime updatedAt;
     private OffsetDateTime resolvedAt;
 
+    // optimistic locking: incrementata da ogni transizione di SupportTicketService
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     // Constructors
     public SupportTicket() {}
 
@@ -95,6 +104,14 @@ public class SupportTicket {
         this.adminNote = adminNote;
     }
 
+    public String getAssignedTo() {
+        return assignedTo;
+    }
+
+    public void setAssignedTo(String assignedTo) {
+        this.assignedTo = assignedTo;
+    }
+
     public OffsetDateTime getCreatedAt() {
         return createdAt;
     }
@@ -118,4 +135,12 @@ public class SupportTicket {
     public void setResolvedAt(OffsetDateTime resolvedAt) {
         this.resolvedAt = resolvedAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
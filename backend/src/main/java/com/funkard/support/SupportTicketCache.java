@@ -0,0 +1,81 @@
+package com.funkard.support;
+
+import com.funkard.admin.service.CacheStatsSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache read-through per GET /api/support/{id}.
+ *
+ * Invalidata per id dopo il commit da ogni SupportTicketEvent (cambio stato,
+ * nota, assegnazione). Le scritture di SupportTicketService leggono sempre dal
+ * repository, mai dalla cache.
+ */
+@Component
+public class SupportTicketCache {
+
+    private final SupportTicketRepository repo;
+    private final Cache<UUID, SupportTicket> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong generation = new AtomicLong(); // +1 a ogni invalidazione
+
+    public SupportTicketCache(SupportTicketRepository repo,
+                              @Value("${funkard.support.cache.max-size:10000}") long maxSize,
+                              @Value("${funkard.support.cache.ttl-ms:300000}") long ttlMs,
+                              MeterRegistry registry) {
+        this.repo = repo;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "support_tickets");
+    }
+
+    /**
+     * Query fuori dalla cache, come in NotificationCache: il loader di
+     * cache.get(id, loader) girerebbe sotto un lock synchronized
+     */
+    public Optional<SupportTicket> get(UUID id) {
+        SupportTicket cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long seen = generation.get();
+        Optional<SupportTicket> loaded = repo.findById(id);
+        loaded.ifPresent(t -> {
+            cache.put(id, t);
+            if (generation.get() != seen) {
+                cache.invalidate(id);
+            }
+        });
+        return loaded;
+    }
+
+    public void evict(UUID id) {
+        invalidations.incrementAndGet();
+        generation.incrementAndGet();
+        cache.invalidate(id);
+    }
+
+    public CacheStatsSnapshot stats() {
+        return CacheStatsSnapshot.of(cache, invalidations.get());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketEvent(SupportTicketEvent event) {
+        if (!SupportTicketEvent.NEW_TICKET.equals(event.event())) {
+            evict(event.id());
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.funkard.support;
 
+import com.funkard.admin.controller.IfMatch;
+import com.funkard.admin.service.CacheStatsSnapshot;
+import com.funkard.admin.service.CursorPage;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.security.Principal;
 import java.util.UUID;
 
 @RestController
@@ -19,22 +26,60 @@ public class SupportTicketController {
         return ResponseEntity.ok(ticket);
     }
 
+    /**
+     * Lista paginata keyset, dal ticket più recente
+     * GET /api/support?cursor=&limit=50&status=&email=&subject=
+     */
     @GetMapping
-    public List<SupportTicket> list(
+    public ResponseEntity<CursorPage<SupportTicket>> list(
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String email,
-            @RequestParam(required = false) String subject) {
+            @RequestParam(required = false) String subject,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
         
-        if (status != null) {
-            TicketStatus ticketStatus = TicketStatus.valueOf(status.toUpperCase());
-            return service.findByStatus(ticketStatus);
+        try {
+            return ResponseEntity.ok(service.page(parseStatus(status), email, subject, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
+    }
+
+    /**
+     * Export completo in NDJSON, in streaming (stessi filtri della lista)
+     * GET /api/support/export?status=&email=&subject=
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String subject) {
         
-        if (email != null || subject != null) {
-            return service.findByFilters(null, email, subject);
+        TicketStatus ticketStatus;
+        try {
+            ticketStatus = parseStatus(status);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
+        StreamingResponseBody body = out -> service.export(ticketStatus, email, subject, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"support-tickets.ndjson\"")
+                .body(body);
+    }
+
+    @GetMapping("/search")
+    public TicketSearchPage search(
+            @RequestParam String q,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         
-        return service.findAll();
+        return service.search(q, parseStatus(status), page, size);
+    }
+
+    @GetMapping("/cache/stats")
+    public CacheStatsSnapshot cacheStats() {
+        return service.cacheStats();
     }
 
     @GetMapping("/{id}")
@@ -43,26 +88,96 @@ public class SupportTicketController {
         return ResponseEntity.ok(ticket);
     }
 
+    /**
+     * Header opzionale If-Match con la versione letta: se il ticket è cambiato -> 409.
+     * La nota, se presente, va nel thread con autore il Principal (senza -> 401)
+     */
     @PostMapping("/{id}/status")
     public ResponseEntity<SupportTicket> updateStatus(
             @PathVariable UUID id, 
-            @RequestBody TicketStatusRequest req) {
+            @RequestBody TicketStatusRequest req,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
+            Principal principal) {
         
-        TicketStatus status = TicketStatus.valueOf(req.status().toUpperCase());
-        SupportTicket ticket = service.updateStatus(id, status, req.note());
+        TicketStatus status = parseStatus(req.status());
+        if (status == null) {
+            throw new IllegalArgumentException("Stato mancante");
+        }
+        boolean withNote = req.note() != null && !req.note().isBlank();
+        if (withNote && principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        SupportTicket ticket = service.updateStatus(id, status, req.note(),
+                withNote ? principal.getName() : null, IfMatch.version(ifMatch));
         return ResponseEntity.ok(ticket);
     }
 
+    /**
+     * Aggiunge una nota al thread (append-only). L'autore è sempre il Principal:
+     * senza utente autenticato 401, nota vuota 400
+     */
     @PostMapping("/{id}/note")
-    public ResponseEntity<SupportTicket> addNote(
+    public ResponseEntity<TicketNote> addNote(
+            @PathVariable UUID id, 
+            @RequestBody NoteRequest req,
+            Principal principal) {
+        
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        TicketNote note = service.addNote(id, principal.getName(), req.note());
+        return ResponseEntity.status(HttpStatus.CREATED).body(note);
+    }
+
+    /**
+     * Thread del ticket dalla nota più recente
+     * GET /api/support/{id}/notes?cursor=&limit=20
+     */
+    @GetMapping("/{id}/notes")
+    public ResponseEntity<CursorPage<TicketNote>> notes(
+            @PathVariable UUID id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        try {
+            return ResponseEntity.ok(service.notes(id, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/{id}/assign")
+    public ResponseEntity<SupportTicket> assign(
             @PathVariable UUID id, 
-            @RequestBody NoteRequest req) {
+            @RequestBody AssignRequest req,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
         
-        SupportTicket ticket = service.addNote(id, req.note());
+        SupportTicket ticket = service.assign(id, req.assignedTo(), IfMatch.version(ifMatch));
         return ResponseEntity.ok(ticket);
     }
+
+    /**
+     * Transizione concorrente o versione If-Match vecchia
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Void> conflict() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    /**
+     * Stato, If-Match o nota non validi (es. status "CHIUSO", If-Match "abc", nota vuota)
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> badRequest() {
+        return ResponseEntity.badRequest().build();
+    }
+
+    private static TicketStatus parseStatus(String status) {
+        return status != null && !status.isBlank() ? TicketStatus.valueOf(status.toUpperCase()) : null;
+    }
 }
 
 record SupportTicketRequest(String email, String subject, String message) {}
 record TicketStatusRequest(String status, String note) {}
 record NoteRequest(String note) {}
+record AssignRequest(String assignedTo) {}
@@ -0,0 +1,103 @@
+package com.funkard.support;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Evento ticket pubblicato da SupportTicketService e inoltrato sullo stream
+ * /api/admin/support/stream. {@code event} è il nome SSE, {@code type} il
+ * discriminatore letto da useSupportStream.
+ *
+ * @param sender         autore della nota (solo new-message)
+ * @param preview        inizio della nota (solo new-message)
+ * @param previousStatus stato prima della modifica (null per un nuovo ticket), per SupportStats
+ */
+public record SupportTicketEvent(
+        String event,
+        String type,
+        UUID id,
+        String email,
+        String subject,
+        TicketStatus status,
+        String assignedTo,
+        String note,
+        OffsetDateTime updatedAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String sender,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String preview,
+        @JsonIgnore TicketStatus previousStatus,
+        @JsonIgnore OffsetDateTime createdAt,
+        @JsonIgnore OffsetDateTime resolvedAt) {
+
+    public static final String NEW_TICKET = "new-ticket";
+    public static final String TICKET_UPDATE = "ticket-update";
+    public static final String TICKET_RESOLVED = "ticket-resolved";
+    public static final String TICKET_ASSIGNED = "ticket-assigned";
+    public static final String NEW_MESSAGE = "new-message";
+
+    static final int PREVIEW_LENGTH = 140;
+
+    public static SupportTicketEvent of(String event, String type, SupportTicket t, String note) {
+        return of(event, type, t, note, NEW_TICKET.equals(event) ? null : t.getStatus());
+    }
+
+    public static SupportTicketEvent of(String event, String type, SupportTicket t, String note,
+                                        TicketStatus previousStatus) {
+        return new SupportTicketEvent(
+                event,
+                type,
+                t.getId(),
+                t.getEmail(),
+                t.getSubject(),
+                t.getStatus(),
+                t.getAssignedTo(),
+                note,
+                t.getUpdatedAt() != null ? t.getUpdatedAt() : t.getCreatedAt(),
+                null,
+                null,
+                previousStatus,
+                t.getCreatedAt(),
+                t.getResolvedAt());
+    }
+
+    /**
+     * Nuova nota: il payload porta autore e anteprima, mai il testo intero
+     */
+    public static SupportTicketEvent message(SupportTicket t, TicketNote note) {
+        String body = note.getBody();
+        return new SupportTicketEvent(
+                NEW_MESSAGE,
+                "NEW_MESSAGE",
+                t.getId(),
+                t.getEmail(),
+                t.getSubject(),
+                t.getStatus(),
+                t.getAssignedTo(),
+                null,
+                note.getCreatedAt(),
+                note.getAuthor(),
+                body.length() > PREVIEW_LENGTH ? body.substring(0, PREVIEW_LENGTH) + "…" : body,
+                t.getStatus(),
+                t.getCreatedAt(),
+                t.getResolvedAt());
+    }
+
+    /**
+     * Alias di id letto dagli hook per new-message
+     */
+    @JsonProperty("ticketId")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public UUID ticketId() {
+        return NEW_MESSAGE.equals(event) ? id : null;
+    }
+
+    /**
+     * Eventi visibili solo a SUPER_ADMIN e ADMIN (nessun assegnatario ancora)
+     */
+    boolean staffOnly() {
+        return NEW_TICKET.equals(event);
+    }
+}
@@ -0,0 +1,18 @@
+package com.funkard.support;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lista ticket paginata keyset con filtri opzionali (Criteria API)
+ */
+public interface SupportTicketPageRepository {
+
+    /**
+     * Ticket più vecchi di (createdAt, id), dal più recente; senza cursor dalla testa.
+     * I filtri null non generano predicati.
+     */
+    List<SupportTicket> pageBefore(TicketStatus status, String email, String subject,
+                                   OffsetDateTime createdAt, UUID id, int limit);
+}
@@ -0,0 +1,53 @@
+package com.funkard.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+class SupportTicketPageRepositoryImpl implements SupportTicketPageRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<SupportTicket> pageBefore(TicketStatus status, String email, String subject,
+                                          OffsetDateTime createdAt, UUID id, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<SupportTicket> q = cb.createQuery(SupportTicket.class);
+        Root<SupportTicket> t = q.from(SupportTicket.class);
+
+        List<Predicate> where = new ArrayList<>();
+        if (status != null) {
+            where.add(cb.equal(t.get("status"), status));
+        }
+        if (email != null) {
+            where.add(cb.like(cb.lower(t.get("email")), contains(email)));
+        }
+        if (subject != null) {
+            where.add(cb.like(cb.lower(t.get("subject")), contains(subject)));
+        }
+        if (createdAt != null) {
+            where.add(cb.or(
+                    cb.lessThan(t.get("createdAt"), createdAt),
+                    cb.and(cb.equal(t.get("createdAt"), createdAt), cb.lessThan(t.get("id"), id))));
+        }
+
+        q.select(t)
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(cb.desc(t.get("createdAt")), cb.desc(t.get("id")));
+        return em.createQuery(q).setMaxResults(limit).getResultList();
+    }
+
+    private static String contains(String value) {
+        return "%" + value.toLowerCase(Locale.ROOT) + "%";
+    }
+}
@@ -1,24 +1,115 @@
 package com.funkard.support;
 
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 import java.util.UUID;
 
-public interface SupportTicketRepository extends JpaRepository<SupportTicket, UUID> {
-    
-    List<SupportTicket> findByStatusOrderByCreatedAtDesc(TicketStatus status);
-    
-    @Query("SELECT t FROM SupportTicket t WHERE t.status = :status ORDER BY t.createdAt DESC")
-    List<SupportTicket> findByStatus(@Param("status") TicketStatus status);
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface SupportTicketRepository extends JpaRepository<SupportTicket, UUID>, SupportTicketPageRepository {
     
+    /**
+     * Export: cursore JDBC con fetch size, da consumare dentro una transazione
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
     @Query("SELECT t FROM SupportTicket t WHERE " +
            "(:status IS NULL OR t.status = :status) AND " +
            "(:email IS NULL OR LOWER(t.email) LIKE LOWER(CONCAT('%', :email, '%'))) AND " +
            "(:subject IS NULL OR LOWER(t.subject) LIKE LOWER(CONCAT('%', :subject, '%'))) " +
-           "ORDER BY t.createdAt DESC")
-    List<SupportTicket> findByFilters(@Param("status") TicketStatus status, 
-                                   @Param("email") String email, 
-                                   @Param("subject") String subject);
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    Stream<SupportTicket> streamByFilters(@Param("status") TicketStatus status, 
+                                          @Param("email") String email, 
+                                          @Param("subject") String subject);
+
+    /**
+     * Conteggi per stato, per il riallineamento di SupportStats
+     */
+    @Query("SELECT new com.funkard.support.TicketStatusCount(t.status, COUNT(t)) FROM SupportTicket t GROUP BY t.status")
+    List<TicketStatusCount> countByStatus();
+
+    /**
+     * Ticket creati o risolti dopo {@code since}: campioni per gli aggregati giornalieri
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.funkard.support.TicketTimes(t.status, t.createdAt, t.resolvedAt) FROM SupportTicket t " +
+           "WHERE t.createdAt >= :since OR t.resolvedAt >= :since")
+    Stream<TicketTimes> streamTimesSince(@Param("since") OffsetDateTime since);
+
+    @Query("SELECT MIN(t.createdAt) FROM SupportTicket t WHERE t.status IN :statuses")
+    OffsetDateTime findOldestCreatedAt(@Param("statuses") Collection<TicketStatus> statuses);
+
+    /**
+     * Transizione di stato condizionale, senza lock di riga: applicata solo se
+     * lo stato è ancora {@code from} (e la versione è quella attesa, se non null).
+     * L'eventuale nota va in ticket_notes (SupportTicketService.addNote).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SupportTicket t SET t.status = :to, " +
+           "t.resolvedAt = COALESCE(:resolvedAt, t.resolvedAt), " +
+           "t.updatedAt = :at, t.version = t.version + 1 " +
+           "WHERE t.id = :id AND t.status = :from")
+    int transition(@Param("id") UUID id,
+                   @Param("from") TicketStatus from,
+                   @Param("to") TicketStatus to,
+                   @Param("resolvedAt") OffsetDateTime resolvedAt,
+                   @Param("at") OffsetDateTime at);
+
+    /**
+     * Come transition, ma solo se la versione è quella attesa (If-Match)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SupportTicket t SET t.status = :to, " +
+           "t.resolvedAt = COALESCE(:resolvedAt, t.resolvedAt), " +
+           "t.updatedAt = :at, t.version = t.version + 1 " +
+           "WHERE t.id = :id AND t.status = :from AND t.version = :version")
+    int transitionAtVersion(@Param("id") UUID id,
+                            @Param("from") TicketStatus from,
+                            @Param("to") TicketStatus to,
+                            @Param("resolvedAt") OffsetDateTime resolvedAt,
+                            @Param("at") OffsetDateTime at,
+                            @Param("version") long version);
+
+    /**
+     * Nuova nota: aggiorna solo updatedAt (le note stanno in ticket_notes,
+     * la versione del ticket non cambia)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SupportTicket t SET t.updatedAt = :at WHERE t.id = :id")
+    int touch(@Param("id") UUID id, @Param("at") OffsetDateTime at);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SupportTicket t SET t.assignedTo = :assignee, t.status = :to, " +
+           "t.updatedAt = :at, t.version = t.version + 1 " +
+           "WHERE t.id = :id AND t.status = :from")
+    int assignIf(@Param("id") UUID id,
+                 @Param("assignee") String assignee,
+                 @Param("from") TicketStatus from,
+                 @Param("to") TicketStatus to,
+                 @Param("at") OffsetDateTime at);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SupportTicket t SET t.assignedTo = :assignee, t.status = :to, " +
+           "t.updatedAt = :at, t.version = t.version + 1 " +
+           "WHERE t.id = :id AND t.status = :from AND t.version = :version")
+    int assignIfAtVersion(@Param("id") UUID id,
+                          @Param("assignee") String assignee,
+                          @Param("from") TicketStatus from,
+                          @Param("to") TicketStatus to,
+                          @Param("at") OffsetDateTime at,
+                          @Param("version") long version);
 }
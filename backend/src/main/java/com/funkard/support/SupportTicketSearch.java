@@ -0,0 +1,157 @@
+package com.funkard.support;
+
+import com.funkard.admin.config.PostgresSchemaInitializer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Ricerca full-text sui ticket (email, subject, message, adminNote) e sulle
+ * loro note (ticket_notes).
+ *
+ * Su PostgreSQL usa la colonna generata search_vector con indice GIN (creati da
+ * PostgresSchemaInitializer): la colonna è aggiornata dal DB ad ogni scrittura
+ * di SupportTicketService, senza un indice esterno da tenere allineato.
+ * Ogni parola della query è un prefisso ("mar" trova "mario@..."), i risultati
+ * sono ordinati per ts_rank_cd (subject ed email pesano più del messaggio);
+ * i ticket trovati solo tramite una nota hanno rank 0.
+ *
+ * Su altri database (H2 in locale) ricade su LIKE, senza ranking.
+ */
+@Component
+public class SupportTicketSearch {
+
+    static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_TERMS = 8;
+    private static final Pattern NON_TERM = Pattern.compile("[^\\p{L}\\p{N}@._-]+");
+
+    private static final String COLUMNS =
+            "t.id, t.email, t.subject, t.status, t.assigned_to, t.created_at, t.updated_at";
+
+    // union degli id trovati dai due indici GIN (ticket e note), poi join per
+    // chiave primaria: con un OR sulle due sorgenti PostgreSQL scansionerebbe
+    // tutta support_tickets valutando la subquery delle note riga per riga.
+    // La tsquery è ripetuta come parametro (non in una CTE) perché il planner
+    // ne stimi la selettività su ogni ramo.
+    static final String FULL_TEXT = """
+            select %s, ts_rank_cd(t.search_vector, to_tsquery('simple', ?)) as rank
+            from (select s.id from support_tickets s
+                  where s.search_vector @@ to_tsquery('simple', ?)
+                  union
+                  select n.ticket_id from ticket_notes n
+                  where to_tsvector('simple', n.body) @@ to_tsquery('simple', ?)) h
+            join support_tickets t on t.id = h.id
+            where (cast(? as varchar) is null or t.status = ?)
+            order by rank desc, t.created_at desc, t.id
+            limit ? offset ?
+            """.formatted(COLUMNS);
+
+    private static final String FALLBACK = """
+            select %s, 0 as rank
+            from (select s.id from support_tickets s
+                  where lower(s.email) like ? or lower(s.subject) like ?
+                     or lower(s.message) like ? or lower(s.admin_note) like ?
+                  union
+                  select n.ticket_id from ticket_notes n where lower(n.body) like ?) h
+            join support_tickets t on t.id = h.id
+            where (cast(? as varchar) is null or t.status = ?)
+            order by t.created_at desc, t.id
+            limit ? offset ?
+            """.formatted(COLUMNS);
+
+    private static final RowMapper<TicketSearchHit> HIT = (rs, i) -> new TicketSearchHit(
+            rs.getObject("id", UUID.class),
+            rs.getString("email"),
+            rs.getString("subject"),
+            TicketStatus.valueOf(rs.getString("status")),
+            rs.getString("assigned_to"),
+            toOffset(rs.getTimestamp("created_at")),
+            toOffset(rs.getTimestamp("updated_at")),
+            rs.getDouble("rank"));
+
+    private final JdbcTemplate jdbc;
+    private final PostgresSchemaInitializer schema;
+    private volatile Boolean postgres;
+
+    public SupportTicketSearch(JdbcTemplate jdbc, PostgresSchemaInitializer schema) {
+        this.jdbc = jdbc;
+        this.schema = schema;
+    }
+
+    public TicketSearchPage search(String text, TicketStatus status, int page, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int offset = Math.max(page, 0) * limit;
+        List<String> terms = terms(text);
+        if (terms.isEmpty()) {
+            return new TicketSearchPage(List.of(), Math.max(page, 0), limit, false);
+        }
+        String st = status != null ? status.name() : null;
+
+        // una riga in più per sapere se esiste la pagina successiva
+        List<TicketSearchHit> rows;
+        if (isPostgres()) {
+            String q = toTsQuery(terms);
+            rows = jdbc.query(FULL_TEXT, HIT, q, q, q, st, st, limit + 1, offset);
+        } else {
+            String like = "%" + String.join(" ", terms) + "%";
+            rows = jdbc.query(FALLBACK, HIT, like, like, like, like, like, st, st, limit + 1, offset);
+        }
+
+        boolean hasMore = rows.size() > limit;
+        List<TicketSearchHit> items = hasMore ? rows.subList(0, limit) : rows;
+        return new TicketSearchPage(List.copyOf(items), Math.max(page, 0), limit, hasMore);
+    }
+
+    /**
+     * Normalizza la query: minuscolo, solo lettere/cifre/@._-, al massimo MAX_TERMS parole
+     */
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String t : NON_TERM.split(text.toLowerCase(Locale.ROOT))) {
+            if (!t.isEmpty() && terms.size() < MAX_TERMS) {
+                terms.add(t);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * "mario rimborso" -> 'mario':* & 'rimborso':*
+     * I termini sono già ripuliti da apici e operatori tsquery.
+     */
+    static String toTsQuery(List<String> terms) {
+        StringBuilder q = new StringBuilder();
+        for (String t : terms) {
+            if (!q.isEmpty()) {
+                q.append(" & ");
+            }
+            q.append('\'').append(t).append("':*");
+        }
+        return q.toString();
+    }
+
+    private boolean isPostgres() {
+        Boolean pg = postgres;
+        if (pg == null) {
+            pg = schema.isPostgres();
+            postgres = pg;
+        }
+        return pg;
+    }
+
+    private static OffsetDateTime toOffset(Timestamp ts) {
+        return ts != null ? ts.toInstant().atOffset(ZoneOffset.UTC) : null;
+    }
+}
@@ -1,20 +1,45 @@
 package com.funkard.support;
 
-import com.funkard.admin.notifications.AdminNotificationService;
+import com.funkard.admin.service.AdminNotificationService;
+import com.funkard.admin.service.CacheStatsSnapshot;
+import com.funkard.admin.service.CursorPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.OffsetDateTime;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Timed(SupportMetrics.SERVICE_TIMER)
 public class SupportTicketService {
 
+    static final int MAX_PAGE_SIZE = 200;
+    static final int MAX_NOTES_PAGE_SIZE = 100;
+    private static final int EXPORT_FLUSH_ROWS = 500;
+
     private final SupportTicketRepository repo;
+    private final TicketNoteRepository notes;
     private final AdminNotificationService notifications;
+    private final ApplicationEventPublisher events;
+    private final SupportTicketCache cache;
+    private final SupportTicketSearch search;
+    private final ObjectMapper mapper;
+    private final EntityManager entityManager;
+    private final SupportMetrics metrics;
 
     @Transactional
     public SupportTicket create(String email, String subject, String message) {
@@ -27,57 +52,207 @@ public class SupportTicketService {
         
         SupportTicket savedTicket = repo.save(ticket);
 
-        // Crea notifica admin
-        notifications.createAdminNotification(
+        // Notifica admin: accodata e inserita a batch dopo il commit
+        notifications.enqueueAdminNotification(
             "Nuovo ticket di supporto",
             subject,
             "high",
-            "support_ticket"
+            "support_ticket",
+            "support_ticket:" + savedTicket.getId()
         );
 
+        events.publishEvent(SupportTicketEvent.of(
+            SupportTicketEvent.NEW_TICKET, "NEW_TICKET", savedTicket, null));
+
         return savedTicket;
     }
 
-    public List<SupportTicket> findAll() {
-        return repo.findAll();
+    /**
+     * Pagina keyset (createdAt, id) dal ticket più recente, con filtri opzionali.
+     * Legge limit+1 righe per sapere se esiste una pagina successiva.
+     */
+    public CursorPage<SupportTicket> page(TicketStatus status, String email, String subject,
+                                          String cursor, int limit) {
+        TicketCursor from = TicketCursor.decode(cursor);
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        List<SupportTicket> rows = repo.pageBefore(status, emptyToNull(email), emptyToNull(subject),
+                from != null ? from.createdAt() : null, from != null ? from.id() : null, size + 1);
+
+        boolean hasMore = rows.size() > size;
+        List<SupportTicket> items = hasMore ? rows.subList(0, size) : rows;
+        metrics.rows("page", items.size());
+        String next = null;
+        if (hasMore) {
+            SupportTicket last = items.get(items.size() - 1);
+            next = new TicketCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(items, next, hasMore);
     }
 
-    public List<SupportTicket> findByStatus(TicketStatus status) {
-        return repo.findByStatusOrderByCreatedAtDesc(status);
+    /**
+     * Export NDJSON (un ticket JSON per riga) scritto direttamente sullo stream.
+     * Le righe arrivano da un cursore JDBC e vengono staccate dal persistence
+     * context dopo la scrittura: la memoria resta costante qualunque sia la tabella.
+     */
+    @Transactional(readOnly = true)
+    public long export(TicketStatus status, String email, String subject, OutputStream out) {
+        long written = 0;
+        try (Stream<SupportTicket> rows = repo.streamByFilters(status, emptyToNull(email), emptyToNull(subject))) {
+            Iterator<SupportTicket> it = rows.iterator();
+            while (it.hasNext()) {
+                SupportTicket t = it.next();
+                out.write(mapper.writeValueAsBytes(t));
+                out.write('\n');
+                entityManager.detach(t);
+                if (++written % EXPORT_FLUSH_ROWS == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            // client disconnesso: il cursore viene chiuso dal try-with-resources
+            throw new UncheckedIOException(e);
+        }
+        metrics.rows("export", (int) Math.min(written, Integer.MAX_VALUE));
+        return written;
     }
 
-    public List<SupportTicket> findByFilters(TicketStatus status, String email, String subject) {
-        return repo.findByFilters(status, email, subject);
+    /**
+     * Ricerca full-text ordinata per rilevanza (email, subject, message, adminNote)
+     */
+    public TicketSearchPage search(String text, TicketStatus status, int page, int size) {
+        TicketSearchPage result = search.search(text, status, page, size);
+        metrics.rows("search", result.items().size());
+        return result;
     }
 
+    /**
+     * Lettura per id tramite SupportTicketCache (solo per le risposte GET)
+     */
     public SupportTicket findById(UUID id) {
+        return cache.get(id).orElseThrow(() -> 
+            new RuntimeException("Ticket non trovato: " + id));
+    }
+
+    public CacheStatsSnapshot cacheStats() {
+        return cache.stats();
+    }
+
+    // Le scritture modificano sempre l'entity letta dal DB, mai quella in cache
+    private SupportTicket load(UUID id) {
         return repo.findById(id).orElseThrow(() -> 
             new RuntimeException("Ticket non trovato: " + id));
     }
 
+    /**
+     * Cambio stato con UPDATE condizionale sullo stato letto (nessun lock):
+     * se un altro admin lo ha cambiato nel frattempo, o la versione attesa è
+     * vecchia, la transizione fallisce con un conflitto (409).
+     * Una nota non vuota entra nel thread tramite addNote, nella stessa transazione.
+     */
     @Transactional
-    public SupportTicket updateStatus(UUID id, TicketStatus status, String note) {
-        SupportTicket ticket = findById(id);
-        ticket.setStatus(status);
-        ticket.setAdminNote(note);
-        ticket.setUpdatedAt(OffsetDateTime.now());
-        
+    public SupportTicket updateStatus(UUID id, TicketStatus status, String note, String author,
+                                      Long expectedVersion) {
+        TicketStatus previous = load(id).getStatus();
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime resolvedAt = status == TicketStatus.RESOLVED ? now : null;
+        int updated = expectedVersion == null
+                ? repo.transition(id, previous, status, resolvedAt, now)
+                : repo.transitionAtVersion(id, previous, status, resolvedAt, now, expectedVersion);
+        if (updated == 0) {
+            throw conflict(id);
+        }
+        if (note != null && !note.isBlank()) {
+            addNote(id, author, note);
+        }
+
+        SupportTicket saved = load(id);
         if (status == TicketStatus.RESOLVED) {
-            ticket.setResolvedAt(OffsetDateTime.now());
+            events.publishEvent(SupportTicketEvent.of(
+                SupportTicketEvent.TICKET_RESOLVED, "TICKET_CLOSED", saved, note, previous));
+        } else {
+            events.publishEvent(SupportTicketEvent.of(
+                SupportTicketEvent.TICKET_UPDATE, "TICKET_STATUS_CHANGED", saved, note, previous));
         }
-        
-        return repo.save(ticket);
+        return saved;
     }
 
+    /**
+     * Aggiunge una nota al thread del ticket: un insert su ticket_notes più
+     * l'aggiornamento di updatedAt, senza riscrivere le note esistenti.
+     * Pubblica new-message con autore e anteprima.
+     *
+     * @throws IllegalArgumentException se nota o autore mancano
+     */
     @Transactional
-    public SupportTicket addNote(UUID id, String note) {
-        SupportTicket ticket = findById(id);
-        String existingNote = ticket.getAdminNote();
-        String updatedNote = existingNote != null ? 
-            existingNote + "\n" + note : note;
-        ticket.setAdminNote(updatedNote);
-        ticket.setUpdatedAt(OffsetDateTime.now());
-        
-        return repo.save(ticket);
+    public TicketNote addNote(UUID id, String author, String note) {
+        if (note == null || note.isBlank()) {
+            throw new IllegalArgumentException("Nota vuota");
+        }
+        if (author == null || author.isBlank()) {
+            throw new IllegalArgumentException("Autore mancante");
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        if (repo.touch(id, now) == 0) {
+            throw new RuntimeException("Ticket non trovato: " + id);
+        }
+        TicketNote saved = notes.save(new TicketNote(id, author, note, now));
+        events.publishEvent(SupportTicketEvent.message(load(id), saved));
+        return saved;
+    }
+
+    /**
+     * Note dalla più recente; {@code cursor} = nextCursor della pagina precedente
+     */
+    public CursorPage<TicketNote> notes(UUID id, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_NOTES_PAGE_SIZE));
+        PageRequest page = PageRequest.of(0, size + 1);
+        List<TicketNote> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = notes.findByTicketIdOrderByIdDesc(id, page);
+        } else {
+            rows = notes.findByTicketIdAndIdLessThanOrderByIdDesc(id, parseNoteCursor(cursor), page);
+        }
+
+        boolean hasMore = rows.size() > size;
+        List<TicketNote> items = hasMore ? rows.subList(0, size) : rows;
+        metrics.rows("notes", items.size());
+        String next = hasMore ? String.valueOf(items.get(items.size() - 1).getId()) : null;
+        return new CursorPage<>(items, next, hasMore);
+    }
+
+    private static long parseNoteCursor(String cursor) {
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor non valido: " + cursor);
+        }
+    }
+
+    @Transactional
+    public SupportTicket assign(UUID id, String assignee, Long expectedVersion) {
+        TicketStatus previous = load(id).getStatus();
+        TicketStatus next = previous == TicketStatus.NEW ? TicketStatus.IN_PROGRESS : previous;
+        OffsetDateTime now = OffsetDateTime.now();
+        int updated = expectedVersion == null
+                ? repo.assignIf(id, assignee, previous, next, now)
+                : repo.assignIfAtVersion(id, assignee, previous, next, now, expectedVersion);
+        if (updated == 0) {
+            throw conflict(id);
+        }
+
+        SupportTicket saved = load(id);
+        events.publishEvent(SupportTicketEvent.of(
+            SupportTicketEvent.TICKET_ASSIGNED, "TICKET_ASSIGNED", saved, null, previous));
+        return saved;
+    }
+
+    private static OptimisticLockingFailureException conflict(UUID id) {
+        return new OptimisticLockingFailureException("Ticket modificato da un altro utente: " + id);
+    }
+
+    private static String emptyToNull(String s) {
+        return s == null || s.isBlank() ? null : s;
     }
 }
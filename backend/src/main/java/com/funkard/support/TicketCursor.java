@@ -0,0 +1,39 @@
+package com.funkard.support;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Posizione keyset (createdAt, id) della lista ticket, codificata come token
+ * opaco base64url. La lista è decrescente: la pagina successiva contiene le
+ * righe che precedono l'ultima vista.
+ */
+record TicketCursor(OffsetDateTime createdAt, UUID id) {
+
+    String encode() {
+        Instant at = createdAt.toInstant();
+        String raw = at.getEpochSecond() + ":" + at.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return null per la prima pagina
+     */
+    static TicketCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            Instant at = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new TicketCursor(at.atOffset(ZoneOffset.UTC), UUID.fromString(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor non valido: " + token);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.funkard.support;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Messaggio/nota di un ticket (append-only).
+ * Sostituisce la concatenazione in support_tickets.admin_note: ogni nota è un
+ * insert, il thread non viene mai riscritto né caricato per intero.
+ */
+@Entity
+@Immutable
+@Table(name = "ticket_notes", indexes = {
+    @Index(name = "idx_ticket_notes_ticket", columnList = "ticket_id, id")
+})
+public class TicketNote {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "ticket_id", nullable = false, updatable = false)
+    private UUID ticketId;
+
+    @Column(nullable = false, length = 120, updatable = false)
+    private String author;
+
+    @Column(nullable = false, columnDefinition = "text", updatable = false)
+    private String body;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    // Constructors
+    public TicketNote() {}
+
+    public TicketNote(UUID ticketId, String author, String body, OffsetDateTime createdAt) {
+        this.ticketId = ticketId;
+        this.author = author;
+        this.body = body;
+        this.createdAt = createdAt;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getTicketId() {
+        return ticketId;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
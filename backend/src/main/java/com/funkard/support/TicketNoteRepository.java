@@ -0,0 +1,20 @@
+package com.funkard.support;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface TicketNoteRepository extends JpaRepository<TicketNote, Long> {
+
+    /**
+     * Ultime note di un ticket, dalla più recente
+     */
+    List<TicketNote> findByTicketIdOrderByIdDesc(UUID ticketId, Pageable page);
+
+    /**
+     * Note precedenti a {@code beforeId} (pagina successiva, keyset sull'id)
+     */
+    List<TicketNote> findByTicketIdAndIdLessThanOrderByIdDesc(UUID ticketId, Long beforeId, Pageable page);
+}
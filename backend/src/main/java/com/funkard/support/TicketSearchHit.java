@@ -0,0 +1,19 @@
+package com.funkard.support;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Risultato della ricerca full-text: solo i campi della lista, senza il testo
+ * del messaggio. {@code rank} è 0 sul fallback non PostgreSQL.
+ */
+public record TicketSearchHit(
+        UUID id,
+        String email,
+        String subject,
+        TicketStatus status,
+        String assignedTo,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt,
+        double rank) {
+}
@@ -0,0 +1,9 @@
+package com.funkard.support;
+
+import java.util.List;
+
+/**
+ * Pagina di risultati ordinati per rilevanza
+ */
+public record TicketSearchPage(List<TicketSearchHit> items, int page, int size, boolean hasMore) {
+}
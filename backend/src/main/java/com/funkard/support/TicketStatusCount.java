@@ -0,0 +1,4 @@
+package com.funkard.support;
+
+public record TicketStatusCount(TicketStatus status, long count) {
+}
@@ -0,0 +1,9 @@
+package com.funkard.support;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Date di un ticket senza il resto dell'entity (riallineamento statistiche)
+ */
+public record TicketTimes(TicketStatus status, OffsetDateTime createdAt, OffsetDateTime resolvedAt) {
+}
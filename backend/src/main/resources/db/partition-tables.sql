@@ -0,0 +1,102 @@
+-- Conversione una tantum in tabelle partizionate per mese (solo PostgreSQL).
+--
+--   psql "$DATABASE_URL" --single-transaction -v ON_ERROR_STOP=1 -f partition-tables.sql
+--
+-- Da eseguire in una finestra di manutenzione: ogni tabella resta bloccata
+-- per tutta la copia. Con --single-transaction un errore annulla tutto. Le
+-- tabelle già partizionate vengono saltate, quindi lo script si può
+-- rilanciare. Dopo la conversione PartitionManager crea le partizioni future
+-- e applica la retention; l'applicazione non converte mai da sola.
+--
+-- - admin_notifications_archive: per archived_at (impostato allo spostamento
+--   in archivio, mai null).
+-- - support_tickets: per created_at. Le righe con created_at null (colonna
+--   nullable nello schema JPA) prendono updated_at, resolved_at o now():
+--   la chiave primaria diventa (id, created_at) e non ammette null.
+--
+-- La chiave primaria include la colonna di partizione, quindi il database
+-- non garantisce più l'unicità del solo id: resta unico perché copiato dalla
+-- tabella calda (archivio) o generato come UUID (ticket).
+
+create or replace function pg_temp.funkard_partition_by_month(tbl text, col text) returns void
+language plpgsql as $$
+declare
+  legacy text := tbl || '_unpartitioned';
+  pkey text;
+  defs text[];
+  def text;
+  cols text;
+  nulls bigint;
+  first_month date;
+  last_month date;
+  m date;
+  copied bigint;
+begin
+  if not exists (select 1 from pg_class
+                 where relname = tbl and relnamespace = 'public'::regnamespace and relkind = 'r') then
+    raise notice '% già partizionata o assente: saltata', tbl;
+    return;
+  end if;
+
+  execute format('select count(*) from public.%I where %I is null', tbl, col) into nulls;
+  if nulls > 0 then
+    raise exception '% righe di % con % null: vanno valorizzate prima della conversione', nulls, tbl, col;
+  end if;
+
+  -- indici secondari (anche GIN e su colonne generate), ricreati sulla nuova tabella
+  select array_agg(pg_get_indexdef(i.indexrelid)) into defs
+  from pg_index i
+  where i.indrelid = format('public.%I', tbl)::regclass and not i.indisprimary;
+
+  select string_agg(quote_ident(column_name), ', ' order by ordinal_position) into cols
+  from information_schema.columns
+  where table_schema = 'public' and table_name = tbl and is_generated = 'NEVER';
+
+  execute format('alter table public.%I rename to %I', tbl, legacy);
+  -- il nome {tabella}_pkey serve alla nuova chiave primaria
+  select conname into pkey from pg_constraint
+  where conrelid = format('public.%I', legacy)::regclass and contype = 'p';
+  if pkey is not null then
+    execute format('alter table public.%I rename constraint %I to %I', legacy, pkey, legacy || '_pkey');
+  end if;
+
+  execute format('create table public.%I (like public.%I including defaults including constraints'
+                 ' including generated including storage) partition by range (%I)', tbl, legacy, col);
+  execute format('alter table public.%I add primary key (id, %I)', tbl, col);
+  execute format('create table public.%I partition of public.%I default', tbl || '_default', tbl);
+
+  -- un mese per ogni mese presente, fino al corrente: la default resta vuota
+  execute format('select date_trunc(''month'', min(%1$I) at time zone ''UTC'')::date,'
+                 ' date_trunc(''month'', max(%1$I) at time zone ''UTC'')::date from public.%2$I', col, legacy)
+    into first_month, last_month;
+  m := least(coalesce(first_month, 'infinity'), date_trunc('month', now() at time zone 'UTC')::date);
+  last_month := greatest(coalesce(last_month, m), date_trunc('month', now() at time zone 'UTC')::date);
+  while m <= last_month loop
+    execute format('create table public.%I partition of public.%I for values from (%L) to (%L)',
+                   tbl || '_p' || to_char(m, 'YYYY_MM'), tbl,
+                   m::text || ' 00:00:00+00', (m + interval '1 month')::date::text || ' 00:00:00+00');
+    m := (m + interval '1 month')::date;
+  end loop;
+
+  execute format('insert into public.%I (%s) select %s from public.%I', tbl, cols, cols, legacy);
+  get diagnostics copied = row_count;
+  execute format('drop table public.%I', legacy);
+
+  -- stessi nomi: gli indici della vecchia tabella sono stati eliminati con essa
+  if defs is not null then
+    foreach def in array defs loop
+      execute replace(replace(def, ' ON public.' || legacy || ' ', ' ON public.' || tbl || ' '),
+                      ' ON ' || legacy || ' ', ' ON public.' || tbl || ' ');
+    end loop;
+  end if;
+
+  raise notice '% partizionata per mese su % (% righe copiate)', tbl, col, copied;
+end;
+$$;
+
+update support_tickets
+set created_at = coalesce(updated_at, resolved_at, now())
+where created_at is null;
+
+select pg_temp.funkard_partition_by_month('admin_notifications_archive', 'archived_at');
+select pg_temp.funkard_partition_by_month('support_tickets', 'created_at');
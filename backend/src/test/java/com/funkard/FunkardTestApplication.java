@@ -0,0 +1,11 @@
+package com.funkard;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Configurazione radice per i test slice (@DataJpaTest, @JdbcTest):
+ * il backend viene avviato dall'applicazione principale, fuori da questo modulo.
+ */
+@SpringBootApplication
+public class FunkardTestApplication {
+}
@@ -0,0 +1,59 @@
+package com.funkard;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Base dei test che richiedono PostgreSQL reale (piani di esecuzione,
+ * partizionamento): H2 non ha né EXPLAIN né tabelle partizionate.
+ *
+ * Usa un container Testcontainers condiviso tra le classi di test. Con
+ * -Dfunkard.test.postgres.url=jdbc:postgresql://... (più .user / .password)
+ * usa invece un database già avviato, es. il service container della CI.
+ * Le classi figlie vanno annotate con
+ * {@code @EnabledIf("com.funkard.PostgresTestSupport#available")}:
+ * senza Docker e senza URL vengono saltate.
+ */
+public abstract class PostgresTestSupport {
+
+  public static final String URL_PROPERTY = "funkard.test.postgres.url";
+
+  private static PostgreSQLContainer<?> container;
+
+  public static boolean available() {
+    if (System.getProperty(URL_PROPERTY) != null) {
+      return true;
+    }
+    try {
+      return DockerClientFactory.instance().isDockerAvailable();
+    } catch (RuntimeException e) {
+      return false;
+    }
+  }
+
+  @DynamicPropertySource
+  static void postgres(DynamicPropertyRegistry registry) {
+    String url = System.getProperty(URL_PROPERTY);
+    if (url != null) {
+      registry.add("spring.datasource.url", () -> url);
+      registry.add("spring.datasource.username", () -> System.getProperty(URL_PROPERTY + ".user", "postgres"));
+      registry.add("spring.datasource.password", () -> System.getProperty(URL_PROPERTY + ".password", ""));
+    } else {
+      PostgreSQLContainer<?> pg = start();
+      registry.add("spring.datasource.url", pg::getJdbcUrl);
+      registry.add("spring.datasource.username", pg::getUsername);
+      registry.add("spring.datasource.password", pg::getPassword);
+    }
+    registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+  }
+
+  private static synchronized PostgreSQLContainer<?> start() {
+    if (container == null) {
+      container = new PostgreSQLContainer<>("postgres:16-alpine");
+      container.start();
+    }
+    return container;
+  }
+}
@@ -0,0 +1,50 @@
+package com.funkard.admin.config;
+
+import com.funkard.admin.service.NotificationMetrics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricsConfigTest {
+
+  private final MeterFilter filter = new MetricsConfig().funkardDistributions();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  MetricsConfigTest() {
+    registry.config().meterFilter(filter);
+  }
+
+  @Test
+  void onlyServiceLatencyTimersGetPercentilesAndHistogram() {
+    Timer service = Timer.builder(NotificationMetrics.SERVICE_TIMER)
+        .tag("class", "AdminNotificationService").tag("method", "page")
+        .register(registry);
+    Timer other = Timer.builder("funkard.notifications.cleanup.chunk").register(registry);
+    DistributionSummary rows = DistributionSummary.builder("funkard.notifications.rows").register(registry);
+    service.record(Duration.ofMillis(12));
+    other.record(Duration.ofMillis(12));
+    rows.record(50);
+
+    assertThat(service.takeSnapshot().percentileValues()).hasSize(3);
+    assertThat(other.takeSnapshot().percentileValues()).isEmpty();
+    assertThat(rows.takeSnapshot().percentileValues()).isEmpty();
+
+    // i bucket dell'istogramma li esporta solo Prometheus: qui si controlla la configurazione
+    assertThat(histogram(service.getId())).isTrue();
+    assertThat(histogram(other.getId())).isFalse();
+    assertThat(histogram(rows.getId())).isFalse();
+  }
+
+  private boolean histogram(Meter.Id id) {
+    Boolean enabled = filter.configure(id, DistributionStatisticConfig.DEFAULT).isPercentileHistogram();
+    return Boolean.TRUE.equals(enabled);
+  }
+}
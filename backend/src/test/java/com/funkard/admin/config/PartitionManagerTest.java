@@ -0,0 +1,163 @@
+package com.funkard.admin.config;
+
+import com.funkard.PostgresTestSupport;
+import com.funkard.admin.model.GzipTextConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Migrazione db/partition-tables.sql e retention a partizioni su PostgreSQL.
+ * Tutto gira nella transazione del test, DDL compresi, e viene annullato.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIf("com.funkard.PostgresTestSupport#available")
+class PartitionManagerTest extends PostgresTestSupport {
+
+  private static final YearMonth NOW = YearMonth.now(ZoneOffset.UTC);
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  @Autowired
+  private PlatformTransactionManager txManager;
+
+  private PartitionManager manager;
+
+  @BeforeEach
+  void setUp() {
+    manager = new PartitionManager(jdbc, new TransactionTemplate(txManager),
+        new PostgresSchemaInitializer(jdbc), true, 3, 30, 24);
+  }
+
+  @Test
+  void startupDoesNotConvertPlainTables() {
+    manager.init();
+
+    assertThat(manager.isPartitioned(PartitionManager.NOTIFICATION_ARCHIVE)).isFalse();
+    assertThat(manager.isPartitioned(PartitionManager.SUPPORT_TICKETS)).isFalse();
+  }
+
+  @Test
+  void migrationBackfillsNullCreatedAtAndCanBeRerun() throws IOException {
+    UUID legacy = ticket(null);
+    ticket(at(NOW.minusMonths(2)));
+    archived(1, at(NOW.minusMonths(1)), at(NOW.minusMonths(1)));
+
+    migrate();
+    migrate();
+
+    assertThat(manager.isPartitioned(PartitionManager.NOTIFICATION_ARCHIVE)).isTrue();
+    assertThat(manager.isPartitioned(PartitionManager.SUPPORT_TICKETS)).isTrue();
+    assertThat(count("support_tickets")).isEqualTo(2);
+    assertThat(count("admin_notifications_archive")).isEqualTo(1);
+    assertThat(jdbc.queryForObject("select created_at is not null from support_tickets where id = ?",
+        Boolean.class, legacy)).isTrue();
+    assertThat(manager.partitions(PartitionManager.SUPPORT_TICKETS))
+        .contains(PartitionManager.partitionName(PartitionManager.SUPPORT_TICKETS, NOW.minusMonths(2)),
+            PartitionManager.partitionName(PartitionManager.SUPPORT_TICKETS, NOW));
+    assertThat(count("support_tickets_default")).isZero();
+  }
+
+  @Test
+  void expiredArchivePartitionIsDroppedOnlyWhenEveryRowIsPastRetention() throws IOException {
+    YearMonth resolvedMonth = NOW.minusMonths(6);
+    YearMonth openMonth = NOW.minusMonths(5);
+    archived(1, at(resolvedMonth), at(resolvedMonth));
+    archived(2, at(resolvedMonth), at(resolvedMonth));
+    archived(3, at(openMonth), null);
+    archived(4, at(openMonth), at(openMonth));
+    action(1);
+    action(3);
+    action(4);
+    migrate();
+
+    manager.maintain();
+
+    assertThat(manager.partitions(PartitionManager.NOTIFICATION_ARCHIVE))
+        .doesNotContain(PartitionManager.partitionName(PartitionManager.NOTIFICATION_ARCHIVE, resolvedMonth))
+        .contains(PartitionManager.partitionName(PartitionManager.NOTIFICATION_ARCHIVE, openMonth),
+            PartitionManager.partitionName(PartitionManager.NOTIFICATION_ARCHIVE, NOW.plusMonths(3)));
+    // la riga non risolta tiene in vita la partizione: le altre le elimina il cleanup a righe
+    assertThat(jdbc.queryForList("select id from admin_notifications_archive order by id", Long.class))
+        .containsExactly(3L, 4L);
+    assertThat(jdbc.queryForList("select notification_id from admin_notification_actions order by 1", Long.class))
+        .containsExactly(3L, 4L);
+  }
+
+  @Test
+  void expiredTicketPartitionIsDetachedWithItsNotes() throws IOException {
+    YearMonth old = NOW.minusMonths(30);
+    UUID expired = ticket(at(old));
+    UUID recent = ticket(at(NOW));
+    note(expired, "vecchia");
+    note(recent, "nuova");
+    migrate();
+
+    manager.maintain();
+
+    String partition = PartitionManager.partitionName(PartitionManager.SUPPORT_TICKETS, old);
+    assertThat(manager.partitions(PartitionManager.SUPPORT_TICKETS)).doesNotContain(partition);
+    assertThat(jdbc.queryForList("select id from support_tickets", UUID.class)).containsExactly(recent);
+    assertThat(jdbc.queryForList("select id from " + partition, UUID.class)).containsExactly(expired);
+    assertThat(jdbc.queryForList("select body from ticket_notes", String.class)).containsExactly("nuova");
+    assertThat(jdbc.queryForList("select body from " + partition + "_notes where ticket_id = ?",
+        String.class, expired)).containsExactly("vecchia");
+  }
+
+  private void migrate() throws IOException {
+    jdbc.execute(new ClassPathResource(PartitionManager.MIGRATION).getContentAsString(StandardCharsets.UTF_8));
+  }
+
+  private UUID ticket(Timestamp createdAt) {
+    UUID id = UUID.randomUUID();
+    jdbc.update("""
+        insert into support_tickets (id, email, subject, message, status, created_at, updated_at, version)
+        values (?, 'user@funkard.com', 'oggetto', 'testo', 'NEW', ?, ?, 0)
+        """, id, createdAt, createdAt == null ? at(NOW.minusMonths(1)) : createdAt);
+    return id;
+  }
+
+  private void note(UUID ticket, String body) {
+    jdbc.update("insert into ticket_notes (ticket_id, author, body, created_at) values (?, 'support', ?, now())",
+        ticket, body);
+  }
+
+  private void archived(long id, Timestamp archivedAt, Timestamp resolvedAt) {
+    jdbc.update("""
+        insert into admin_notifications_archive
+          (id, type, priority, title, message_gz, read_status, created_at, resolved_at, occurrences, archived_at)
+        values (?, 'errore', 'alta', 'n', ?, true, ?, ?, 1, ?)
+        """, id, GzipTextConverter.compress("m"), archivedAt, resolvedAt, archivedAt);
+  }
+
+  private void action(long notificationId) {
+    jdbc.update("insert into admin_notification_actions (notification_id, user_name, action, at) "
+        + "values (?, 'admin', 'archive', now())", notificationId);
+  }
+
+  private long count(String table) {
+    return jdbc.queryForObject("select count(*) from " + table, Long.class);
+  }
+
+  private static Timestamp at(YearMonth month) {
+    return Timestamp.from(month.atDay(10).atStartOfDay(ZoneOffset.UTC).toInstant().plusSeconds(3600));
+  }
+}
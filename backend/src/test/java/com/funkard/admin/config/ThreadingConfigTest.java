@@ -0,0 +1,40 @@
+package com.funkard.admin.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ThreadingConfigTest {
+
+  @Test
+  void withoutPoolPropertiesHikariSettingsAreKept() {
+    HikariDataSource ds = new HikariDataSource();
+    ds.setMaximumPoolSize(50);
+    ds.setConnectionTimeout(30_000);
+
+    ThreadingConfig.hikariTuning(new MockEnvironment()).postProcessAfterInitialization(ds, "dataSource");
+
+    assertThat(ds.getMaximumPoolSize()).isEqualTo(50);
+    assertThat(ds.getConnectionTimeout()).isEqualTo(30_000);
+  }
+
+  @Test
+  void onlyExplicitPoolPropertiesOverrideHikari() {
+    HikariDataSource ds = new HikariDataSource();
+    ds.setMaximumPoolSize(50);
+    ds.setMaxLifetime(600_000);
+    MockEnvironment env = new MockEnvironment()
+        .withProperty("funkard.db.pool.max-size", "8")
+        .withProperty("funkard.db.pool.min-idle", "12")
+        .withProperty("funkard.db.pool.connection-timeout-ms", "3000");
+
+    ThreadingConfig.hikariTuning(env).postProcessAfterInitialization(ds, "dataSource");
+
+    assertThat(ds.getMaximumPoolSize()).isEqualTo(8);
+    assertThat(ds.getMinimumIdle()).isEqualTo(8);
+    assertThat(ds.getConnectionTimeout()).isEqualTo(3000);
+    assertThat(ds.getMaxLifetime()).isEqualTo(600_000);
+  }
+}
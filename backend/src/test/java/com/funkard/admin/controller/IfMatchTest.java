@@ -0,0 +1,52 @@
+package com.funkard.admin.controller;
+
+import com.funkard.admin.service.AdminNotificationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class IfMatchTest {
+
+  @Test
+  void acceptsStrongWeakAndBareVersions() {
+    assertThat(IfMatch.version("\"3\"")).isEqualTo(3L);
+    assertThat(IfMatch.version("W/\"3\"")).isEqualTo(3L);
+    assertThat(IfMatch.version(" 3 ")).isEqualTo(3L);
+    assertThat(IfMatch.version(null)).isNull();
+    assertThat(IfMatch.version(" ")).isNull();
+    assertThat(IfMatch.version("*")).isNull();
+  }
+
+  @Test
+  void rejectsAnythingElse() {
+    for (String bad : new String[] {"\"abc\"", "\"3", "3\"\"", "-1", "\"1\", \"2\"", "W/", "99999999999999999999"}) {
+      assertThatThrownBy(() -> IfMatch.version(bad)).as(bad).isInstanceOf(IllegalArgumentException.class);
+    }
+  }
+
+  @Test
+  void adminEndpointsAnswerBadRequestToMalformedIfMatch() throws Exception {
+    AdminNotificationService service = mock(AdminNotificationService.class);
+    MockMvc mvc = MockMvcBuilders.standaloneSetup(new AdminNotificationsController(service)).build();
+
+    for (String action : new String[] {"read", "resolve", "archive"}) {
+      mvc.perform(post("/api/admin/notifications/{id}/" + action, 1L).header("If-Match", "\"abc\""))
+          .andExpect(status().isBadRequest());
+    }
+    verifyNoInteractions(service);
+
+    mvc.perform(post("/api/admin/notifications/{id}/read", 1L).header("If-Match", "W/\"4\""))
+        .andExpect(status().isOk());
+    verify(service).markRead(eq(1L), anyString(), eq(4L));
+  }
+}
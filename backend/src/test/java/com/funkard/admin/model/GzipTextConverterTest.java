@@ -0,0 +1,44 @@
+package com.funkard.admin.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GzipTextConverterTest {
+
+  @Test
+  void shortTextIsStoredAsPlainUtf8() {
+    String text = "Errore grading: carta già valutata";
+
+    byte[] stored = GzipTextConverter.compress(text);
+
+    assertThat(stored).isEqualTo(text.getBytes(StandardCharsets.UTF_8));
+    assertThat(GzipTextConverter.decompress(stored)).isEqualTo(text);
+  }
+
+  @Test
+  void longTextIsCompressed() {
+    String text = "stack trace ".repeat(200);
+
+    byte[] stored = GzipTextConverter.compress(text);
+
+    assertThat(stored.length).isLessThan(text.length());
+    assertThat(stored[0] & 0xff).isEqualTo(0x1f);
+    assertThat(stored[1] & 0xff).isEqualTo(0x8b);
+    assertThat(GzipTextConverter.decompress(stored)).isEqualTo(text);
+  }
+
+  @Test
+  void rowsCompressedBeforeTheThresholdAreStillReadable() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+      gz.write("m".getBytes(StandardCharsets.UTF_8));
+    }
+
+    assertThat(GzipTextConverter.decompress(out.toByteArray())).isEqualTo("m");
+  }
+}
@@ -0,0 +1,51 @@
+package com.funkard.admin.repository;
+
+import com.funkard.admin.model.AdminNotification;
+import com.funkard.admin.model.BulkTarget;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class AdminNotificationFilterRepositoryTest {
+
+  @Autowired
+  private AdminNotificationRepository repo;
+
+  @Test
+  void lockBulkTargetsKeepsOnlyRowsTheActionChanges() {
+    AdminNotification unread = repo.save(new AdminNotification("errore", "alta", "a", "m"));
+    AdminNotification read = repo.save(new AdminNotification("errore", "alta", "b", "m"));
+    AdminNotification other = repo.save(new AdminNotification("mercato", "bassa", "c", "m"));
+    repo.markReadByIds(List.of(read.getId()), Instant.now());
+
+    List<BulkTarget> byIds = repo.lockBulkTargets(
+        List.of(other.getId(), read.getId(), unread.getId()), null, null, null, "read");
+    assertThat(byIds).extracting(BulkTarget::id).containsExactly(unread.getId(), other.getId());
+
+    List<BulkTarget> byFilter = repo.lockBulkTargets(null, "errore", null, null, "read");
+    assertThat(byFilter).extracting(BulkTarget::id).containsExactly(unread.getId());
+
+    List<BulkTarget> toResolve = repo.lockBulkTargets(null, "errore", null, null, "resolve");
+    assertThat(toResolve).extracting(BulkTarget::id).containsExactly(unread.getId(), read.getId());
+  }
+
+  @Test
+  void conditionalUpdatesCheckVersionOnlyInVersionedVariant() {
+    AdminNotification n = repo.save(new AdminNotification("errore", "alta", "a", "m"));
+    long version = repo.findById(n.getId()).orElseThrow().getVersion();
+
+    assertThat(repo.markReadIfAtVersion(n.getId(), version + 1, Instant.now())).isZero();
+    assertThat(repo.markReadIfAtVersion(n.getId(), version, Instant.now())).isEqualTo(1);
+    assertThat(repo.markReadIf(n.getId(), Instant.now())).isZero();
+
+    assertThat(repo.resolveIf(n.getId(), Instant.now(), "admin")).isEqualTo(1);
+    assertThat(repo.archiveIfAtVersion(n.getId(), version + 1)).isZero();
+    assertThat(repo.archiveIf(n.getId())).isEqualTo(1);
+  }
+}
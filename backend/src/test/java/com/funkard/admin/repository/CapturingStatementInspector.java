@@ -0,0 +1,34 @@
+package com.funkard.admin.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registra l'SQL generato da Hibernate, per poterlo passare a EXPLAIN
+ * esattamente com'è (Criteria compresi).
+ */
+public class CapturingStatementInspector implements StatementInspector {
+
+  private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+  @Override
+  public String inspect(String sql) {
+    STATEMENTS.add(sql);
+    return sql;
+  }
+
+  static void clear() {
+    STATEMENTS.clear();
+  }
+
+  static String lastSelect() {
+    for (int i = STATEMENTS.size() - 1; i >= 0; i--) {
+      if (STATEMENTS.get(i).trim().toLowerCase().startsWith("select")) {
+        return STATEMENTS.get(i);
+      }
+    }
+    throw new IllegalStateException("Nessuna select eseguita");
+  }
+}
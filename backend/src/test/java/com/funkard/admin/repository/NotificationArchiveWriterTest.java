@@ -0,0 +1,46 @@
+package com.funkard.admin.repository;
+
+import com.funkard.admin.model.AdminNotification;
+import com.funkard.admin.model.AdminNotificationArchive;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(NotificationArchiveWriter.class)
+class NotificationArchiveWriterTest {
+
+  @Autowired
+  private AdminNotificationRepository repo;
+
+  @Autowired
+  private AdminNotificationArchiveRepository archive;
+
+  @Autowired
+  private NotificationArchiveWriter writer;
+
+  @Test
+  void archivesMessagesThatCompressToMoreThan255Bytes() {
+    // testo casuale: anche compresso resta di diversi KB
+    Random random = new Random(42);
+    StringBuilder message = new StringBuilder();
+    while (message.length() < 8_192) {
+      message.append(Long.toString(random.nextLong(), 36)).append(' ');
+    }
+    AdminNotification n = repo.save(new AdminNotification("errore", "alta", "stack trace", message.toString()));
+    repo.archiveIf(n.getId());
+
+    assertThat(writer.move(List.of(n.getId()), "admin", Instant.now())).isEqualTo(1);
+
+    AdminNotificationArchive archived = archive.findById(n.getId()).orElseThrow();
+    assertThat(archived.getMessage()).isEqualTo(message.toString());
+    assertThat(repo.findById(n.getId())).isEmpty();
+  }
+}
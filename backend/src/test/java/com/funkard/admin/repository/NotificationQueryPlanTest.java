@@ -0,0 +1,140 @@
+package com.funkard.admin.repository;
+
+import com.funkard.PostgresTestSupport;
+import com.funkard.admin.model.GzipTextConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica su PostgreSQL che le query di lista e filtro usino gli indici
+ * compositi dichiarati sulle entity: l'SQL generato da Hibernate (anche dalle
+ * Criteria) viene passato a EXPLAIN con gli stessi parametri.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+    + "com.funkard.admin.repository.CapturingStatementInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIf("com.funkard.PostgresTestSupport#available")
+class NotificationQueryPlanTest extends PostgresTestSupport {
+
+  private static final int ROWS = 60_000;
+  private static final Pattern COMPARISON = Pattern.compile("(\\w+)\\s*(?:=|<>|>=|<=|>|<)\\s*$");
+  private static final Instant START = Instant.EPOCH;
+
+  @Autowired
+  private AdminNotificationRepository repo;
+
+  @Autowired
+  private AdminNotificationArchiveRepository archive;
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  @BeforeEach
+  void seed() {
+    // ~3% non lette, 5 tipi x 4 priorità, un record ogni 100 s
+    jdbc.update("""
+        insert into admin_notifications
+          (type, priority, title, message, read_status, created_at, archived, occurrences, version)
+        select (array['errore','segnalazione','supporto','mercato','support_ticket'])[1 + g % 5],
+               (array['bassa','media','alta','critica'])[1 + (g / 5) % 4],
+               'n' || g, 'm', g % 30 <> 0, now() - g * interval '100 seconds', false, 1, 0
+        from generate_series(1, ?) g
+        """, ROWS);
+    jdbc.update("""
+        insert into admin_notifications_archive
+          (id, type, priority, title, message_gz, read_status, created_at, resolved_at,
+           occurrences, archived_at)
+        select g, (array['errore','segnalazione','supporto','mercato','support_ticket'])[1 + g % 5],
+               (array['bassa','media','alta','critica'])[1 + (g / 5) % 4],
+               'a' || g, ?, true, now() - g * interval '100 seconds',
+               now() - g * interval '50 seconds', 1, now()
+        from generate_series(1, ?) g
+        """, new GzipTextConverter().convertToDatabaseColumn("m"), ROWS);
+    jdbc.execute("analyze admin_notifications");
+    jdbc.execute("analyze admin_notifications_archive");
+    CapturingStatementInspector.clear();
+  }
+
+  @Test
+  void activeListUsesArchivedCreatedIndex() {
+    repo.findActiveAfter(START, 0L, PageRequest.of(0, 51));
+    assertThat(plan()).contains("idx_admin_notif_archived_created").doesNotContain("Seq Scan");
+  }
+
+  @Test
+  void statusFilterUsesArchivedCreatedIndex() {
+    repo.filterAfter(null, null, "attiva", START, 0L, 51);
+    assertThat(plan()).contains("idx_admin_notif_archived_created").doesNotContain("Seq Scan");
+  }
+
+  @Test
+  void typeAndPriorityFilterUsesCompositeIndex() {
+    repo.filterAfter("errore", "alta", null, START, 0L, 51);
+    assertThat(plan()).contains("idx_admin_notif_type_priority_created").doesNotContain("Seq Scan");
+  }
+
+  @Test
+  void unreadReconcileUsesUnreadIndex() {
+    repo.countUnreadBuckets();
+    assertThat(plan()).contains("idx_admin_notif_unread").doesNotContain("Seq Scan");
+  }
+
+  @Test
+  void archiveFilterUsesArchiveTypePriorityIndex() {
+    archive.filterArchivedAfter("errore", "alta", START, 0L, 51);
+    assertThat(plan()).contains("idx_admin_notif_archive_type_priority").doesNotContain("Seq Scan");
+  }
+
+  @Test
+  void archiveListUsesArchiveCreatedIndex() {
+    archive.findNewest(PageRequest.of(0, 51));
+    assertThat(plan()).contains("idx_admin_notif_archive_created").doesNotContain("Seq Scan");
+  }
+
+  /**
+   * EXPLAIN dell'ultima select eseguita, con i parametri ricostruiti dalla
+   * colonna a cui ogni "?" è confrontato
+   */
+  private String plan() {
+    String sql = CapturingStatementInspector.lastSelect();
+    Map<String, Object> byColumn = Map.of(
+        "type", "errore",
+        "priority", "alta",
+        "created_at", Timestamp.from(START),
+        "id", 0L);
+    List<Object> args = new ArrayList<>();
+    int from = 0;
+    int mark;
+    while ((mark = sql.indexOf('?', from)) >= 0) {
+      String before = sql.substring(0, mark).toLowerCase();
+      Matcher m = COMPARISON.matcher(before);
+      if (m.find()) {
+        args.add(byColumn.get(m.group(1)));
+      } else if (before.endsWith("offset ")) {
+        args.add(0);
+      } else {
+        // limit ? / fetch first ? rows only
+        args.add(51);
+      }
+      from = mark + 1;
+    }
+    List<String> lines = jdbc.queryForList("explain " + sql, String.class, args.toArray());
+    return String.join("\n", lines);
+  }
+}
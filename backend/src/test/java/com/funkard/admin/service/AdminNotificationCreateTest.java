@@ -0,0 +1,71 @@
+package com.funkard.admin.service;
+
+import com.funkard.admin.model.AdminNotification;
+import com.funkard.admin.repository.AdminNotificationActionRepository;
+import com.funkard.admin.repository.AdminNotificationArchiveRepository;
+import com.funkard.admin.repository.AdminNotificationRepository;
+import com.funkard.admin.repository.NotificationActionBatchWriter;
+import com.funkard.admin.repository.NotificationArchiveWriter;
+import com.funkard.admin.repository.NotificationBatchInserter;
+import com.funkard.admin.sse.AdminNotificationBroadcaster;
+import com.funkard.admin.sse.AdminNotificationEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+// la pipeline scrive in REQUIRES_NEW: il test non apre una transazione propria
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RecordApplicationEvents
+@Import({NotificationPipeline.class, NotificationBatchInserter.class, NotificationCoalescer.class,
+    NotificationCache.class, SimpleMeterRegistry.class})
+class AdminNotificationCreateTest {
+
+  @Autowired
+  private AdminNotificationRepository repo;
+
+  @Autowired
+  private NotificationPipeline pipeline;
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  @Autowired
+  private NotificationCache cache;
+
+  @Autowired
+  private ApplicationEvents published;
+
+  @Test
+  void identicalCreatesWithinTheWindowShareOneRow() {
+    AdminNotificationService service = service();
+
+    AdminNotification first = service.createAdminNotification("Pagamento fallito", "ordine 1", "alta", "pagamento");
+    AdminNotification second = service.createAdminNotification("Pagamento fallito", "ordine 2", "alta", "pagamento");
+
+    assertThat(second.getId()).isEqualTo(first.getId());
+    assertThat(second.getOccurrences()).isEqualTo(2);
+    assertThat(jdbc.queryForObject("select count(*) from admin_notifications where title = 'Pagamento fallito'",
+        Integer.class)).isEqualTo(1);
+    assertThat(published.stream(AdminNotificationEvent.class)).hasSize(1);
+  }
+
+  private AdminNotificationService service() {
+    return new AdminNotificationService(repo, mock(AdminNotificationActionRepository.class),
+        mock(AdminNotificationArchiveRepository.class), mock(NotificationArchiveWriter.class),
+        mock(NotificationActionBatchWriter.class), mock(ApplicationEventPublisher.class), mock(AdminNotificationBroadcaster.class),
+        mock(UnreadCounter.class), mock(NotificationCleanupJob.class), pipeline, cache,
+        mock(NotificationMetrics.class));
+  }
+}
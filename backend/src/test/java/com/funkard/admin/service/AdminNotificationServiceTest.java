@@ -0,0 +1,86 @@
+package com.funkard.admin.service;
+
+import com.funkard.admin.model.BulkTarget;
+import com.funkard.admin.model.UnreadBucket;
+import com.funkard.admin.repository.AdminNotificationActionRepository;
+import com.funkard.admin.repository.AdminNotificationArchiveRepository;
+import com.funkard.admin.repository.AdminNotificationRepository;
+import com.funkard.admin.repository.NotificationActionBatchWriter;
+import com.funkard.admin.repository.NotificationArchiveWriter;
+import com.funkard.admin.sse.AdminNotificationBroadcaster;
+import com.funkard.admin.sse.AdminNotificationBulkEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AdminNotificationServiceTest {
+
+  @Mock AdminNotificationRepository repo;
+  @Mock AdminNotificationActionRepository actions;
+  @Mock AdminNotificationArchiveRepository archive;
+  @Mock NotificationArchiveWriter archiveWriter;
+  @Mock NotificationActionBatchWriter actionWriter;
+  @Mock ApplicationEventPublisher events;
+  @Mock AdminNotificationBroadcaster broadcaster;
+  @Mock UnreadCounter unread;
+  @Mock NotificationCleanupJob cleanup;
+  @Mock NotificationPipeline pipeline;
+  @Mock NotificationCache cache;
+  @Mock NotificationMetrics metrics;
+
+  @InjectMocks AdminNotificationService service;
+
+  @Test
+  void bulkWithoutIdsOrFilterIsRejected() {
+    assertThatThrownBy(() -> service.bulkMarkRead(null, null, null, null, "admin"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> service.bulkArchive(List.of(), " ", null, "", "admin", null))
+        .isInstanceOf(IllegalArgumentException.class);
+    verifyNoInteractions(repo, archiveWriter, actionWriter, events);
+  }
+
+  @Test
+  void bulkArchiveActsOnlyOnLockedRows() {
+    // 2 è già stata archiviata da una richiesta concorrente: non viene restituita dal lock
+    when(repo.lockBulkTargets(List.of(1L, 2L, 3L), null, null, null, "archive")).thenReturn(List.of(
+        new BulkTarget(1L, "errore", "alta", false, false, null),
+        new BulkTarget(3L, "errore", "alta", true, false, null)));
+    when(repo.archiveByIds(List.of(1L, 3L))).thenReturn(2);
+
+    int affected = service.bulkArchive(List.of(3L, 1L, 2L, 1L), null, null, null, "admin", "chiuse");
+
+    assertThat(affected).isEqualTo(2);
+    verify(archiveWriter).move(eq(List.of(1L, 3L)), eq("admin"), any());
+    verify(actionWriter).append(eq(List.of(1L, 3L)), eq("admin"), eq("archive"), eq("chiuse"), any());
+    ArgumentCaptor<AdminNotificationBulkEvent> event = ArgumentCaptor.forClass(AdminNotificationBulkEvent.class);
+    verify(events).publishEvent(event.capture());
+    assertThat(event.getValue().unreadRemoved()).containsExactly(new UnreadBucket("errore", "alta", 1));
+  }
+
+  @Test
+  void bulkWithNothingLeftWritesNothing() {
+    when(repo.lockBulkTargets(null, "mercato", null, null, "read")).thenReturn(List.of());
+
+    assertThat(service.bulkMarkRead(null, "mercato", null, null, "admin")).isZero();
+    verify(repo, never()).markReadByIds(any(), any());
+    verify(actionWriter, never()).append(any(), anyString(), anyString(), any(), any());
+    verifyNoInteractions(events);
+  }
+}
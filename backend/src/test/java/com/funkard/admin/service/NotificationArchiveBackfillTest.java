@@ -0,0 +1,50 @@
+package com.funkard.admin.service;
+
+import com.funkard.admin.model.AdminNotification;
+import com.funkard.admin.repository.AdminNotificationRepository;
+import com.funkard.admin.repository.NotificationActionBatchWriter;
+import com.funkard.admin.repository.NotificationArchiveWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// il backfill è registrato per primo: conta solo @Order
+@DataJpaTest
+@Import({NotificationArchiveBackfill.class, LegacyHistoryMigration.class,
+    NotificationArchiveWriter.class, NotificationActionBatchWriter.class})
+class NotificationArchiveBackfillTest {
+
+  @Autowired
+  private AdminNotificationRepository repo;
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  @Autowired
+  private ConfigurableApplicationContext context;
+
+  @Test
+  void legacyHistoryIsMigratedBeforeArchivedRowsLeaveTheHotTable() {
+    jdbc.execute("alter table admin_notifications add column if not exists history text");
+    AdminNotification n = repo.save(new AdminNotification("errore", "alta", "vecchia", "m"));
+    repo.archiveIf(n.getId());
+    jdbc.update("update admin_notifications set history = ? where id = ?",
+        "[{\"user\":\"mario\",\"action\":\"read\",\"at\":\"2024-01-01T10:00:00Z\"}]", n.getId());
+
+    context.publishEvent(new ApplicationReadyEvent(new SpringApplication(), new String[0], context, Duration.ZERO));
+
+    assertThat(jdbc.queryForObject("select count(*) from admin_notifications_archive where id = ?",
+        Long.class, n.getId())).isEqualTo(1);
+    assertThat(jdbc.queryForList("select user_name from admin_notification_actions where notification_id = ?",
+        String.class, n.getId())).containsExactly("mario");
+  }
+}
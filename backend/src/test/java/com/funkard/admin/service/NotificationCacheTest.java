@@ -0,0 +1,44 @@
+package com.funkard.admin.service;
+
+import com.funkard.admin.model.AdminNotification;
+import com.funkard.admin.repository.AdminNotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationCacheTest {
+
+  private final AdminNotificationRepository repo = mock(AdminNotificationRepository.class);
+  private final NotificationCache cache = new NotificationCache(repo, 100, 60_000, new SimpleMeterRegistry());
+
+  @Test
+  void loadedNotificationIsServedFromCache() {
+    when(repo.findById(1L)).thenReturn(Optional.of(new AdminNotification("errore", "alta", "t", "m")));
+
+    cache.get(1L);
+    assertThat(cache.get(1L)).isPresent();
+
+    verify(repo, times(1)).findById(1L);
+  }
+
+  @Test
+  void invalidationDuringLoadDiscardsLoadedValue() {
+    when(repo.findById(1L)).thenAnswer(inv -> {
+      // commit concorrente: la riga letta è già vecchia
+      cache.evict(1L);
+      return Optional.of(new AdminNotification("errore", "alta", "vecchio", "m"));
+    });
+
+    assertThat(cache.get(1L)).isPresent();
+    cache.get(1L);
+
+    verify(repo, times(2)).findById(1L);
+  }
+}
@@ -0,0 +1,107 @@
+package com.funkard.admin.service;
+
+import com.funkard.admin.model.CleanupJobState;
+import com.funkard.admin.repository.AdminNotificationActionRepository;
+import com.funkard.admin.repository.AdminNotificationArchiveRepository;
+import com.funkard.admin.repository.CleanupJobStateRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationCleanupJobTest {
+
+  private final AdminNotificationArchiveRepository archive = mock(AdminNotificationArchiveRepository.class);
+  private final AdminNotificationActionRepository actions = mock(AdminNotificationActionRepository.class);
+  private final CleanupJobStateRepository state = mock(CleanupJobStateRepository.class);
+  private final TransactionTemplate tx = mock(TransactionTemplate.class);
+  private final List<CleanupJobState> saved = new ArrayList<>();
+  private NotificationCleanupJob job;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    when(tx.execute(any())).thenAnswer(inv -> ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(null));
+    when(state.save(any())).thenAnswer(inv -> {
+      CleanupJobState row = inv.getArgument(0);
+      saved.add(copy(row));
+      return row;
+    });
+    job = new NotificationCleanupJob(archive, actions, state, tx, mock(NotificationMetrics.class), 2, 0, 30);
+  }
+
+  @AfterEach
+  void tearDown() {
+    job.shutdown();
+  }
+
+  @Test
+  void interruptedJobResumesFromSavedCursorOnStartup() {
+    Instant cutoff = Instant.parse("2026-01-01T00:00:00Z");
+    CleanupJobState row = new CleanupJobState(NotificationCleanupJob.JOB);
+    row.setRunning(true);
+    row.setOlderThanDays(30);
+    row.setCutoff(cutoff);
+    row.setLastId(500);
+    when(state.findById(NotificationCleanupJob.JOB)).thenReturn(Optional.of(row));
+    when(archive.findIdsResolvedBefore(eq(cutoff), eq(500L), any())).thenReturn(List.of(501L, 502L));
+    when(archive.findIdsResolvedBefore(eq(cutoff), eq(502L), any())).thenReturn(List.of());
+    when(archive.deleteResolvedInRange(501L, 502L, cutoff)).thenReturn(2);
+
+    job.restore();
+
+    await().atMost(2, TimeUnit.SECONDS).until(() -> job.progress().finished());
+    assertThat(job.progress().lastId()).isEqualTo(502L);
+    assertThat(job.progress().deleted()).isEqualTo(2L);
+    CleanupJobState last = saved.get(saved.size() - 1);
+    assertThat(last.isRunning()).isFalse();
+    assertThat(last.isFinished()).isTrue();
+    assertThat(last.getLastId()).isEqualTo(502L);
+  }
+
+  @Test
+  void failedChunkDoesNotAdvanceSavedCursor() {
+    when(state.findById(NotificationCleanupJob.JOB)).thenReturn(Optional.empty());
+    when(archive.findIdsResolvedBefore(any(), eq(0L), any())).thenReturn(List.of(1L, 2L));
+    when(archive.findIdsResolvedBefore(any(), eq(2L), any())).thenReturn(List.of(3L, 4L));
+    when(archive.deleteResolvedInRange(eq(1L), eq(2L), any())).thenReturn(2);
+    when(archive.deleteResolvedInRange(eq(3L), eq(4L), any()))
+        .thenThrow(new DataIntegrityViolationException("lock timeout"));
+
+    job.enqueue(30);
+
+    await().atMost(2, TimeUnit.SECONDS).until(() -> !job.progress().running());
+    assertThat(job.progress().error()).isEqualTo("lock timeout");
+    CleanupJobState last = saved.get(saved.size() - 1);
+    assertThat(last.getLastId()).isEqualTo(2L);
+    assertThat(last.isFinished()).isFalse();
+    assertThat(last.getError()).isEqualTo("lock timeout");
+    verify(archive, never()).findIdsResolvedBefore(any(), eq(4L), any());
+  }
+
+  private static CleanupJobState copy(CleanupJobState row) {
+    CleanupJobState c = new CleanupJobState(row.getName());
+    c.setRunning(row.isRunning());
+    c.setFinished(row.isFinished());
+    c.setLastId(row.getLastId());
+    c.setError(row.getError());
+    return c;
+  }
+}
@@ -0,0 +1,73 @@
+package com.funkard.admin.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NotificationCoalescerTest {
+
+  private final NotificationCoalescer coalescer = new NotificationCoalescer(60_000, 100);
+
+  @Test
+  void concurrentFlushesOfSameKeyCreateOneRow() throws Exception {
+    NotificationRequest request = NotificationRequest.of("system", "alta", "db lento", "m");
+    AtomicLong ids = new AtomicLong();
+    AtomicInteger inserts = new AtomicInteger();
+    AtomicInteger increments = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> flushes = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        flushes.add(pool.submit(() -> {
+          start.await();
+          return coalescer.serialized(() -> {
+            NotificationCoalescer.Plan plan = coalescer.plan(List.of(request));
+            increments.addAndGet(plan.increments().size());
+            for (NotificationCoalescer.Insert insert : plan.inserts()) {
+              inserts.incrementAndGet();
+              // insert lento: senza serializzazione gli altri flush pianificherebbero la stessa riga
+              sleep(20);
+              coalescer.remember(insert.key(), ids.incrementAndGet(), insert.request().createdAt());
+            }
+            return plan;
+          });
+        }));
+      }
+      start.countDown();
+      for (Future<?> f : flushes) {
+        f.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    assertThat(inserts).hasValue(1);
+    assertThat(increments).hasValue(7);
+  }
+
+  @Test
+  void planOutsideSerializedIsRejected() {
+    assertThatThrownBy(() -> coalescer.plan(List.of(NotificationRequest.of("system", "alta", "t", "m"))))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  private static void sleep(long ms) {
+    try {
+      Thread.sleep(ms);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
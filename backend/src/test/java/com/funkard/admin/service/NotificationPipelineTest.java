@@ -0,0 +1,216 @@
+package com.funkard.admin.service;
+
+import com.funkard.admin.model.AdminNotification;
+import com.funkard.admin.repository.NotificationBatchInserter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NotificationPipelineTest {
+
+  private final PlatformTransactionManager txManager = mock(PlatformTransactionManager.class);
+  private final List<Integer> propagations = new CopyOnWriteArrayList<>();
+  private final List<String> insertThreads = new CopyOnWriteArrayList<>();
+  private final List<String> insertedTitles = new CopyOnWriteArrayList<>();
+  private final AtomicLong ids = new AtomicLong();
+  private NotificationPipeline pipeline;
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    if (pipeline != null) {
+      pipeline.stop();
+    }
+  }
+
+  @Test
+  void afterCommitOnlyEnqueuesAndWorkerInsertsInNewTransaction() {
+    pipeline = pipeline(inserter(new AtomicInteger(), null), 100, 0);
+
+    TransactionSynchronizationManager.initSynchronization();
+    List<TransactionSynchronization> callbacks;
+    try {
+      pipeline.submit(NotificationRequest.of("support", "alta", "ticket", "m"));
+      callbacks = TransactionSynchronizationManager.getSynchronizations();
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    assertThat(pipeline.stats().submitted()).isZero();
+
+    callbacks.forEach(TransactionSynchronization::afterCommit);
+
+    await().atMost(2, TimeUnit.SECONDS).until(() -> pipeline.stats().inserted() == 1);
+    assertThat(insertThreads).containsOnly("notification-pipeline");
+    assertThat(propagations).containsOnly(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  @Test
+  void failedBatchIsParkedAndRetriedUntilItSucceeds() {
+    AtomicInteger failures = new AtomicInteger(3);
+    pipeline = pipeline(inserter(failures, null), 100, 0);
+
+    pipeline.submit(NotificationRequest.of("system", "media", "a", "m"));
+    pipeline.submit(NotificationRequest.of("system", "media", "b", "m"));
+
+    await().atMost(5, TimeUnit.SECONDS).until(() -> pipeline.stats().inserted() == 2);
+    NotificationPipeline.PipelineStats stats = pipeline.stats();
+    assertThat(stats.parked()).isZero();
+    assertThat(stats.failed()).isPositive();
+    assertThat(insertedTitles).containsExactlyInAnyOrder("a", "b");
+  }
+
+  @Test
+  void fullLaneOverflowIsInsertedByWorkerNotCaller() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    pipeline = pipeline(inserter(new AtomicInteger(), release), 1, 0);
+
+    // il primo batch blocca il worker nell'insert, il secondo riempie la corsia
+    pipeline.submit(NotificationRequest.of("system", "alta", "first", "m"));
+    await().atMost(2, TimeUnit.SECONDS).until(() -> insertThreads.size() == 1);
+    pipeline.submit(NotificationRequest.of("system", "alta", "queued", "m"));
+    pipeline.submit(NotificationRequest.of("system", "alta", "overflow", "m"));
+    pipeline.submit(NotificationRequest.of("system", "media", "extra", "m"));
+
+    NotificationPipeline.PipelineStats stats = pipeline.stats();
+    assertThat(stats.overflow()).isEqualTo(1);
+    assertThat(stats.dropped()).containsEntry("media", 0L);
+    assertThat(insertThreads).hasSize(1);
+
+    release.countDown();
+    await().atMost(2, TimeUnit.SECONDS).until(() -> pipeline.stats().inserted() == 4);
+    assertThat(insertThreads).containsOnly("notification-pipeline");
+  }
+
+  @Test
+  void overLimitRequestsWaitForTheirTokenOnTheWorker() {
+    pipeline = pipeline(inserter(new AtomicInteger(), null), 100, 10, 5_000);
+    long start = System.nanoTime();
+
+    for (int i = 0; i < 4; i++) {
+      pipeline.submit(NotificationRequest.of("mercato", "alta", "m" + i, "m"));
+    }
+
+    await().atMost(2, TimeUnit.SECONDS).until(() -> pipeline.stats().inserted() == 4);
+    // burst 1 a 10/s: le tre in più partono a 100 ms l'una dall'altra
+    assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(300));
+    NotificationPipeline.PipelineStats stats = pipeline.stats();
+    assertThat(stats.deferred()).containsEntry("alta", 3L);
+    assertThat(stats.dropped()).containsEntry("alta", 0L);
+    assertThat(stats.overflow()).isZero();
+    assertThat(stats.throttled()).isZero();
+    assertThat(insertedTitles).containsExactly("m0", "m1", "m2", "m3");
+    assertThat(insertThreads).containsOnly("notification-pipeline");
+  }
+
+  @Test
+  void lowPriorityOverMaxDelayIsDroppedAndCounted() {
+    pipeline = pipeline(inserter(new AtomicInteger(), null), 100, 1, 0);
+
+    for (int i = 0; i < 3; i++) {
+      pipeline.submit(NotificationRequest.of("mercato", "bassa", "b" + i, "m"));
+    }
+
+    await().atMost(2, TimeUnit.SECONDS).until(() -> pipeline.stats().dropped().get("bassa") == 2);
+    NotificationPipeline.PipelineStats stats = pipeline.stats();
+    assertThat(stats.inserted()).isEqualTo(1);
+    assertThat(stats.deferred()).containsEntry("bassa", 0L);
+    assertThat(insertedTitles).containsExactly("b0");
+  }
+
+  @Test
+  void criticalIsNeverRateLimited() {
+    pipeline = pipeline(inserter(new AtomicInteger(), null), 100, 1, 0);
+
+    for (int i = 0; i < 3; i++) {
+      pipeline.submit(NotificationRequest.of("errore", "critica", "c" + i, "m"));
+    }
+
+    await().atMost(2, TimeUnit.SECONDS).until(() -> pipeline.stats().inserted() == 3);
+    assertThat(pipeline.stats().deferred()).containsEntry("critica", 0L);
+    assertThat(pipeline.stats().dropped()).containsEntry("critica", 0L);
+  }
+
+  @Test
+  void floodOfOneTypeKeepsHeldAndLanesBounded() {
+    pipeline = pipeline(inserter(new AtomicInteger(), null), 10, 1, 5_000);
+
+    for (int i = 0; i < 5_000; i++) {
+      pipeline.submit(NotificationRequest.of("support_ticket", "high", "t" + i, "m"));
+    }
+
+    // a 1/s il worker si ferma a 10 in attesa del token; la corsia alta tiene
+    // al massimo capacity più altrettanto overflow, il resto viene scartato
+    await().atMost(2, TimeUnit.SECONDS).until(() -> pipeline.stats().throttled() == 10);
+    NotificationPipeline.PipelineStats stats = pipeline.stats();
+    assertThat(stats.queuedByLane().get("alta")).isEqualTo(20);
+    assertThat(stats.overflow()).isPositive();
+    assertThat(stats.inserted()).isBetween(1L, 2L);
+    assertThat(stats.inserted() + stats.throttled() + stats.queued() + stats.dropped().get("alta"))
+        .isEqualTo(5_000);
+  }
+
+  private NotificationPipeline pipeline(NotificationBatchInserter inserter, int capacity, double ratePerSecond) {
+    return pipeline(inserter, capacity, ratePerSecond, 5_000);
+  }
+
+  private NotificationPipeline pipeline(NotificationBatchInserter inserter, int capacity, double ratePerSecond,
+                                        long maxDelayMs) {
+    when(txManager.getTransaction(any())).thenAnswer(inv -> {
+      TransactionDefinition def = inv.getArgument(0);
+      propagations.add(def.getPropagationBehavior());
+      return new SimpleTransactionStatus();
+    });
+    NotificationPipeline p = new NotificationPipeline(inserter, new NotificationCoalescer(60_000, 100),
+        mock(NotificationCache.class), txManager, mock(ApplicationEventPublisher.class),
+        capacity, capacity, 10, 5, ratePerSecond, 1, maxDelayMs);
+    p.start();
+    return p;
+  }
+
+  /**
+   * Inserter finto: fallisce le prime {@code failures} chiamate e, con un
+   * latch, resta bloccato sul primo insert
+   */
+  private NotificationBatchInserter inserter(AtomicInteger failures, CountDownLatch release) {
+    NotificationBatchInserter inserter = mock(NotificationBatchInserter.class);
+    when(inserter.incrementOccurrences(any())).thenAnswer(inv -> new int[((List<?>) inv.getArgument(0)).size()]);
+    when(inserter.insert(any())).thenAnswer(inv -> {
+      insertThreads.add(Thread.currentThread().getName());
+      if (release != null && insertThreads.size() == 1) {
+        release.await();
+      }
+      if (failures.getAndDecrement() > 0) {
+        throw new IllegalStateException("db giù");
+      }
+      List<NotificationBatchInserter.Row> rows = inv.getArgument(0);
+      List<AdminNotification> out = new ArrayList<>();
+      for (NotificationBatchInserter.Row r : rows) {
+        AdminNotification n = new AdminNotification(r.type(), r.priority(), r.title(), r.message());
+        n.setId(ids.incrementAndGet());
+        n.setCreatedAt(r.createdAt());
+        out.add(n);
+        insertedTitles.add(r.title());
+      }
+      return out;
+    });
+    return inserter;
+  }
+}
@@ -0,0 +1,95 @@
+package com.funkard.admin.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriorityLanesTest {
+
+  private final PriorityLanes lanes = new PriorityLanes(2, 2);
+
+  @Test
+  void higherLanesAreTakenFirst() throws InterruptedException {
+    lanes.offer(PriorityLane.BASSA, request("bassa"));
+    lanes.offer(PriorityLane.MEDIA, request("media"));
+    lanes.offer(PriorityLane.CRITICA, request("critica"));
+    lanes.offer(PriorityLane.ALTA, request("alta"));
+
+    assertThat(lanes.poll(0, TimeUnit.MILLISECONDS).title()).isEqualTo("critica");
+    assertThat(lanes.poll().title()).isEqualTo("alta");
+    assertThat(lanes.poll().title()).isEqualTo("media");
+    assertThat(lanes.poll().title()).isEqualTo("bassa");
+    assertThat(lanes.poll()).isNull();
+    assertThat(lanes.isEmpty()).isTrue();
+  }
+
+  @Test
+  void fullLaneRejectsOnlyItsOwnOffers() {
+    assertThat(lanes.offer(PriorityLane.BASSA, request("b1"))).isTrue();
+    assertThat(lanes.offer(PriorityLane.BASSA, request("b2"))).isTrue();
+
+    assertThat(lanes.offer(PriorityLane.BASSA, request("b3"))).isFalse();
+    assertThat(lanes.offer(PriorityLane.ALTA, request("a1"))).isTrue();
+    assertThat(lanes.usage()).containsExactly(3, 5);
+  }
+
+  @Test
+  void pushOverflowsUpToTwiceTheCapacityExceptCritical() {
+    lanes.offer(PriorityLane.ALTA, request("a1"));
+    lanes.offer(PriorityLane.ALTA, request("a2"));
+
+    assertThat(lanes.push(PriorityLane.ALTA, request("a3"))).isTrue();
+    assertThat(lanes.push(PriorityLane.ALTA, request("a4"))).isTrue();
+    assertThat(lanes.push(PriorityLane.ALTA, request("a5"))).isFalse();
+    for (int i = 0; i < 10; i++) {
+      assertThat(lanes.push(PriorityLane.CRITICA, request("c" + i))).isTrue();
+    }
+
+    assertThat(lanes.size(PriorityLane.ALTA)).isEqualTo(4);
+    assertThat(lanes.usage()).containsExactly(14, 4);
+  }
+
+  @Test
+  void pausedLaneIsSkippedUntilResumed() throws InterruptedException {
+    lanes.offer(PriorityLane.ALTA, request("alta"));
+    lanes.offer(PriorityLane.BASSA, request("bassa"));
+
+    lanes.pause(PriorityLane.ALTA, true);
+    lanes.offer(PriorityLane.ALTA, request("alta2"));
+
+    assertThat(lanes.poll().title()).isEqualTo("bassa");
+    assertThat(lanes.poll(10, TimeUnit.MILLISECONDS)).isNull();
+    assertThat(lanes.isEmpty()).isFalse();
+
+    lanes.pause(PriorityLane.ALTA, false);
+    assertThat(lanes.poll().title()).isEqualTo("alta");
+    assertThat(lanes.poll().title()).isEqualTo("alta2");
+  }
+
+  @Test
+  void drainAllIncludesPausedLanes() {
+    lanes.offer(PriorityLane.ALTA, request("alta"));
+    lanes.offer(PriorityLane.MEDIA, request("media"));
+    lanes.pause(PriorityLane.ALTA, true);
+
+    List<NotificationRequest> out = new ArrayList<>();
+    assertThat(lanes.drainAll(out)).isEqualTo(2);
+
+    assertThat(out).extracting(NotificationRequest::title).containsExactly("alta", "media");
+    assertThat(lanes.isEmpty()).isTrue();
+    assertThat(lanes.poll()).isNull();
+  }
+
+  @Test
+  void pollTimesOutWhenEmpty() throws InterruptedException {
+    assertThat(lanes.poll(10, TimeUnit.MILLISECONDS)).isNull();
+  }
+
+  private static NotificationRequest request(String title) {
+    return NotificationRequest.of("system", title, title, "m");
+  }
+}
@@ -0,0 +1,58 @@
+package com.funkard.admin.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TypeRateLimiterTest {
+
+  private static final long FOREVER = Long.MAX_VALUE;
+
+  private final AtomicLong now = new AtomicLong();
+  private final TypeRateLimiter limiter = new TypeRateLimiter(10, 2, now::get);
+
+  @Test
+  void overLimitRequestsAreSpacedAtTheRate() {
+    assertThat(limiter.reserve("errore", FOREVER)).isZero();
+    assertThat(limiter.reserve("errore", FOREVER)).isZero();
+    assertThat(limiter.reserve("errore", FOREVER)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    assertThat(limiter.reserve("errore", FOREVER)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+
+    // ogni tipo ha il suo bucket
+    assertThat(limiter.reserve("mercato", FOREVER)).isZero();
+  }
+
+  @Test
+  void rejectedReservationDoesNotConsumeTokens() {
+    limiter.reserve("errore", FOREVER);
+    limiter.reserve("errore", FOREVER);
+
+    assertThat(limiter.reserve("errore", 0)).isEqualTo(TypeRateLimiter.REJECTED);
+    assertThat(limiter.reserve("errore", 0)).isEqualTo(TypeRateLimiter.REJECTED);
+
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+    assertThat(limiter.reserve("errore", 0)).isZero();
+  }
+
+  @Test
+  void refillIsCappedAtBurst() {
+    limiter.reserve("errore", FOREVER);
+    now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+    assertThat(limiter.reserve("errore", FOREVER)).isZero();
+    assertThat(limiter.reserve("errore", FOREVER)).isZero();
+    assertThat(limiter.reserve("errore", FOREVER)).isPositive();
+  }
+
+  @Test
+  void zeroRateDisablesTheLimit() {
+    TypeRateLimiter off = new TypeRateLimiter(0, 1, now::get);
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(off.reserve("errore", 0)).isZero();
+    }
+  }
+}
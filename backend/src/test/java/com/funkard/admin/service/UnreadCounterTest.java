@@ -0,0 +1,110 @@
+package com.funkard.admin.service;
+
+import com.funkard.admin.model.UnreadBucket;
+import com.funkard.admin.repository.AdminNotificationRepository;
+import com.funkard.admin.sse.AdminNotificationEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UnreadCounterTest {
+
+  private final AdminNotificationRepository repo = mock(AdminNotificationRepository.class);
+  private final PlatformTransactionManager txManager = mock(PlatformTransactionManager.class);
+  private final UnreadCounter counter = new UnreadCounter(repo, txManager);
+
+  UnreadCounterTest() {
+    when(txManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+  }
+
+  @Test
+  void reconcileReplacesDriftedCounts() {
+    counter.onNotificationEvent(created(1L, "errore", "alta"));
+    when(repo.countUnreadBuckets()).thenReturn(List.of(
+        new UnreadBucket("errore", "alta", 3),
+        new UnreadBucket("mercato", "bassa", 2)));
+
+    counter.reconcile();
+
+    assertThat(counter.total()).isEqualTo(5);
+    assertThat(counter.byType()).containsEntry("errore", 3L).containsEntry("mercato", 2L);
+    assertThat(counter.byPriority()).containsEntry("alta", 3L).containsEntry("bassa", 2L);
+  }
+
+  @Test
+  void eventsDuringReconcileQueryAreKept() {
+    when(repo.countUnreadBuckets()).thenAnswer(inv -> {
+      // commit arrivato dopo lo snapshot della query: non è nel risultato
+      counter.onNotificationEvent(created(9L, "supporto", "media"));
+      return List.of(new UnreadBucket("errore", "alta", 4));
+    });
+
+    counter.reconcile();
+
+    assertThat(counter.total()).isEqualTo(5);
+    assertThat(counter.byType()).containsEntry("errore", 4L).containsEntry("supporto", 1L);
+    assertThat(counter.byPriority()).containsEntry("alta", 4L).containsEntry("media", 1L);
+  }
+
+  @Test
+  void commitsDuringReconcileAreCountedOnce() {
+    // "DB": righe non lette committate; la query le legge tutte
+    AtomicLong committed = new AtomicLong();
+    when(repo.countUnreadBuckets()).thenAnswer(inv -> {
+      LockSupport.parkNanos(200_000);
+      return List.of(new UnreadBucket("errore", "alta", committed.get()));
+    });
+
+    CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+      for (long id = 1; id <= 2_000; id++) {
+        commitCreate(id, committed);
+      }
+    });
+    while (!writer.isDone()) {
+      counter.reconcile();
+    }
+    writer.join();
+
+    // nessun riallineamento finale: i contatori devono essere già esatti
+    assertThat(counter.total()).isEqualTo(committed.get()).isEqualTo(2_000);
+    assertThat(counter.byPriority()).containsEntry("alta", 2_000L);
+  }
+
+  /**
+   * Transazione simulata come in Spring: evento pubblicato, beforeCommit,
+   * commit, listener AFTER_COMMIT in ritardo, afterCompletion
+   */
+  private void commitCreate(long id, AtomicLong committed) {
+    AdminNotificationEvent event = created(id, "errore", "alta");
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      counter.holdCommit();
+      List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+      syncs.forEach(s -> s.beforeCommit(false));
+      committed.incrementAndGet();
+      LockSupport.parkNanos(50_000);
+      counter.onNotificationEvent(event);
+      syncs.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private static AdminNotificationEvent created(Long id, String type, String priority) {
+    return new AdminNotificationEvent(AdminNotificationEvent.CREATED, id, type, priority,
+        "t", "m", false, false, Instant.now(), null, null);
+  }
+}
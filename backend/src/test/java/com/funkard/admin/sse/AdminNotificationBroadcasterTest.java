@@ -0,0 +1,47 @@
+package com.funkard.admin.sse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdminNotificationBroadcasterTest {
+
+  private final SseDispatcher dispatcher = new SseDispatcher(1, 4, 1000);
+  private final AdminNotificationBroadcaster broadcaster =
+      new AdminNotificationBroadcaster(new ObjectMapper().findAndRegisterModules(), dispatcher, 16, 60_000, 8, 200);
+
+  @AfterEach
+  void shutdown() {
+    dispatcher.shutdown();
+  }
+
+  @Test
+  void catchUpSkipsRowsStillInTheReplayBuffer() {
+    long before = System.currentTimeMillis() - 1;
+    AdminNotificationEvent fresh = created(7L);
+    broadcaster.onNotificationEvent(fresh);
+    broadcaster.onNotificationEvent(new AdminNotificationEvent(AdminNotificationEvent.READ, 5L,
+        "errore", "bassa", "t", "m", true, false, Instant.now(), null, null));
+
+    List<AdminNotificationEvent> rows = List.of(created(5L), fresh);
+    List<SseMessage> backlog = broadcaster.catchUpBacklog(before, rows,
+        List.of(SseMessage.of(null, "db-5"), SseMessage.of(null, "db-7")));
+
+    // created:5 arriva solo dal DB, created:7 solo dal buffer (con id), read:5 dal buffer
+    assertThat(backlog).extracting(SseMessage::data).first().isEqualTo("db-5");
+    assertThat(backlog).extracting(SseMessage::data).doesNotContain("db-7");
+    assertThat(backlog).hasSize(3);
+    assertThat(backlog.subList(1, 3)).allSatisfy(m -> assertThat(m.id()).isNotNull());
+    assertThat(backlog.get(1).data()).contains("\"id\":7");
+  }
+
+  private static AdminNotificationEvent created(long id) {
+    return new AdminNotificationEvent(AdminNotificationEvent.CREATED, id,
+        "errore", "bassa", "t", "m", false, false, Instant.now(), null, null);
+  }
+}
@@ -0,0 +1,26 @@
+package com.funkard.admin.sse;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SseDispatcherTest {
+
+  private final SseDispatcher dispatcher = new SseDispatcher(1, 4, 60_000);
+
+  @AfterEach
+  void shutdown() {
+    dispatcher.shutdown();
+  }
+
+  @Test
+  void completedSendsLeaveNoTimerQueued() {
+    for (int i = 0; i < 10_000; i++) {
+      dispatcher.startSend(() -> {}).done();
+    }
+
+    assertThat(dispatcher.getPendingTimerCount()).isZero();
+    assertThat(dispatcher.getStalledCount()).isZero();
+  }
+}
@@ -0,0 +1,140 @@
+package com.funkard.admin.sse;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class SseSubscriberTest {
+
+  private final SseDispatcher dispatcher = new SseDispatcher(1, 4, 100);
+
+  @AfterEach
+  void shutdown() {
+    dispatcher.shutdown();
+  }
+
+  @Test
+  void closeCompletesEmitterOnDispatcherThread() {
+    RecordingEmitter emitter = new RecordingEmitter(null);
+    SseSubscriber subscriber = new SseSubscriber(emitter, 4, dispatcher, s -> {});
+
+    subscriber.close();
+
+    await().atMost(2, TimeUnit.SECONDS).until(() -> emitter.completedBy.get() != null);
+    assertThat(emitter.completedBy.get()).startsWith("admin-sse-");
+  }
+
+  @Test
+  void fullBufferEvictsWithoutCompletingOnCaller() throws Exception {
+    // scadenza lunga: qui l'espulsione deve venire dal buffer pieno, non dal watchdog
+    SseDispatcher patient = new SseDispatcher(1, 4, 10_000);
+    CountDownLatch release = new CountDownLatch(1);
+    RecordingEmitter emitter = new RecordingEmitter(release);
+    AtomicInteger removed = new AtomicInteger();
+    SseSubscriber subscriber = new SseSubscriber(emitter, 1, patient, s -> removed.incrementAndGet());
+
+    subscriber.offer(SseMessage.of("a", "{}"));
+    await().atMost(2, TimeUnit.SECONDS).until(() -> emitter.sent.get() == 1);
+    subscriber.offer(SseMessage.of("b", "{}"));
+    boolean accepted = subscriber.offer(SseMessage.of("c", "{}"));
+
+    assertThat(accepted).isFalse();
+    assertThat(subscriber.isClosed()).isTrue();
+    assertThat(removed).hasValue(1);
+    assertThat(emitter.completedBy.get()).isNull();
+
+    release.countDown();
+    await().atMost(2, TimeUnit.SECONDS).until(() -> emitter.completedBy.get() != null);
+    assertThat(emitter.completedBy.get()).startsWith("admin-sse-");
+    patient.shutdown();
+  }
+
+  @Test
+  void stalledSendIsEvictedAndDoesNotStarveOthers() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    RecordingEmitter stuck = new RecordingEmitter(release);
+    RecordingEmitter healthy = new RecordingEmitter(null);
+    SseSubscriber slow = new SseSubscriber(stuck, 8, dispatcher, s -> {});
+    SseSubscriber fast = new SseSubscriber(healthy, 8, dispatcher, s -> {});
+
+    slow.offer(SseMessage.of("ping", "{}"));
+    await().atMost(2, TimeUnit.SECONDS).until(slow::isClosed);
+    assertThat(dispatcher.getStalledCount()).isEqualTo(1);
+
+    // l'unico thread base è bloccato: il watchdog ne ha aggiunto uno
+    fast.offer(SseMessage.of("ping", "{}"));
+    await().atMost(2, TimeUnit.SECONDS).until(() -> healthy.sent.get() == 1);
+
+    release.countDown();
+    await().atMost(2, TimeUnit.SECONDS).until(() -> stuck.completedBy.get() != null);
+    assertThat(dispatcher.getStalledCount()).isZero();
+  }
+
+  @Test
+  void urgentEventOvertakesBacklogWithoutId() {
+    SseDispatcher patient = new SseDispatcher(1, 4, 10_000);
+    CountDownLatch release = new CountDownLatch(1);
+    RecordingEmitter emitter = new RecordingEmitter(release);
+    SseSubscriber subscriber = new SseSubscriber(emitter, 8, patient, s -> {});
+
+    subscriber.offer(new SseMessage("1-1", null, "\"a\""));
+    await().atMost(2, TimeUnit.SECONDS).until(() -> emitter.sent.get() == 1);
+    subscriber.offer(new SseMessage("2-1", null, "\"b\""));
+    subscriber.offer(new SseMessage("3-1", null, "\"c\"", true));
+    release.countDown();
+
+    await().atMost(2, TimeUnit.SECONDS).until(() -> emitter.events.size() == 3);
+    assertThat(emitter.events.get(0)).contains("id:1-1").contains("\"a\"");
+    // l'urgente passa davanti a b; senza id il resume da Last-Event-ID non salta b
+    assertThat(emitter.events.get(1)).contains("\"c\"").doesNotContain("id:");
+    assertThat(emitter.events.get(2)).contains("id:2-1").contains("\"b\"");
+    patient.shutdown();
+  }
+
+  /**
+   * Emitter che registra send e complete; con un latch la send resta
+   * bloccata come su un socket che non accetta dati.
+   */
+  private static final class RecordingEmitter extends SseEmitter {
+
+    final AtomicInteger sent = new AtomicInteger();
+    final List<String> events = new CopyOnWriteArrayList<>();
+    final AtomicReference<String> completedBy = new AtomicReference<>();
+    private final CountDownLatch release;
+
+    RecordingEmitter(CountDownLatch release) {
+      this.release = release;
+    }
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      sent.incrementAndGet();
+      if (release != null) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException(e);
+        }
+      }
+      events.add(builder.build().stream().map(d -> String.valueOf(d.getData())).collect(Collectors.joining()));
+    }
+
+    @Override
+    public void complete() {
+      completedBy.compareAndSet(null, Thread.currentThread().getName());
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package com.funkard.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SupportStatsTest {
+
+    private final SupportTicketRepository repo = mock(SupportTicketRepository.class);
+    private final SupportStats stats = new SupportStats(repo, mock(PlatformTransactionManager.class), 30);
+    private final OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+
+    @Test
+    void reconcileReplacesDriftedAggregates() {
+        stats.onTicketEvent(event(SupportTicketEvent.NEW_TICKET, TicketStatus.NEW, null, now, null));
+        when(repo.countByStatus()).thenReturn(List.of(
+                new TicketStatusCount(TicketStatus.NEW, 2),
+                new TicketStatusCount(TicketStatus.RESOLVED, 1)));
+        when(repo.streamTimesSince(any())).thenAnswer(inv -> Stream.of(
+                new TicketTimes(TicketStatus.NEW, now, null),
+                new TicketTimes(TicketStatus.NEW, now, null),
+                new TicketTimes(TicketStatus.RESOLVED, now.minusHours(2), now)));
+
+        stats.reconcile();
+
+        SupportStatsRes res = stats.snapshot();
+        assertThat(stats.count(TicketStatus.NEW)).isEqualTo(2);
+        assertThat(stats.count(TicketStatus.RESOLVED)).isEqualTo(1);
+        assertThat(today(res).count()).isEqualTo(3);
+        assertThat(res.resolution().get(res.resolution().size() - 1).resolved()).isEqualTo(1);
+    }
+
+    @Test
+    void eventsDuringReconcileQueryAreKept() {
+        when(repo.countByStatus()).thenAnswer(inv -> {
+            // commit arrivati dopo lo snapshot della query: non sono nel risultato
+            stats.onTicketEvent(event(SupportTicketEvent.NEW_TICKET, TicketStatus.NEW, null, now, null));
+            stats.onTicketEvent(event(SupportTicketEvent.TICKET_RESOLVED, TicketStatus.RESOLVED,
+                    TicketStatus.IN_PROGRESS, now.minusHours(2), now));
+            return List.of(
+                    new TicketStatusCount(TicketStatus.NEW, 2),
+                    new TicketStatusCount(TicketStatus.IN_PROGRESS, 1));
+        });
+        when(repo.streamTimesSince(any())).thenAnswer(inv -> Stream.of(
+                new TicketTimes(TicketStatus.NEW, now, null),
+                new TicketTimes(TicketStatus.NEW, now, null)));
+
+        stats.reconcile();
+
+        SupportStatsRes res = stats.snapshot();
+        assertThat(stats.count(TicketStatus.NEW)).isEqualTo(3);
+        assertThat(stats.count(TicketStatus.IN_PROGRESS)).isZero();
+        assertThat(stats.count(TicketStatus.RESOLVED)).isEqualTo(1);
+        assertThat(today(res).count()).isEqualTo(3);
+        SupportStatsRes.DayResolution resolved = res.resolution().get(res.resolution().size() - 1);
+        assertThat(resolved.resolved()).isEqualTo(1);
+        assertThat(resolved.avgSeconds()).isEqualTo(7_200);
+        assertThat(resolved.histogram()).containsEntry("1-4h", 1L);
+    }
+
+    @Test
+    void commitsDuringReconcileAreCountedOnce() {
+        // "DB": ticket NEW committati; le letture vedono tutti quelli committati
+        AtomicLong committed = new AtomicLong();
+        when(repo.countByStatus()).thenAnswer(inv -> {
+            LockSupport.parkNanos(200_000);
+            return List.of(new TicketStatusCount(TicketStatus.NEW, committed.get()));
+        });
+        when(repo.streamTimesSince(any())).thenAnswer(inv ->
+                Stream.generate(() -> new TicketTimes(TicketStatus.NEW, now, null)).limit(committed.get()));
+
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                commitNewTicket(committed);
+            }
+        });
+        while (!writer.isDone()) {
+            stats.reconcile();
+        }
+        writer.join();
+
+        // nessun riallineamento finale: gli aggregati devono essere già esatti
+        assertThat(stats.count(TicketStatus.NEW)).isEqualTo(committed.get()).isEqualTo(2_000);
+        assertThat(today(stats.snapshot()).count()).isEqualTo(2_000);
+    }
+
+    /**
+     * Transazione simulata come in Spring: evento pubblicato, beforeCommit,
+     * commit, listener AFTER_COMMIT in ritardo, afterCompletion
+     */
+    private void commitNewTicket(AtomicLong committed) {
+        SupportTicketEvent event = event(SupportTicketEvent.NEW_TICKET, TicketStatus.NEW, null, now, null);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            stats.holdCommit();
+            List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+            syncs.forEach(s -> s.beforeCommit(false));
+            committed.incrementAndGet();
+            LockSupport.parkNanos(50_000);
+            stats.onTicketEvent(event);
+            syncs.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static SupportStatsRes.DayCount today(SupportStatsRes res) {
+        return res.chartData().get(res.chartData().size() - 1);
+    }
+
+    private static SupportTicketEvent event(String name, TicketStatus status, TicketStatus previous,
+                                            OffsetDateTime createdAt, OffsetDateTime resolvedAt) {
+        return new SupportTicketEvent(name, name, UUID.randomUUID(), "user@funkard.com", "oggetto",
+                status, null, null, createdAt, null, null, previous, createdAt, resolvedAt);
+    }
+}
@@ -0,0 +1,58 @@
+package com.funkard.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class SupportStreamControllerTest {
+
+    private final SupportEventBroadcaster broadcaster = mock(SupportEventBroadcaster.class);
+    private final SupportStreamController controller = new SupportStreamController(broadcaster);
+
+    @Test
+    void ignoresRoleAndUserFromQueryString() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/admin/support/stream");
+        request.setUserPrincipal(() -> "agent-7");
+        request.setParameter("userId", "someone-else");
+        request.setParameter("role", "SUPER_ADMIN");
+
+        controller.stream(request);
+
+        verify(broadcaster).subscribe("agent-7", SupportEventBroadcaster.SUPPORT);
+    }
+
+    @Test
+    void rejectsUnauthenticatedStream() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/admin/support/stream");
+        request.setParameter("userId", "agent-7");
+
+        assertThat(controller.stream(request).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        verify(broadcaster, never()).subscribe(any(), any());
+    }
+
+    @Test
+    void broadcasterRefusesSupportWithoutIdentity() {
+        SupportEventBroadcaster real = new SupportEventBroadcaster(null, null, 8, 1_000);
+
+        assertThatThrownBy(() -> real.subscribe(" ", "support")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(real.getSubscriberCount()).isZero();
+    }
+
+    @Test
+    void usesAuthenticatedPrincipalAndRole() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/admin/support/stream");
+        request.setUserPrincipal(() -> "agent-7");
+        request.addUserRole(SupportEventBroadcaster.ADMIN);
+
+        controller.stream(request);
+
+        verify(broadcaster).subscribe("agent-7", SupportEventBroadcaster.ADMIN);
+    }
+}
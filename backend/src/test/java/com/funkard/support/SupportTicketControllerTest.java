@@ -0,0 +1,114 @@
+package com.funkard.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class SupportTicketControllerTest {
+
+    private final SupportTicketService service = mock(SupportTicketService.class);
+    private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new SupportTicketController(service)).build();
+    private final UUID id = UUID.randomUUID();
+
+    @Test
+    void unknownStatusIsBadRequest() throws Exception {
+        mvc.perform(post("/api/support/{id}/status", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"chiuso\"}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void missingStatusIsBadRequest() throws Exception {
+        mvc.perform(post("/api/support/{id}/status", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"note\":\"x\"}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void malformedIfMatchIsBadRequest() throws Exception {
+        mvc.perform(post("/api/support/{id}/assign", id)
+                        .header("If-Match", "\"abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"assignedTo\":\"agent-7\"}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void weakIfMatchIsPassedAsVersion() throws Exception {
+        mvc.perform(post("/api/support/{id}/status", id)
+                        .header("If-Match", "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"resolved\"}"))
+                .andExpect(status().isOk());
+
+        verify(service).updateStatus(eq(id), eq(TicketStatus.RESOLVED), isNull(), isNull(), eq(3L));
+    }
+
+    @Test
+    void withoutIfMatchNoVersionIsChecked() throws Exception {
+        mvc.perform(post("/api/support/{id}/assign", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"assignedTo\":\"agent-7\"}"))
+                .andExpect(status().isOk());
+
+        verify(service).assign(eq(id), anyString(), isNull());
+    }
+
+    @Test
+    void statusNoteIsAuthoredByThePrincipal() throws Exception {
+        mvc.perform(post("/api/support/{id}/status", id)
+                        .principal(() -> "agent-7")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"in_progress\",\"note\":\"preso in carico\"}"))
+                .andExpect(status().isOk());
+
+        verify(service).updateStatus(eq(id), eq(TicketStatus.IN_PROGRESS), eq("preso in carico"), eq("agent-7"), isNull());
+    }
+
+    @Test
+    void noteWithoutPrincipalIsUnauthorized() throws Exception {
+        mvc.perform(post("/api/support/{id}/note", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"note\":\"x\",\"author\":\"ceo\"}"))
+                .andExpect(status().isUnauthorized());
+        mvc.perform(post("/api/support/{id}/status", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"resolved\",\"note\":\"x\"}"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void blankNoteIsBadRequest() throws Exception {
+        when(service.addNote(eq(id), eq("agent-7"), any())).thenThrow(new IllegalArgumentException("Nota vuota"));
+
+        mvc.perform(post("/api/support/{id}/note", id)
+                        .principal(() -> "agent-7")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,112 @@
+package com.funkard.support;
+
+import com.funkard.PostgresTestSupport;
+import com.funkard.admin.config.PostgresSchemaInitializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica su PostgreSQL che la ricerca full-text usi i due indici GIN
+ * (search_vector e note) e raggiunga i ticket per chiave primaria, senza
+ * scansioni sequenziali né subplan per riga.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIf("com.funkard.PostgresTestSupport#available")
+class SupportTicketSearchPlanTest extends PostgresTestSupport {
+
+    private static final int ROWS = 40_000;
+    private static final int VOCABULARY = 20_000;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private SupportTicketSearch search;
+    private UUID bySubject;
+    private UUID byNote;
+
+    @BeforeEach
+    void seed() {
+        PostgresSchemaInitializer schema = new PostgresSchemaInitializer(jdbc);
+        schema.apply();
+        search = new SupportTicketSearch(jdbc, schema);
+
+        // testi da un vocabolario casuale: statistiche dei lessemi realistiche,
+        // senza parole presenti in ogni riga
+        jdbc.update("""
+                insert into support_tickets (id, email, subject, message, status, created_at, updated_at, version)
+                select gen_random_uuid(), 'user' || g || '@funkard.com', %s, %s,
+                       'NEW', now() - g * interval '1 minute', now(), 0
+                from generate_series(1, ?) g
+                """.formatted(words(4, "g"), words(12, "g")), ROWS);
+        jdbc.update("""
+                insert into ticket_notes (ticket_id, author, body, created_at)
+                select t.id, 'support', %s, now() from support_tickets t
+                """.formatted(words(8, "t.id")));
+        bySubject = ticket("rimborso carta danneggiata", "nessuna nota utile");
+        byNote = ticket("spedizione in ritardo", "concordato rimborso parziale");
+        jdbc.execute("analyze support_tickets");
+        jdbc.execute("analyze ticket_notes");
+    }
+
+    @Test
+    void matchesTicketsAndNotesRankingDirectHitsFirst() {
+        TicketSearchPage page = search.search("rimborso", null, 0, 20);
+
+        assertThat(page.items()).extracting(TicketSearchHit::id).containsExactly(bySubject, byNote);
+        assertThat(page.items().get(1).rank()).isZero();
+        assertThat(search.search("rimborso", TicketStatus.RESOLVED, 0, 20).items()).isEmpty();
+    }
+
+    @Test
+    void fullTextUsesBothGinIndexesAndPrimaryKey() {
+        String plan = plan("'rimborso':*", null);
+
+        assertThat(plan).contains("idx_ticket_search", "idx_ticket_notes_search", "support_tickets_pkey")
+                .doesNotContain("Seq Scan on support_tickets", "Seq Scan on ticket_notes", "SubPlan");
+    }
+
+    @Test
+    void statusFilterKeepsTheIndexedBranches() {
+        String plan = plan("'rimborso':*", TicketStatus.NEW.name());
+
+        assertThat(plan).contains("idx_ticket_search", "idx_ticket_notes_search")
+                .doesNotContain("Seq Scan on support_tickets", "Seq Scan on ticket_notes", "SubPlan");
+    }
+
+    /**
+     * n parole casuali "w123"; il riferimento alla colonna della riga rende la
+     * subquery correlata, quindi rivalutata (diversa) per ogni riga
+     */
+    private static String words(int n, String row) {
+        return "(select string_agg('w' || (random() * %d)::int, ' ') from generate_series(1, %d) x where %s is not null)"
+                .formatted(VOCABULARY, n, row);
+    }
+
+    private UUID ticket(String subject, String note) {
+        UUID id = UUID.randomUUID();
+        jdbc.update("""
+                insert into support_tickets (id, email, subject, message, status, created_at, updated_at, version)
+                values (?, 'cliente@funkard.com', ?, 'testo', 'NEW', now(), now(), 0)
+                """, id, subject);
+        jdbc.update("insert into ticket_notes (ticket_id, author, body, created_at) values (?, 'support', ?, now())",
+                id, note);
+        return id;
+    }
+
+    private String plan(String query, String status) {
+        List<String> lines = jdbc.queryForList("explain " + SupportTicketSearch.FULL_TEXT, String.class,
+                query, query, query, status, status, 21, 0);
+        return String.join("\n", lines);
+    }
+}
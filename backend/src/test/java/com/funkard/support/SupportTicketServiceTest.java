@@ -0,0 +1,79 @@
+package com.funkard.support;
+
+import com.funkard.admin.service.AdminNotificationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class SupportTicketServiceTest {
+
+    private final SupportTicketRepository repo = mock(SupportTicketRepository.class);
+    private final TicketNoteRepository notes = mock(TicketNoteRepository.class);
+    private final SupportTicketService service = new SupportTicketService(repo, notes,
+            mock(AdminNotificationService.class), mock(ApplicationEventPublisher.class),
+            mock(SupportTicketCache.class), mock(SupportTicketSearch.class), new ObjectMapper(),
+            mock(EntityManager.class), mock(SupportMetrics.class));
+    private final UUID id = UUID.randomUUID();
+
+    @Test
+    void blankOrMissingNoteIsRejectedBeforeTouchingTheTicket() {
+        assertThatThrownBy(() -> service.addNote(id, "agent-7", null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.addNote(id, "agent-7", "  ")).isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(repo, notes);
+    }
+
+    @Test
+    void statusNoteGoesToTheThreadNotToAdminNote() {
+        SupportTicket ticket = ticket();
+        when(repo.findById(id)).thenReturn(Optional.of(ticket));
+        when(repo.transition(eq(id), eq(TicketStatus.NEW), eq(TicketStatus.RESOLVED), any(), any())).thenReturn(1);
+        when(repo.touch(eq(id), any())).thenReturn(1);
+        when(notes.save(any())).thenAnswer(call -> call.getArgument(0));
+        String note = "rimborso concordato ".repeat(30);
+
+        service.updateStatus(id, TicketStatus.RESOLVED, note, "agent-7", null);
+
+        ArgumentCaptor<TicketNote> saved = ArgumentCaptor.forClass(TicketNote.class);
+        verify(notes).save(saved.capture());
+        assertThat(saved.getValue().getBody()).isEqualTo(note);
+        assertThat(saved.getValue().getAuthor()).isEqualTo("agent-7");
+        assertThat(ticket.getAdminNote()).isNull();
+    }
+
+    @Test
+    void statusWithoutNoteAddsNothingToTheThread() {
+        when(repo.findById(id)).thenReturn(Optional.of(ticket()));
+        when(repo.transitionAtVersion(eq(id), eq(TicketStatus.NEW), eq(TicketStatus.IN_PROGRESS),
+                isNull(), any(), eq(2L))).thenReturn(1);
+
+        service.updateStatus(id, TicketStatus.IN_PROGRESS, null, null, 2L);
+
+        verify(notes, never()).save(any());
+    }
+
+    private SupportTicket ticket() {
+        SupportTicket t = new SupportTicket();
+        t.setId(id);
+        t.setEmail("cliente@funkard.com");
+        t.setSubject("ordine");
+        t.setStatus(TicketStatus.NEW);
+        return t;
+    }
+}
@@ -13,7 +13,7 @@ import {
 import { Card, CardContent, CardHeader, CardTitle } from "@/components/ui/card";
 import { Button } from "@/components/ui/button";
 import { Badge } from "@/components/ui/badge";
-import { pingAPI } from "@/lib/api";
+import { pingAPI, fetchBackendLatency, MethodLatency } from "@/lib/api";
 
 interface SystemStatus {
   api: "online" | "offline" | "checking";
@@ -30,6 +30,7 @@ export default function SystemStatusCard() {
     uptime: "",
   });
   const [isChecking, setIsChecking] = useState(false);
+  const [latency, setLatency] = useState<MethodLatency[]>([]);
 
   const checkSystemStatus = async () => {
     setIsChecking(true);
@@ -41,6 +42,10 @@ export default function SystemStatusCard() {
         api: "online",
         lastCheck: new Date().toLocaleString(),
       }));
+      // Percentili reali dal backend; se non disponibili la card resta invariata
+      fetchBackendLatency()
+        .then(rows => setLatency(rows.filter(r => r.count > 0 && r.exception === "none").slice(0, 3)))
+        .catch(() => setLatency([]));
     } catch (error) {
       setStatus(prev => ({
         ...prev,
@@ -150,6 +155,21 @@ export default function SystemStatusCard() {
             </div>
           </div>
 
+          {/* Latenze backend (p50 / p95 / p99) */}
+          {latency.length > 0 && (
+            <div className="pt-2 border-t space-y-1">
+              <p className="text-xs font-medium">Metodi più lenti (p50 / p95 / p99)</p>
+              {latency.map(l => (
+                <div key={`${l.service}.${l.method}`} className="flex justify-between text-xs text-muted-foreground">
+                  <span className="truncate">{l.method}</span>
+                  <span>
+                    {l.p50Ms.toFixed(0)} / {l.p95Ms.toFixed(0)} / {l.p99Ms.toFixed(0)} ms
+                  </span>
+                </div>
+              ))}
+            </div>
+          )}
+
           {/* Info aggiuntive */}
           <div className="pt-2 border-t">
             <div className="text-xs text-muted-foreground space-y-1">
@@ -78,7 +78,7 @@ export function NotificationProvider({ children }: { children: ReactNode }) {
     if (!admin) return;
 
     const baseUrl = process.env.NEXT_PUBLIC_API_URL || "https://funkard-api.onrender.com";
-    const streamUrl = `${baseUrl}/api/admin/support/stream?userId=${admin.id}&role=${admin.role}`;
+    const streamUrl = `${baseUrl}/api/admin/support/stream`;
 
     const es = new EventSource(streamUrl, { withCredentials: true });
 
@@ -17,7 +17,7 @@ export function useAdminSupportEvents(admin: AdminUser | null) {
     if (!admin) return;
 
     const baseUrl = process.env.NEXT_PUBLIC_API_URL || "https://funkard-api.onrender.com";
-    const streamUrl = `${baseUrl}/api/admin/support/stream?userId=${admin.id}&role=${admin.role}`;
+    const streamUrl = `${baseUrl}/api/admin/support/stream`;
 
     console.log(`🔗 Connessione SSE a: ${streamUrl}`);
 
@@ -28,6 +28,27 @@ export async function fetchNotifications(params?: Record<string, string | number
   return handle<any>(res);
 }
 
+export type NotificationPage<T = any> = {
+  items: T[];
+  nextCursor: string | null;
+  hasMore: boolean;
+};
+
+// Stessa forma per tutte le liste keyset (notifiche, ticket)
+export type CursorPage<T = any> = NotificationPage<T>;
+
+// Paginazione keyset per infinite scroll: passare nextCursor della pagina precedente
+export async function fetchNotificationsPage(cursor?: string | null, params?: Record<string, string | number | boolean>) {
+  const query = new URLSearchParams();
+  if (params) Object.entries(params).forEach(([k, v]) => query.append(k, String(v)));
+  if (cursor) query.set('cursor', cursor);
+  const res = await fetch(`${BASE_URL}/api/admin/notifications/page?${query.toString()}`, {
+    headers: headers(),
+    cache: 'no-store',
+  });
+  return handle<NotificationPage>(res);
+}
+
 export async function markRead(id: string) {
   const res = await fetch(`${BASE_URL}/api/admin/notifications/${id}/read`, {
     method: 'POST',
@@ -91,31 +112,55 @@ export async function fetchAdminLogById(id: string) {
 }
 
 // 🎫 SUPPORT TICKETS
-export async function fetchSupportTickets(params?: Record<string, string>) {
+// Lista paginata keyset (dal più recente): passare nextCursor della pagina precedente
+export async function fetchSupportTickets(params?: Record<string, string>, cursor?: string | null) {
   const query = new URLSearchParams();
   if (params) Object.entries(params).forEach(([k, v]) => query.append(k, String(v)));
+  if (cursor) query.set('cursor', cursor);
 
   const res = await fetch(`${BASE_URL}/api/support?${query.toString()}`, {
     headers: headers(),
     cache: 'no-store',
   });
-  return handle<any>(res);
+  return handle<CursorPage>(res);
 }
 
+// Prima pagina come array
 export async function getSupportTickets() {
-  const res = await fetch(`${BASE_URL}/api/support`, {
+  const page = await fetchSupportTickets();
+  return page.items;
+}
+
+// URL dell'export NDJSON in streaming (stessi filtri della lista)
+export function supportTicketsExportUrl(params?: Record<string, string>) {
+  const query = new URLSearchParams(params);
+  return `${BASE_URL}/api/support/export?${query.toString()}`;
+}
+
+export async function fetchSupportTicketById(id: string) {
+  const res = await fetch(`${BASE_URL}/api/support/${id}`, {
     headers: headers(),
     cache: 'no-store',
   });
   return handle<any>(res);
 }
 
-export async function fetchSupportTicketById(id: string) {
-  const res = await fetch(`${BASE_URL}/api/support/${id}`, {
+export type TicketSearchPage<T = any> = {
+  items: T[];
+  page: number;
+  size: number;
+  hasMore: boolean;
+};
+
+// Ricerca full-text ordinata per rilevanza su email, oggetto, messaggio e note
+export async function searchSupportTickets(q: string, params?: { status?: string; page?: number; size?: number }) {
+  const query = new URLSearchParams({ q });
+  if (params) Object.entries(params).forEach(([k, v]) => v !== undefined && query.append(k, String(v)));
+  const res = await fetch(`${BASE_URL}/api/support/search?${query.toString()}`, {
     headers: headers(),
     cache: 'no-store',
   });
-  return handle<any>(res);
+  return handle<TicketSearchPage>(res);
 }
 
 export async function updateTicketStatus(id: string, status: string, note?: string) {
@@ -260,6 +305,27 @@ export async function pingAPI() {
   return pingSystem();
 }
 
+export type MethodLatency = {
+  service: string;
+  method: string;
+  exception: string;
+  count: number;
+  meanMs: number;
+  p50Ms: number;
+  p95Ms: number;
+  p99Ms: number;
+  maxMs: number;
+};
+
+// Latenze misurate dal backend (Micrometer), ordinate per p95 decrescente
+export async function fetchBackendLatency() {
+  const res = await fetch(`${BASE_URL}/api/admin/metrics/latency`, {
+    headers: headers(),
+    cache: 'no-store',
+  });
+  return handle<MethodLatency[]>(res);
+}
+
 // 🔧 GENERIC API FUNCTIONS
 export async function apiGet(url: string) {
   const res = await fetch(`${BASE_URL}${url}`, {
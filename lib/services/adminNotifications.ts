@@ -10,7 +10,9 @@ export async function getAdminNotificationsArchive(token: string) {
   });
 
   if (!res.ok) throw new Error("Errore nel caricamento archivio notifiche");
-  return res.json();
+  // pagina keyset { items, nextCursor, hasMore }: la pagina archivio mostra la prima
+  const page = await res.json();
+  return page.items;
 }
 
 export async function getAdminNotifications(token: string) {